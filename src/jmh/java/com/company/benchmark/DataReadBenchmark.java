@@ -0,0 +1,71 @@
+package com.company.benchmark;
+
+import com.company.dto.Employee;
+import com.company.service.DataReadService;
+import com.company.service.impl.FileDataReadServiceImpl;
+import com.company.service.impl.MappedFileDataReadServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a generated CSV file into employees. The employees are consumed by a blackhole, so only the
+ * reading and parsing are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DataReadBenchmark {
+
+    @Param({"REALISTIC"})
+    private OrganizationGenerator.Shape shape;
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"8"})
+    private int fanOut;
+
+    private final DataReadService<Employee> fileDataReadService = new FileDataReadServiceImpl();
+    private final DataReadService<Employee> mappedFileDataReadService = new MappedFileDataReadServiceImpl();
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("employees", ".csv");
+        OrganizationGenerator.writeCsv(OrganizationGenerator.generate(shape, size, fanOut, 42), file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void readData(Blackhole blackhole) {
+        fileDataReadService.readData(file.toString(), blackhole::consume);
+    }
+
+    @Benchmark
+    public void readMappedData(Blackhole blackhole) {
+        mappedFileDataReadService.readData(file.toString(), blackhole::consume);
+    }
+}
@@ -0,0 +1,110 @@
+package com.company.benchmark;
+
+import com.company.dto.Employee;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic organizations of a given size and shape for the benchmarks.
+ * <p>
+ * Employees get the IDs {@code 1..size}, the employee with ID {@code 1} has no manager and every other employee is
+ * managed by an employee generated before it. Salaries decrease with the depth of the employee, with random noise, so
+ * the reports find both overpaid and underpaid managers. The same seed always generates the same organization.
+ */
+public final class OrganizationGenerator {
+
+    private static final String HEADER = "Id,firstName,lastName,salary,managerId";
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Martin", "Bob", "Alice", "Brett", "Christina", "Nathan"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Chekov", "Ronstad", "Hanson", "Brown", "Jones", "Miller"};
+    private static final double TOP_SALARY = 250_000;
+
+    /**
+     * The shape of a generated organization.
+     */
+    public enum Shape {
+        /**
+         * Every employee reports directly to the CEO: one manager with {@code size - 1} subordinates.
+         */
+        WIDE_FLAT,
+        /**
+         * Every employee reports to the previously generated one: a single report line of length {@code size}.
+         */
+        DEEP_CHAIN,
+        /**
+         * Managers have a random number of subordinates averaging the fan-out, so the depth grows logarithmically
+         * with the size and the leaves are spread over several levels.
+         */
+        REALISTIC
+    }
+
+    private OrganizationGenerator() {
+    }
+
+    /**
+     * Generates an organization.
+     *
+     * @param shape  the shape of the organization
+     * @param size   the number of employees
+     * @param fanOut the average number of direct subordinates of a manager, used by {@link Shape#REALISTIC}
+     * @param seed   the seed of the random generator
+     * @return the employees of the organization, every manager listed before its subordinates
+     */
+    public static List<Employee> generate(Shape shape, int size, int fanOut, long seed) {
+        Random random = new Random(seed);
+        int[] managers = new int[size];
+        int[] depths = new int[size];
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            managers[i] = i == 0 ? -1 : managerOf(shape, i, fanOut, random);
+            depths[i] = i == 0 ? 0 : depths[managers[i]] + 1;
+
+            //deep chains would drive the salaries to zero, so the decrease levels off after a few levels
+            double salary = Math.rint(TOP_SALARY / (1 + 0.35 * Math.min(depths[i], 10)) * (0.8 + 0.4 * random.nextDouble()));
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            employees.add(i == 0
+                    ? new Employee(1L, firstName, lastName, salary)
+                    : new Employee(i + 1L, firstName, lastName, salary, managers[i] + 1L));
+        }
+        return employees;
+    }
+
+    /**
+     * Writes the employees to a CSV file in the format read by the data read services.
+     *
+     * @param employees the employees to write
+     * @param file      the file to write to
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeCsv(List<Employee> employees, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Employee employee : employees) {
+                writer.write(employee.getId() + "," + employee.getFirstName() + "," + employee.getLastName() + ","
+                        + (long) employee.getSalary() + "," + (employee.getManagerId() == null ? "" : employee.getManagerId()));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static int managerOf(Shape shape, int employee, int fanOut, Random random) {
+        switch (shape) {
+            case WIDE_FLAT:
+                return 0;
+            case DEEP_CHAIN:
+                return employee - 1;
+            default:
+                //the expected manager index is employee / fanOut, so a manager has fanOut subordinates on average
+                int candidates = Math.max(1, (int) Math.min(employee, 2L * employee / Math.max(1, fanOut)));
+                return random.nextInt(candidates);
+        }
+    }
+}
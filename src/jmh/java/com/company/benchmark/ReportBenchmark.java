@@ -0,0 +1,68 @@
+package com.company.benchmark;
+
+import com.company.dto.Employee;
+import com.company.dto.EmployeeStructureNode;
+import com.company.service.OrganizationCacheService;
+import com.company.service.ReportService;
+import com.company.service.impl.OrganizationCacheServiceImpl;
+import com.company.service.impl.ReportServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the reports on a prebuilt organizational structure with the thresholds used by {@code Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReportBenchmark {
+
+    @Param({"WIDE_FLAT", "DEEP_CHAIN", "REALISTIC"})
+    private OrganizationGenerator.Shape shape;
+
+    @Param({"100000"})
+    private int size;
+
+    @Param({"8"})
+    private int fanOut;
+
+    private final ReportService reportService = new ReportServiceImpl();
+    private EmployeeStructureNode ceo;
+
+    @Setup
+    public void setUp() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(OrganizationGenerator.generate(shape, size, fanOut, 42));
+        ceo = organizationCacheService.getStructure();
+    }
+
+    @Benchmark
+    public Map<Employee, Double> getOverpaidManagers() {
+        return reportService.getSalaryDiscrepancies(ceo, 0.5, false);
+    }
+
+    @Benchmark
+    public Map<Employee, Double> getUnderpaidManagers() {
+        return reportService.getSalaryDiscrepancies(ceo, 0.2, true);
+    }
+
+    @Benchmark
+    public Map<Employee, Integer> getEmployeesReportLineLength() {
+        return reportService.getEmployeesReportLineLength(ceo, 3);
+    }
+}
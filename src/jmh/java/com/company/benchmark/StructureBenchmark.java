@@ -0,0 +1,64 @@
+package com.company.benchmark;
+
+import com.company.dto.Employee;
+import com.company.dto.EmployeeStructureNode;
+import com.company.service.OrganizationCacheService;
+import com.company.service.impl.OrganizationCacheServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the organizational structure of a freshly filled cache, the work done by the first
+ * {@code getStructure} call after loading the data. Every invocation gets a new cache, filled outside the measurement;
+ * the build takes milliseconds, so the per-invocation setup does not distort the results.
+ * {@link com.company.service.impl.OrganizationStructureBenchmark} measures the build and the copy separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class StructureBenchmark {
+
+    @Param({"WIDE_FLAT", "DEEP_CHAIN", "REALISTIC"})
+    private OrganizationGenerator.Shape shape;
+
+    @Param({"100000"})
+    private int size;
+
+    @Param({"8"})
+    private int fanOut;
+
+    private List<Employee> employees;
+    private OrganizationCacheService<Employee, Long> organizationCacheService;
+
+    @Setup
+    public void generate() {
+        employees = OrganizationGenerator.generate(shape, size, fanOut, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCache() {
+        organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+    }
+
+    @Benchmark
+    public EmployeeStructureNode getStructure() {
+        return organizationCacheService.getStructure();
+    }
+}
@@ -0,0 +1,66 @@
+package com.company.service.impl;
+
+import com.company.benchmark.OrganizationGenerator;
+import com.company.dto.Employee;
+import com.company.dto.EmployeeStructureNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the two parts of the first {@code getStructure} call separately: building the live organizational structure
+ * from the cached employees and copying it into the immutable snapshot handed to readers.
+ * <p>
+ * The benchmark is in the package of {@link OrganizationStructure}, which is not public. The generated employees are in
+ * ID order, the order in which the cache passes them to the build. The heap holds the employees, the structure copied
+ * by {@link #copyTree()} and the structure or copy being created at five million employees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class OrganizationStructureBenchmark {
+
+    @Param({"WIDE_FLAT", "DEEP_CHAIN", "REALISTIC"})
+    private OrganizationGenerator.Shape shape;
+
+    @Param({"100000", "5000000"})
+    private int size;
+
+    @Param({"8"})
+    private int fanOut;
+
+    private List<Employee> employees;
+    private OrganizationStructure structure;
+
+    @Setup
+    public void setUp() {
+        employees = OrganizationGenerator.generate(shape, size, fanOut, 42);
+        structure = build();
+    }
+
+    @Benchmark
+    public OrganizationStructure build() {
+        OrganizationStructure organizationStructure = new OrganizationStructure(employees.size());
+        organizationStructure.build(employees);
+        return organizationStructure;
+    }
+
+    @Benchmark
+    public EmployeeStructureNode copyTree() {
+        return structure.copyTree();
+    }
+}
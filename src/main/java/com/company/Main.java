@@ -1,49 +1,283 @@
 package com.company;
 
+import com.company.dto.CompactOrganizationStructure;
+import com.company.dto.DataChange;
 import com.company.dto.Employee;
 import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationDiagnostics;
+import com.company.dto.ReportFormat;
+import com.company.dto.ReportOrder;
+import com.company.dto.ReportSection;
 import com.company.service.DataReadService;
 import com.company.service.OrganizationCacheService;
-import com.company.service.ReportService;
-import com.company.service.impl.FileDataReadServiceImpl;
+import com.company.service.OrganizationValidationService;
+import com.company.service.ReportWriter;
+import com.company.service.impl.CachingReportServiceImpl;
+import com.company.service.impl.ChangeFileDataReadServiceImpl;
+import com.company.service.impl.ChannelFileDataReadServiceImpl;
+import com.company.service.impl.MappedFileDataReadServiceImpl;
 import com.company.service.impl.OrganizationCacheServiceImpl;
+import com.company.service.impl.OrganizationFileReloader;
+import com.company.service.impl.OrganizationValidationServiceImpl;
 import com.company.service.impl.ReportServiceImpl;
+import com.company.service.impl.ReportWriters;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Main {
 
     private static final String FILE_PATH = "com/company/employees.csv";
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
     private static final OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
-    private static final DataReadService<Employee> dataReadService = new FileDataReadServiceImpl();
-    private static final ReportService reportService = new ReportServiceImpl();
+    private static final DataReadService<Employee> dataReadService = new MappedFileDataReadServiceImpl();
+    //a watched file may be truncated while it is reloaded, which faults a mapped read but shortens a channel read
+    private static final DataReadService<Employee> reloadReadService = new ChannelFileDataReadServiceImpl();
+    private static final DataReadService<DataChange<Employee, Long>> changeReadService = new ChangeFileDataReadServiceImpl();
+    private static final int REPORT_CACHE_SIZE = 64;
+    private static final CachingReportServiceImpl reportService =
+            new CachingReportServiceImpl(new ReportServiceImpl(), organizationCacheService, REPORT_CACHE_SIZE);
+    private static final OrganizationValidationService validationService = new OrganizationValidationServiceImpl();
 
     private static final int DEFAULT_MAX_DEPTH = 3;
 
     private static final double DEFAULT_MAX_DISCREPANCY = 0.5;
     private static final double DEFAULT_MIN_DISCREPANCY = 0.2;
-    public static final String DISCREPEANCY_OUTPUT_FORMAT = "%s %s %.2f";
+    private static final String FORMAT_OPTION = "--format=";
+    private static final String OUTPUT_OPTION = "--output=";
+    private static final String ORDER_OPTION = "--order=";
+    private static final String SERVE_OPTION = "--serve";
+    private static final String QUIT_COMMAND = "quit";
 
+    /**
+     * Runs the checks and writes the report.
+     * Usage: {@code [path_to_csv_file] [--format=text|csv|jsonl] [--output=path_to_report_file]
+     * [--order=pre-order|employee-id|severity] [--serve]}. The report is written to the standard output in plain text
+     * and in pre-order unless specified otherwise. With {@code --serve}, the program keeps running and answers queries
+     * instead, see {@link #serve(String, ReportFormat, ReportOrder)}.
+     */
     public static void main(String[] args) {
+        String filePath = FILE_PATH;
+        ReportFormat format = ReportFormat.TEXT;
+        Path outputFile = null;
+        ReportOrder order = ReportOrder.PRE_ORDER;
+        boolean serve = false;
+        for (String arg : args) {
+            if (SERVE_OPTION.equals(arg)) {
+                serve = true;
+            } else if (arg.startsWith(FORMAT_OPTION)) {
+                format = ReportFormat.of(arg.substring(FORMAT_OPTION.length()));
+            } else if (arg.startsWith(OUTPUT_OPTION)) {
+                outputFile = Paths.get(arg.substring(OUTPUT_OPTION.length()));
+            } else if (arg.startsWith(ORDER_OPTION)) {
+                order = ReportOrder.of(arg.substring(ORDER_OPTION.length()));
+            } else {
+                filePath = arg;
+            }
+        }
+        if (serve) {
+            serve(filePath, format, order);
+            return;
+        }
 
-        if (args.length > 0) {
-            organizationCacheService.saveAll(dataReadService.readData(args[0]));
-        } else {
-            organizationCacheService.saveAll(dataReadService.readData(FILE_PATH));
+        OrganizationDiagnostics diagnostics;
+        try {
+            diagnostics = loadData(filePath);
+        } catch (UncheckedIOException e) {
+            System.err.println("Error reading file: " + filePath);
+            System.exit(1);
+            return;
+        }
+        if (!diagnostics.isValid()) {
+            System.err.println("Input data is not a valid organization: " + diagnostics);
+            System.exit(1);
         }
 
         EmployeeStructureNode ceo = organizationCacheService.getStructure();
+        CompactOrganizationStructure structure = organizationCacheService.getCompactStructure();
+
+        try (ReportWriter reportWriter = outputFile == null
+                ? ReportWriters.toStandardOutput(format) : ReportWriters.toFile(format, outputFile)) {
+            writeReport(ceo, structure, order, false, reportWriter);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error writing report: " + (outputFile == null ? "standard output" : outputFile));
+        }
+    }
 
-        Map<Employee, Double> discrepancyNotMore = reportService.getSalaryDiscrepancies(ceo, DEFAULT_MAX_DISCREPANCY, false);
-        Map<Employee, Double> discrepancyNotLess = reportService.getSalaryDiscrepancies(ceo, DEFAULT_MIN_DISCREPANCY, true);
-
-        System.out.println("Employees who earn more than should, in format: FirstName LastName Discrepancy(percent):");
-        discrepancyNotMore.forEach((employee, discrepancy) -> System.out.printf((DISCREPEANCY_OUTPUT_FORMAT) + "%n", employee.getFirstName(), employee.getLastName(), discrepancy));
-        System.out.println();
-        System.out.println("Employees who earn less than should, in format: FirstName LastName Discrepancy(percent):");
-        discrepancyNotLess.forEach((employee, discrepancy) -> System.out.printf((DISCREPEANCY_OUTPUT_FORMAT) + "%n", employee.getFirstName(), employee.getLastName(), discrepancy));
-        System.out.println();
-        System.out.println("Employees with long report line length:");
-        Map<Employee, Integer> reportLineLength = reportService.getEmployeesReportLineLength(ceo, DEFAULT_MAX_DEPTH);
-        reportLineLength.forEach((employee, length) -> System.out.printf("%s %s %d%n", employee.getFirstName(), employee.getLastName(), length));
+    /**
+     * Writes the findings of all checks. A remembered report is collected by the memoized report methods, so a repeated
+     * report of unchanged data is written from memory; otherwise the salary discrepancies of a pre-order report are
+     * streamed, collecting nothing. The long report lines are always taken from the depth index of the compact
+     * structure, so only the employees deeper than the maximum depth are visited.
+     */
+    private static void writeReport(EmployeeStructureNode ceo, CompactOrganizationStructure structure, ReportOrder order,
+                                    boolean remembered, ReportWriter reportWriter) {
+        if (order == ReportOrder.PRE_ORDER && !remembered) {
+            //the discrepancy sections are streamed by their own traversals, so no discrepancies are collected in memory
+            reportWriter.beginSection(ReportSection.OVERPAID_MANAGERS);
+            reportService.findSalaryDiscrepancies(ceo, DEFAULT_MAX_DISCREPANCY, false, reportWriter::writeSalaryDiscrepancy);
+            reportWriter.beginSection(ReportSection.UNDERPAID_MANAGERS);
+            reportService.findSalaryDiscrepancies(ceo, DEFAULT_MIN_DISCREPANCY, true, reportWriter::writeSalaryDiscrepancy);
+        } else {
+            reportWriter.beginSection(ReportSection.OVERPAID_MANAGERS);
+            reportService.getSalaryDiscrepancies(ceo, DEFAULT_MAX_DISCREPANCY, false, order).forEach(reportWriter::writeSalaryDiscrepancy);
+            reportWriter.beginSection(ReportSection.UNDERPAID_MANAGERS);
+            reportService.getSalaryDiscrepancies(ceo, DEFAULT_MIN_DISCREPANCY, true, order).forEach(reportWriter::writeSalaryDiscrepancy);
+        }
+        reportWriter.beginSection(ReportSection.LONG_REPORT_LINES);
+        reportService.getEmployeesReportLineLength(structure, DEFAULT_MAX_DEPTH, order).forEach(reportWriter::writeReportLineLength);
+    }
+
+    /**
+     * Keeps the employees in memory, reloads the CSV file whenever it changes and answers queries read line by line
+     * from the standard input until {@code quit} or the end of the input:
+     * <ul>
+     *     <li>{@code report} writes the report in the format and order given on the command line, remembered until the
+     *     data changes;</li>
+     *     <li>{@code employee <id>} writes the employee with the ID as a CSV record;</li>
+     *     <li>{@code discrepancy <id>} writes the salary discrepancy of the manager with the ID;</li>
+     *     <li>{@code apply <path>} applies the upserts and deletes of a change file, see
+     *     {@link ChangeFileDataReadServiceImpl}, until the CSV file is reloaded, unless they break the organization;</li>
+     *     <li>{@code reload} reloads the CSV file and writes whether it is a valid organization;</li>
+     *     <li>{@code stats} writes the hits, misses and evictions of the report cache.</li>
+     * </ul>
+     * Every answer ends with an empty line. A changed file that is not a valid organization is reported to the
+     * standard error output and the previous data is kept.
+     */
+    private static void serve(String filePath, ReportFormat format, ReportOrder order) {
+        try (OrganizationFileReloader reloader = new OrganizationFileReloader(Paths.get(filePath),
+                organizationCacheService, reloadReadService, validationService)) {
+            OrganizationDiagnostics diagnostics = reloader.reload();
+            if (!diagnostics.isValid()) {
+                System.err.println("Input data is not a valid organization: " + diagnostics);
+                System.exit(1);
+            }
+            if (Files.isRegularFile(Paths.get(filePath))) {
+                try {
+                    reloader.start();
+                } catch (IOException e) {
+                    System.err.println("Error watching file, changes will not be reloaded: " + filePath);
+                }
+            }
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null && !QUIT_COMMAND.equals(line.trim())) {
+                String[] command = line.trim().split("\\s+");
+                if (command[0].isEmpty()) {
+                    continue;
+                }
+                try {
+                    answer(command, reloader, format, order);
+                } catch (RuntimeException e) {
+                    System.out.println("Error: " + e.getMessage());
+                }
+                System.out.println();
+                System.out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading standard input");
+        }
+    }
+
+    private static void answer(String[] command, OrganizationFileReloader reloader, ReportFormat format, ReportOrder order) {
+        switch (command[0]) {
+            case "report":
+                //the structures are immutable copies of the same data, so the report is written without holding up reloads
+                Map.Entry<EmployeeStructureNode, CompactOrganizationStructure> structures = reloader.query(() ->
+                        Map.entry(organizationCacheService.getStructure(), organizationCacheService.getCompactStructure()));
+                try (ReportWriter reportWriter = ReportWriters.toStandardOutput(format)) {
+                    writeReport(structures.getKey(), structures.getValue(), order, true, reportWriter);
+                }
+                break;
+            case "employee":
+                Employee employee = reloader.query(() -> organizationCacheService.findById(parseId(command)));
+                System.out.println(employee == null ? "Not found" : employee.getId() + "," + employee.getFirstName() + ","
+                        + employee.getLastName() + "," + employee.getSalary() + ","
+                        + (employee.getManagerId() == null ? "" : employee.getManagerId()));
+                break;
+            case "discrepancy":
+                Double discrepancy = reloader.query(() -> organizationCacheService.getSalaryDiscrepancy(parseId(command)));
+                System.out.println(discrepancy == null ? "Not found" : discrepancy);
+                break;
+            case "apply":
+                if (command.length < 2) {
+                    throw new IllegalArgumentException("Missing change file");
+                }
+                List<DataChange<Employee, Long>> changes = new ArrayList<>();
+                changeReadService.readData(command[1], changes::add);
+                OrganizationDiagnostics applied = reloader.applyChanges(changes);
+                System.out.println(applied.isValid() ? "Applied " + changes.size() + " changes"
+                        : "Not a valid organization, keeping previous data: " + applied);
+                break;
+            case "reload":
+                OrganizationDiagnostics diagnostics = reloader.reload();
+                System.out.println(diagnostics.isValid() ? "Reloaded" : "Not a valid organization, keeping previous data: " + diagnostics);
+                break;
+            case "stats":
+                System.out.println("Report cache: " + reportService.getHitCount() + " hits, " + reportService.getMissCount()
+                        + " misses, " + reportService.getEvictionCount() + " evictions");
+                break;
+            default:
+                System.out.println("Unknown command: " + command[0]);
+        }
+    }
+
+    private static long parseId(String[] command) {
+        if (command.length < 2) {
+            throw new IllegalArgumentException("Missing ID");
+        }
+        return Long.parseLong(command[1]);
+    }
+
+    /**
+     * Loads employees from the binary snapshot next to the CSV file if it is up to date, otherwise parses the CSV file
+     * and writes a new snapshot for the next run. Classpath resources are always parsed.
+     * Parsed employees are streamed straight into the cache and validated there, before any structure is built, so
+     * the rows are never collected in memory twice. Invalid input is rejected and no snapshot is written for it.
+     *
+     * @throws UncheckedIOException if the file cannot be read completely, no snapshot is written then either
+     */
+    private static OrganizationDiagnostics loadData(String filePath) {
+        Path sourceFile = Paths.get(filePath);
+        Path snapshotFile = Paths.get(filePath + SNAPSHOT_EXTENSION);
+        if (organizationCacheService.loadSnapshot(snapshotFile, sourceFile)) {
+            return organizationCacheService.validate();
+        }
+
+        //the reader may call the consumer from several threads, the cache returns the employee a row replaced
+        Set<Long> duplicateIds = ConcurrentHashMap.newKeySet();
+        dataReadService.readData(filePath, employee -> {
+            if (organizationCacheService.save(employee) != null) {
+                duplicateIds.add(employee.getId());
+            }
+        });
+        OrganizationDiagnostics diagnostics = organizationCacheService.validate();
+        if (!duplicateIds.isEmpty()) {
+            List<Long> sortedDuplicateIds = new ArrayList<>(duplicateIds);
+            Collections.sort(sortedDuplicateIds);
+            diagnostics = new OrganizationDiagnostics(diagnostics.getEmployeesCount(), sortedDuplicateIds,
+                    diagnostics.getRoots(), diagnostics.getOrphans(), diagnostics.getCycles(),
+                    diagnostics.getUnreachableCount());
+        }
+        if (!diagnostics.isValid()) {
+            return diagnostics;
+        }
+
+        if (Files.isRegularFile(sourceFile)) {
+            organizationCacheService.writeSnapshot(snapshotFile, sourceFile);
+        }
+        return diagnostics;
     }
 }
@@ -0,0 +1,29 @@
+package com.company.dto;
+
+import java.util.Locale;
+
+/**
+ * The {@code ChangeType} enum lists the kinds of records of a change file.
+ */
+public enum ChangeType {
+
+    /**
+     * Adds the object, or replaces the object with the same identifier.
+     */
+    UPSERT,
+    /**
+     * Removes the object with the identifier.
+     */
+    DELETE;
+
+    /**
+     * Returns the change type with the specified name, ignoring case.
+     *
+     * @param name the name of the change type, for example {@code upsert} or {@code delete}
+     * @return the change type with the specified name
+     * @throws IllegalArgumentException if there is no change type with the specified name
+     */
+    public static ChangeType of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
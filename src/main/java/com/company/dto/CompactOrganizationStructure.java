@@ -0,0 +1,212 @@
+package com.company.dto;
+
+import java.util.Arrays;
+
+/**
+ * The {@code CompactOrganizationStructure} class represents the employee structure tree as a struct of primitive arrays.
+ * <p>
+ * Every employee reachable from the root is identified by a dense index. Employees are laid out in breadth-first order:
+ * the root has index {@code 0}, every level of the hierarchy occupies a contiguous range of indices and the
+ * subordinates of every employee occupy the contiguous range {@code [getSubordinatesStart(i), getSubordinatesEnd(i))}.
+ * The child offsets therefore form a CSR (compressed sparse row) adjacency whose adjacency array is the identity
+ * and does not need to be stored.
+ * <p>
+ * The depth of every employee and the index range of every level are computed once, when the structure is created.
+ * The depth is the length of the report line, so the root has the depth {@code 1}. All employees deeper than a given
+ * depth form the single index range {@code [getLevelStart(depth + 1), size())}.
+ * <p>
+ * Instances are immutable.
+ */
+public final class CompactOrganizationStructure {
+
+    /**
+     * The parent index of the root.
+     */
+    public static final int NO_PARENT = -1;
+
+    private final long[] ids;
+    private final double[] salaries;
+    private final int[] parents;
+    private final int[] childOffsets;
+    private final Employee[] employees;
+    private final int[] depths;
+    private final int[] levelOffsets;
+
+    /**
+     * Constructs a new {@code CompactOrganizationStructure} from arrays in breadth-first order.
+     * The arrays are not copied.
+     *
+     * @param ids          the IDs of the employees
+     * @param salaries     the salaries of the employees
+     * @param parents      the index of the manager of every employee, or {@link #NO_PARENT} for the root
+     * @param childOffsets the index of the first subordinate of every employee, with one trailing element
+     * @param employees    the employees, used to report results
+     */
+    public CompactOrganizationStructure(long[] ids, double[] salaries, int[] parents, int[] childOffsets, Employee[] employees) {
+        this.ids = ids;
+        this.salaries = salaries;
+        this.parents = parents;
+        this.childOffsets = childOffsets;
+        this.employees = employees;
+        this.levelOffsets = computeLevelOffsets(childOffsets, ids.length);
+        this.depths = new int[ids.length];
+        for (int depth = 1; depth < levelOffsets.length; depth++) {
+            Arrays.fill(depths, levelOffsets[depth - 1], levelOffsets[depth], depth);
+        }
+    }
+
+    /**
+     * Returns the index of the first employee of every level, followed by the size of the structure.
+     * The subordinates of a level are the next level, so only the first and last employee of every level are visited.
+     */
+    private static int[] computeLevelOffsets(int[] childOffsets, int size) {
+        int[] levelOffsets = new int[16];
+        int levels = 0;
+        int levelStart = 0;
+        int levelEnd = size == 0 ? 0 : 1;
+        while (levelStart < levelEnd) {
+            if (levels + 1 == levelOffsets.length) {
+                levelOffsets = Arrays.copyOf(levelOffsets, levelOffsets.length * 2);
+            }
+            levelOffsets[levels++] = levelStart;
+            int nextLevelStart = childOffsets[levelStart];
+            levelEnd = childOffsets[levelEnd];
+            levelStart = nextLevelStart;
+        }
+        levelOffsets[levels] = size;
+        return Arrays.copyOf(levelOffsets, levels + 1);
+    }
+
+    /**
+     * Returns the number of employees in the structure.
+     *
+     * @return the number of employees in the structure
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the ID of the employee with the specified index.
+     *
+     * @param index the index of the employee
+     * @return the ID of the employee
+     */
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns the salary of the employee with the specified index.
+     *
+     * @param index the index of the employee
+     * @return the salary of the employee
+     */
+    public double getSalary(int index) {
+        return salaries[index];
+    }
+
+    /**
+     * Returns the index of the manager of the employee with the specified index.
+     *
+     * @param index the index of the employee
+     * @return the index of the manager, or {@link #NO_PARENT} for the root
+     */
+    public int getParent(int index) {
+        return parents[index];
+    }
+
+    /**
+     * Returns the index of the first subordinate of the employee with the specified index.
+     *
+     * @param index the index of the employee
+     * @return the index of the first subordinate
+     */
+    public int getSubordinatesStart(int index) {
+        return childOffsets[index];
+    }
+
+    /**
+     * Returns the index following the last subordinate of the employee with the specified index.
+     *
+     * @param index the index of the employee
+     * @return the index following the last subordinate
+     */
+    public int getSubordinatesEnd(int index) {
+        return childOffsets[index + 1];
+    }
+
+    /**
+     * Returns the employee with the specified index.
+     *
+     * @param index the index of the employee
+     * @return the employee
+     */
+    public Employee getEmployee(int index) {
+        return employees[index];
+    }
+
+    /**
+     * Returns the depth of the employee with the specified index, the length of its report line.
+     *
+     * @param index the index of the employee
+     * @return the depth of the employee, {@code 1} for the root
+     */
+    public int getDepth(int index) {
+        return depths[index];
+    }
+
+    /**
+     * Returns the depth of the deepest employee, the number of levels of the structure.
+     *
+     * @return the maximum depth, or {@code 0} if the structure is empty
+     */
+    public int getMaxDepth() {
+        return levelOffsets.length - 1;
+    }
+
+    /**
+     * Returns the index of the first employee with the specified depth. Depths below {@code 1} are treated as
+     * {@code 1} and depths beyond the maximum depth start at the end of the structure.
+     *
+     * @param depth the depth of the level
+     * @return the index of the first employee of the level, or {@link #size()} if the level is empty
+     */
+    public int getLevelStart(int depth) {
+        return levelOffsets[Math.max(0, Math.min(depth - 1, levelOffsets.length - 1))];
+    }
+
+    /**
+     * Returns the index following the last employee with the specified depth.
+     *
+     * @param depth the depth of the level
+     * @return the index following the last employee of the level
+     */
+    public int getLevelEnd(int depth) {
+        return depth < 1 ? 0 : getLevelStart(depth + 1);
+    }
+
+    /**
+     * Returns the number of employees with the specified depth.
+     *
+     * @param depth the depth of the level
+     * @return the number of employees of the level
+     */
+    public int getLevelSize(int depth) {
+        return getLevelEnd(depth) - getLevelStart(depth);
+    }
+
+    /**
+     * Returns the number of employees of every level: the element {@code d - 1} is the number of employees with the
+     * depth {@code d}.
+     *
+     * @return a new array with the depth histogram of the structure
+     */
+    public int[] getDepthHistogram() {
+        int[] histogram = new int[getMaxDepth()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = levelOffsets[i + 1] - levelOffsets[i];
+        }
+        return histogram;
+    }
+}
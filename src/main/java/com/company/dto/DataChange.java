@@ -0,0 +1,75 @@
+package com.company.dto;
+
+import java.util.Objects;
+
+/**
+ * The {@code DataChange} class represents a single record of a change file: an object to add or update, or the
+ * identifier of an object to remove.
+ *
+ * @param <T>  the type of the changed objects
+ * @param <ID> the type of the identifier of the objects
+ */
+public final class DataChange<T, ID> {
+
+    private final ChangeType type;
+    private final ID id;
+    private final T object;
+
+    private DataChange(ChangeType type, ID id, T object) {
+        this.type = type;
+        this.id = Objects.requireNonNull(id, "id");
+        this.object = object;
+    }
+
+    /**
+     * Creates a change that adds the specified object or replaces the object with the same identifier.
+     *
+     * @param id     the identifier of the object
+     * @param object the new object
+     * @param <T>    the type of the changed objects
+     * @param <ID>   the type of the identifier of the objects
+     * @return the change
+     */
+    public static <T, ID> DataChange<T, ID> upsert(ID id, T object) {
+        return new DataChange<>(ChangeType.UPSERT, id, Objects.requireNonNull(object, "object"));
+    }
+
+    /**
+     * Creates a change that removes the object with the specified identifier.
+     *
+     * @param id   the identifier of the object
+     * @param <T>  the type of the changed objects
+     * @param <ID> the type of the identifier of the objects
+     * @return the change
+     */
+    public static <T, ID> DataChange<T, ID> delete(ID id) {
+        return new DataChange<>(ChangeType.DELETE, id, null);
+    }
+
+    /**
+     * Returns the type of the change.
+     *
+     * @return the type of the change
+     */
+    public ChangeType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the identifier of the changed object.
+     *
+     * @return the identifier of the changed object
+     */
+    public ID getId() {
+        return id;
+    }
+
+    /**
+     * Returns the new object of an upsert.
+     *
+     * @return the new object, or {@code null} for a delete
+     */
+    public T getObject() {
+        return object;
+    }
+}
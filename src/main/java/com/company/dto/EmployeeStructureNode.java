@@ -6,12 +6,22 @@ import java.util.List;
 /**
  * The {@code EmployeeStructureNode} class represents a node in the employee structure tree.
  * Each node contains an {@code Employee} and references to its manager and subordinates.
+ * <p>
+ * {@link #addSubordinate} and {@link #removeSubordinate} keep the subordinates in ascending ID order, so the order of
+ * the subordinates depends only on who they are and not on the order of the updates that linked them.
+ * <p>
+ * The node keeps a running sum of the salaries of its direct subordinates, updated by {@link #addSubordinate},
+ * {@link #removeSubordinate} and {@link #setEmployee} of a subordinate. The sum is compensated for rounding errors
+ * (Neumaier summation), so it does not drift over many updates. Subordinates added to the list returned by
+ * {@link #getSubordinates()} directly are not part of the sum.
  */
 public class EmployeeStructureNode {
 
-    private final Employee employee;
+    private Employee employee;
     private EmployeeStructureNode manager;
     private final List<EmployeeStructureNode> subordinates;
+    private double subordinatesSalary;
+    private double subordinatesSalaryCompensation;
 
     /**
      * Constructs a new {@code EmployeeStructureNode} with the specified employee.
@@ -33,6 +43,20 @@ public class EmployeeStructureNode {
         return employee;
     }
 
+    /**
+     * Replaces the employee associated with this node, e.g. after a salary change.
+     * The new employee must have the same ID, so that the node keeps its identity.
+     *
+     * @param employee the new employee associated with this node
+     */
+    public void setEmployee(Employee employee) {
+        if (manager != null && employee.getSalary() != this.employee.getSalary()) {
+            manager.addSubordinatesSalary(-this.employee.getSalary());
+            manager.addSubordinatesSalary(employee.getSalary());
+        }
+        this.employee = employee;
+    }
+
     /**
      * Returns the manager of this employee node.
      *
@@ -61,12 +85,94 @@ public class EmployeeStructureNode {
     }
 
     /**
-     * Adds a subordinate to the list of subordinates for this employee node.
+     * Returns the sum of the salaries of the direct subordinates of this employee node.
+     *
+     * @return the sum of the salaries of the direct subordinates, {@code 0} if there are none
+     */
+    public double getSubordinatesSalary() {
+        return subordinatesSalary + subordinatesSalaryCompensation;
+    }
+
+    /**
+     * Adds a subordinate to the list of subordinates for this employee node, at its place in ascending ID order.
+     * A subordinate with a higher ID than all others, as when subordinates are linked in ID order, is appended in
+     * constant time; otherwise the subordinates with higher IDs are moved by one.
      *
      * @param subordinate the subordinate to be added
      */
     public void addSubordinate(EmployeeStructureNode subordinate) {
-        subordinates.add(subordinate);
+        long id = subordinate.getEmployee().getId();
+        int size = subordinates.size();
+        if (size == 0 || subordinates.get(size - 1).getEmployee().getId() < id) {
+            subordinates.add(subordinate);
+        } else {
+            int index = indexOf(id);
+            subordinates.add(index < 0 ? -index - 1 : index, subordinate);
+        }
+        addSubordinatesSalary(subordinate.getEmployee().getSalary());
+    }
+
+    /**
+     * Removes a subordinate from the list of subordinates for this employee node. The subordinate is found by a binary
+     * search of its ID and the subordinates with higher IDs are moved by one, so the remaining subordinates keep
+     * their order. Removing the subordinate with the highest ID takes constant time.
+     *
+     * @param subordinate the subordinate to be removed
+     * @return {@code true} if the node was a subordinate of this node, {@code false} otherwise
+     */
+    public boolean removeSubordinate(EmployeeStructureNode subordinate) {
+        int index = indexOf(subordinate.getEmployee().getId());
+        if (index < 0 || subordinates.get(index) != subordinate) {
+            //the list was modified directly, fall back to a linear search
+            index = -1;
+            for (int i = 0; i < subordinates.size() && index < 0; i++) {
+                if (subordinates.get(i) == subordinate) {
+                    index = i;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+        }
+
+        subordinates.remove(index);
+        if (subordinates.isEmpty()) {
+            subordinatesSalary = 0;
+            subordinatesSalaryCompensation = 0;
+        } else {
+            addSubordinatesSalary(-subordinate.getEmployee().getSalary());
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the subordinate with the specified ID, or {@code -(insertion point) - 1} if there is none.
+     */
+    private int indexOf(long id) {
+        int low = 0;
+        int high = subordinates.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = subordinates.get(middle).getEmployee().getId();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void addSubordinatesSalary(double salary) {
+        double sum = subordinatesSalary + salary;
+        if (Math.abs(subordinatesSalary) >= Math.abs(salary)) {
+            subordinatesSalaryCompensation += subordinatesSalary - sum + salary;
+        } else {
+            subordinatesSalaryCompensation += salary - sum + subordinatesSalary;
+        }
+        subordinatesSalary = sum;
     }
 
     /**
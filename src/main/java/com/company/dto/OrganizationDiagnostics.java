@@ -0,0 +1,152 @@
+package com.company.dto;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code OrganizationDiagnostics} class holds the structural problems found in a set of employees.
+ * <p>
+ * The employees form a valid organization if the IDs are unique, there is exactly one employee without a manager, every
+ * manager ID refers to an existing employee and no report line leads back to the employee it starts from.
+ */
+public class OrganizationDiagnostics {
+
+    //the number of employees listed per problem by toString
+    private static final int MAX_LISTED_EMPLOYEES = 10;
+
+    private final int employeesCount;
+    private final List<Long> duplicateIds;
+    private final List<Employee> roots;
+    private final List<Employee> orphans;
+    private final List<List<Employee>> cycles;
+    private final int unreachableCount;
+
+    /**
+     * Constructs a new {@code OrganizationDiagnostics} with the specified problems.
+     *
+     * @param employeesCount   the number of distinct employees checked
+     * @param duplicateIds     the IDs shared by more than one employee
+     * @param roots            the employees without a manager
+     * @param orphans          the employees whose manager does not exist
+     * @param cycles           the report lines leading back to the employee they start from, each in manager order
+     * @param unreachableCount the number of employees whose report line ends in an orphan or a cycle instead of an
+     *                         employee without a manager
+     */
+    public OrganizationDiagnostics(int employeesCount, List<Long> duplicateIds, List<Employee> roots,
+                                   List<Employee> orphans, List<List<Employee>> cycles, int unreachableCount) {
+        this.employeesCount = employeesCount;
+        this.duplicateIds = Collections.unmodifiableList(duplicateIds);
+        this.roots = Collections.unmodifiableList(roots);
+        this.orphans = Collections.unmodifiableList(orphans);
+        this.cycles = Collections.unmodifiableList(cycles);
+        this.unreachableCount = unreachableCount;
+    }
+
+    /**
+     * Returns the number of distinct employees checked.
+     *
+     * @return the number of employees
+     */
+    public int getEmployeesCount() {
+        return employeesCount;
+    }
+
+    /**
+     * Returns the IDs shared by more than one employee, in the order they were first repeated.
+     *
+     * @return the duplicate IDs
+     */
+    public List<Long> getDuplicateIds() {
+        return duplicateIds;
+    }
+
+    /**
+     * Returns the employees without a manager.
+     *
+     * @return the employees without a manager
+     */
+    public List<Employee> getRoots() {
+        return roots;
+    }
+
+    /**
+     * Returns the employees whose manager ID does not refer to an existing employee.
+     *
+     * @return the orphaned employees
+     */
+    public List<Employee> getOrphans() {
+        return orphans;
+    }
+
+    /**
+     * Returns the report lines that lead back to the employee they start from. Every cycle lists its employees in
+     * manager order, each employee followed by its manager.
+     *
+     * @return the cycles of the organization
+     */
+    public List<List<Employee>> getCycles() {
+        return cycles;
+    }
+
+    /**
+     * Returns the number of employees not reachable from an employee without a manager, because their report line
+     * ends in an orphan or a cycle. Orphans and the employees in cycles are counted as well.
+     *
+     * @return the number of unreachable employees
+     */
+    public int getUnreachableCount() {
+        return unreachableCount;
+    }
+
+    /**
+     * Returns whether the employees form a single valid hierarchy.
+     *
+     * @return {@code true} if there are no duplicate IDs, orphans or cycles and exactly one employee without a manager
+     */
+    public boolean isValid() {
+        return duplicateIds.isEmpty() && roots.size() == 1 && orphans.isEmpty() && cycles.isEmpty();
+    }
+
+    /**
+     * Returns a summary of the problems found, listing at most ten employees per problem.
+     *
+     * @return a human readable summary of the diagnostics
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(employeesCount).append(" employees, ").append(isValid() ? "valid" : "invalid");
+        if (!duplicateIds.isEmpty()) {
+            summary.append(System.lineSeparator()).append("Duplicate IDs (").append(duplicateIds.size()).append("): ")
+                    .append(listed(duplicateIds.stream().map(String::valueOf).collect(Collectors.toList())));
+        }
+        if (roots.size() != 1) {
+            summary.append(System.lineSeparator()).append("Employees without a manager (").append(roots.size())
+                    .append("): ").append(listedIds(roots));
+        }
+        if (!orphans.isEmpty()) {
+            summary.append(System.lineSeparator()).append("Employees with a missing manager (").append(orphans.size())
+                    .append("): ").append(listed(orphans.stream()
+                            .map(employee -> employee.getId() + " -> " + employee.getManagerId())
+                            .collect(Collectors.toList())));
+        }
+        if (!cycles.isEmpty()) {
+            summary.append(System.lineSeparator()).append("Cycles (").append(cycles.size()).append("): ")
+                    .append(listed(cycles.stream().map(this::listedIds).collect(Collectors.toList())));
+        }
+        if (unreachableCount > 0) {
+            summary.append(System.lineSeparator()).append("Employees not reachable from a root: ").append(unreachableCount);
+        }
+        return summary.toString();
+    }
+
+    private String listedIds(List<Employee> employees) {
+        return listed(employees.stream().map(employee -> String.valueOf(employee.getId())).collect(Collectors.toList()));
+    }
+
+    private static String listed(List<String> values) {
+        String listed = values.stream().limit(MAX_LISTED_EMPLOYEES).collect(Collectors.joining(", ", "[", ""));
+        return values.size() > MAX_LISTED_EMPLOYEES ? listed + ", ...]" : listed + "]";
+    }
+}
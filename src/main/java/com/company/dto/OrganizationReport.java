@@ -0,0 +1,55 @@
+package com.company.dto;
+
+import java.util.Map;
+
+/**
+ * The {@code OrganizationReport} class holds the results of all organization checks computed in a single traversal
+ * of the employee structure.
+ */
+public class OrganizationReport {
+
+    private final Map<Employee, Double> overpaidManagers;
+    private final Map<Employee, Double> underpaidManagers;
+    private final Map<Employee, Integer> longReportLines;
+
+    /**
+     * Constructs a new {@code OrganizationReport} with the specified check results.
+     *
+     * @param overpaidManagers  the managers earning more than they should, with their salary discrepancies
+     * @param underpaidManagers the managers earning less than they should, with their salary discrepancies
+     * @param longReportLines   the employees with too long report lines, with the length of their report lines
+     */
+    public OrganizationReport(Map<Employee, Double> overpaidManagers, Map<Employee, Double> underpaidManagers,
+                              Map<Employee, Integer> longReportLines) {
+        this.overpaidManagers = overpaidManagers;
+        this.underpaidManagers = underpaidManagers;
+        this.longReportLines = longReportLines;
+    }
+
+    /**
+     * Returns the managers whose salary discrepancy is greater than the maximum discrepancy.
+     *
+     * @return a map associating managers with their salary discrepancies
+     */
+    public Map<Employee, Double> getOverpaidManagers() {
+        return overpaidManagers;
+    }
+
+    /**
+     * Returns the managers whose salary discrepancy is less than the minimum discrepancy.
+     *
+     * @return a map associating managers with their salary discrepancies
+     */
+    public Map<Employee, Double> getUnderpaidManagers() {
+        return underpaidManagers;
+    }
+
+    /**
+     * Returns the employees whose report line is longer than the maximum depth.
+     *
+     * @return a map associating employees with the length of their report line
+     */
+    public Map<Employee, Integer> getLongReportLines() {
+        return longReportLines;
+    }
+}
@@ -0,0 +1,175 @@
+package com.company.dto;
+
+import com.company.util.LongSorting;
+
+import java.util.Arrays;
+
+/**
+ * The {@code OrganizationUnitIndex} class represents the employee structure tree in pre-order, so that every subtree
+ * (an organization unit headed by a manager) is a contiguous range of positions.
+ * <p>
+ * The employee at position {@code p} heads the unit {@code [p, getSubtreeEnd(p))}: itself followed by all its direct
+ * and indirect subordinates. An employee is a subordinate of another if its position lies in the range of the other,
+ * which is tested in constant time. The first direct subordinate of {@code p} is at {@code p + 1} and every next one
+ * follows the subtree of the previous one. Salaries are summed once into prefix sums, so the payroll of a unit is the
+ * difference of two of them. The rounding error of every prefix sum is kept alongside it, so a small unit deep in a
+ * large organization does not lose its low digits to the payroll before it.
+ * <p>
+ * Instances are immutable.
+ */
+public final class OrganizationUnitIndex {
+
+    /**
+     * The position returned for an ID that is not part of the structure.
+     */
+    public static final int NOT_FOUND = -1;
+
+    private final long[] ids;
+    private final double[] salaries;
+    private final int[] depths;
+    private final int[] subtreeEnds;
+    private final Employee[] employees;
+    private final double[] salaryPrefixSums;
+    private final double[] salaryPrefixErrors;
+    private final long[] sortedIds;
+    private final int[] sortedPositions;
+
+    /**
+     * Constructs a new {@code OrganizationUnitIndex} from arrays in pre-order. The arrays are not copied.
+     *
+     * @param ids         the IDs of the employees
+     * @param salaries    the salaries of the employees
+     * @param depths      the depth of every employee, {@code 1} for the root
+     * @param subtreeEnds the position following the last subordinate of every employee
+     * @param employees   the employees, used to report results
+     */
+    public OrganizationUnitIndex(long[] ids, double[] salaries, int[] depths, int[] subtreeEnds, Employee[] employees) {
+        this.ids = ids;
+        this.salaries = salaries;
+        this.depths = depths;
+        this.subtreeEnds = subtreeEnds;
+        this.employees = employees;
+
+        this.salaryPrefixSums = new double[ids.length + 1];
+        this.salaryPrefixErrors = new double[ids.length + 1];
+        double error = 0;
+        for (int position = 0; position < ids.length; position++) {
+            double sum = salaryPrefixSums[position];
+            double salary = salaries[position];
+            double nextSum = sum + salary;
+            //the exact rounding error of the addition (Knuth's TwoSum)
+            double salaryPart = nextSum - sum;
+            error += (sum - (nextSum - salaryPart)) + (salary - salaryPart);
+            salaryPrefixSums[position + 1] = nextSum;
+            salaryPrefixErrors[position + 1] = error;
+        }
+
+        this.sortedIds = new long[ids.length];
+        this.sortedPositions = new int[ids.length];
+        sortIds();
+    }
+
+    /**
+     * Sorts the IDs together with their positions, without boxing.
+     */
+    private void sortIds() {
+        int[] positions = LongSorting.sortedIndices(ids);
+        for (int i = 0; i < positions.length; i++) {
+            sortedIds[i] = ids[positions[i]];
+            sortedPositions[i] = positions[i];
+        }
+    }
+
+    /**
+     * Returns the number of employees in the structure.
+     *
+     * @return the number of employees in the structure
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the position of the employee with the specified ID.
+     *
+     * @param id the ID of the employee
+     * @return the position of the employee, or {@link #NOT_FOUND} if it is not part of the structure
+     */
+    public int getPosition(long id) {
+        int sortedIndex = Arrays.binarySearch(sortedIds, id);
+        return sortedIndex < 0 ? NOT_FOUND : sortedPositions[sortedIndex];
+    }
+
+    /**
+     * Returns the ID of the employee at the specified position.
+     *
+     * @param position the position of the employee
+     * @return the ID of the employee
+     */
+    public long getId(int position) {
+        return ids[position];
+    }
+
+    /**
+     * Returns the salary of the employee at the specified position.
+     *
+     * @param position the position of the employee
+     * @return the salary of the employee
+     */
+    public double getSalary(int position) {
+        return salaries[position];
+    }
+
+    /**
+     * Returns the depth of the employee at the specified position, the length of its report line.
+     *
+     * @param position the position of the employee
+     * @return the depth of the employee, {@code 1} for the root
+     */
+    public int getDepth(int position) {
+        return depths[position];
+    }
+
+    /**
+     * Returns the position following the last direct or indirect subordinate of the employee at the specified position.
+     *
+     * @param position the position of the employee
+     * @return the end of the unit headed by the employee
+     */
+    public int getSubtreeEnd(int position) {
+        return subtreeEnds[position];
+    }
+
+    /**
+     * Returns the employee at the specified position.
+     *
+     * @param position the position of the employee
+     * @return the employee
+     */
+    public Employee getEmployee(int position) {
+        return employees[position];
+    }
+
+    /**
+     * Returns the sum of the salaries of the employees in the specified range of positions.
+     *
+     * @param start the first position of the range
+     * @param end   the position following the last position of the range
+     * @return the sum of the salaries
+     */
+    public double getSalarySum(int start, int end) {
+        return (salaryPrefixSums[end] - salaryPrefixSums[start]) + (salaryPrefixErrors[end] - salaryPrefixErrors[start]);
+    }
+
+    /**
+     * Returns whether the employee at the first position is the employee at the second position or one of its
+     * direct or indirect managers.
+     *
+     * @param ancestor the position of the possible manager
+     * @param position the position of the employee
+     * @return {@code true} if the employee belongs to the unit headed by the possible manager
+     */
+    public boolean isAncestor(int ancestor, int position) {
+        return ancestor <= position && position < subtreeEnds[ancestor];
+    }
+}
@@ -0,0 +1,33 @@
+package com.company.dto;
+
+import java.util.Locale;
+
+/**
+ * The {@code ReportFormat} enum lists the output formats of the organization report.
+ */
+public enum ReportFormat {
+
+    /**
+     * Plain text: a heading per section followed by one {@code FirstName LastName Value} line per finding.
+     */
+    TEXT,
+    /**
+     * Comma separated values with a header row: {@code section,id,firstName,lastName,value}.
+     */
+    CSV,
+    /**
+     * One JSON object per line and finding.
+     */
+    JSONL;
+
+    /**
+     * Returns the format with the specified name, ignoring case.
+     *
+     * @param name the name of the format
+     * @return the format with the specified name
+     * @throws IllegalArgumentException if there is no format with the specified name
+     */
+    public static ReportFormat of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
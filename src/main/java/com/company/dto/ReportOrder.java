@@ -0,0 +1,37 @@
+package com.company.dto;
+
+import java.util.Locale;
+
+/**
+ * The {@code ReportOrder} enum lists the orders in which report results can be produced. All orders are stable: the
+ * same data always gives the same sequence.
+ */
+public enum ReportOrder {
+
+    /**
+     * The order of a depth-first traversal of the structure: every manager before its subordinates, subordinates in
+     * ascending ID order. The structure keeps its subordinates in that order, so an incrementally updated structure
+     * gives the same sequence as one built from scratch.
+     */
+    PRE_ORDER,
+    /**
+     * Ascending employee ID.
+     */
+    EMPLOYEE_ID,
+    /**
+     * The worst offenders first: the largest discrepancy of overpaid managers, the smallest discrepancy of underpaid
+     * managers and the longest report line. Ties are ordered by ascending employee ID.
+     */
+    SEVERITY;
+
+    /**
+     * Returns the order with the specified name, ignoring case and dashes.
+     *
+     * @param name the name of the order, for example {@code pre-order}, {@code employee_id} or {@code severity}
+     * @return the order with the specified name
+     * @throws IllegalArgumentException if there is no order with the specified name
+     */
+    public static ReportOrder of(String name) {
+        return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,46 @@
+package com.company.dto;
+
+/**
+ * The {@code ReportSection} enum lists the sections of the organization report, in the order they are written.
+ */
+public enum ReportSection {
+
+    /**
+     * Managers earning more than they should, with their salary discrepancies.
+     */
+    OVERPAID_MANAGERS("overpaid", "Employees who earn more than should, in format: FirstName LastName Discrepancy(percent):"),
+    /**
+     * Managers earning less than they should, with their salary discrepancies.
+     */
+    UNDERPAID_MANAGERS("underpaid", "Employees who earn less than should, in format: FirstName LastName Discrepancy(percent):"),
+    /**
+     * Employees with too long report lines, with the length of their report lines.
+     */
+    LONG_REPORT_LINES("longReportLine", "Employees with long report line length:");
+
+    private final String key;
+    private final String title;
+
+    ReportSection(String key, String title) {
+        this.key = key;
+        this.title = title;
+    }
+
+    /**
+     * Returns the machine readable name of the section, used by the CSV and JSON lines formats.
+     *
+     * @return the key of the section
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the heading of the section, used by the plain text format.
+     *
+     * @return the title of the section
+     */
+    public String getTitle() {
+        return title;
+    }
+}
@@ -16,8 +16,9 @@ public interface CacheService<T, ID> {
      * Saves the specified object in the cache.
      *
      * @param object the object to be saved in the cache
+     * @return the object previously cached with the same identifier, or {@code null} if there was none
      */
-    void save(T object);
+    T save(T object);
 
     /**
      * Saves all the specified objects in the cache.
@@ -26,6 +27,14 @@ public interface CacheService<T, ID> {
      */
     void saveAll(Collection<T> objects);
 
+    /**
+     * Removes the object with the specified identifier from the cache.
+     *
+     * @param id the identifier of the object to be removed
+     * @return the removed object, or {@code null} if not found
+     */
+    T remove(ID id);
+
     /**
      * Finds and returns the object with the specified identifier from the cache.
      *
@@ -1,6 +1,8 @@
 package com.company.service;
 
+import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * A service interface for reading data from a specified source.
@@ -15,5 +17,19 @@ public interface DataReadService<T> {
      * @param uri The URI of the data source.
      * @return A set of objects of type T read from the data source.
      */
-    Set<T> readData(String uri);
+    default Set<T> readData(String uri) {
+        Set<T> data = new HashSet<>();
+        readData(uri, data::add);
+        return data;
+    }
+
+    /**
+     * Reads data from the specified URI and passes every object of type T to the consumer as soon as it is read,
+     * without keeping the data in memory.
+     * Unless stated otherwise by the implementation, the consumer is called from the calling thread in source order.
+     *
+     * @param uri      The URI of the data source.
+     * @param consumer The consumer receiving objects of type T read from the data source.
+     */
+    void readData(String uri, Consumer<? super T> consumer);
 }
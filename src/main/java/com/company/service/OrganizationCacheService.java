@@ -1,6 +1,14 @@
 package com.company.service;
 
+import com.company.dto.CompactOrganizationStructure;
+import com.company.dto.DataChange;
 import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationDiagnostics;
+import com.company.dto.OrganizationUnitIndex;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * The {@code OrganizationCacheService} interface extends {@code CacheService} to provide additional
@@ -11,10 +19,99 @@ import com.company.dto.EmployeeStructureNode;
  */
 public interface OrganizationCacheService<T, ID> extends CacheService<T, ID> {
 
+    /**
+     * Applies a batch of changes in order: an upsert saves its object, a delete removes the object with its
+     * identifier. The organizational structure is updated only where the changed objects are linked, and readers of
+     * the structure see the whole batch at once.
+     *
+     * @param changes the changes to apply
+     */
+    void applyChanges(Collection<DataChange<T, ID>> changes);
+
+    /**
+     * Returns the version of the cached objects, which changes with every write to the cache. Results derived from
+     * the cached objects stay valid as long as the version does not change.
+     *
+     * @return the current data version
+     */
+    long getDataVersion();
+
     /**
      * Returns the root node of the organizational structure.
      *
      * @return the root {@code EmployeeStructureNode} of the organizational structure
      */
     EmployeeStructureNode getStructure();
+
+    /**
+     * Returns the organizational structure as a compact struct of primitive arrays.
+     *
+     * @return the {@code CompactOrganizationStructure} of the organization
+     */
+    CompactOrganizationStructure getCompactStructure();
+
+    /**
+     * Returns the organizational structure in pre-order, with every organization unit as a contiguous range.
+     *
+     * @return the {@code OrganizationUnitIndex} of the organization
+     */
+    OrganizationUnitIndex getOrganizationUnitIndex();
+
+    /**
+     * Returns the current salary discrepancy of the manager with the specified identifier, without visiting its
+     * subordinates.
+     *
+     * @param managerId the identifier of the manager
+     * @return the salary discrepancy, or {@code null} if the manager does not exist or has no subordinates
+     */
+    Double getSalaryDiscrepancy(ID managerId);
+
+    /**
+     * Retrieves the managers whose current salary discrepancy exceeds the specified threshold, without walking the
+     * organizational structure.
+     *
+     * @param threshold the salary discrepancy threshold
+     * @param checkLess if true, returns discrepancies less than the threshold, if false, only greater ones
+     * @return a map associating managers with their salary discrepancies
+     */
+    Map<T, Double> getSalaryDiscrepancies(double threshold, boolean checkLess);
+
+    /**
+     * Checks that the cached objects form a single hierarchy: exactly one object without a manager, no missing
+     * managers and no cycles of report lines.
+     *
+     * @return the diagnostics of the cached objects
+     */
+    OrganizationDiagnostics validate();
+
+    /**
+     * Checks that the cached objects still form a single hierarchy after the objects with the specified identifiers
+     * were saved, removed or changed by a batch, assuming they formed one before. Only the changed objects and their
+     * report lines are visited, so the cost grows with the number of changes and not with the size of the
+     * organization.
+     *
+     * @param changedIds the identifiers of the changed objects
+     * @return the diagnostics of the cached objects
+     */
+    OrganizationDiagnostics validate(Collection<ID> changedIds);
+
+    /**
+     * Writes a binary snapshot of the cached objects and the organizational structure to the specified file.
+     * The snapshot is bound to the current size and modification time of the source file.
+     *
+     * @param snapshotFile the file to write the snapshot to
+     * @param sourceFile   the file the cached objects were read from
+     * @return {@code true} if the snapshot was written, {@code false} otherwise
+     */
+    boolean writeSnapshot(Path snapshotFile, Path sourceFile);
+
+    /**
+     * Replaces the content of the cache and the organizational structure with the specified snapshot,
+     * if the snapshot exists and the source file has not changed since the snapshot was written.
+     *
+     * @param snapshotFile the snapshot file to load
+     * @param sourceFile   the file the snapshot was created from
+     * @return {@code true} if the snapshot was loaded, {@code false} if it is missing, stale or corrupt
+     */
+    boolean loadSnapshot(Path snapshotFile, Path sourceFile);
 }
@@ -0,0 +1,65 @@
+package com.company.service;
+
+import com.company.dto.Employee;
+import com.company.dto.OrganizationUnitIndex;
+
+import java.util.Map;
+
+/**
+ * Service for aggregates and reports on a single organization unit: a manager together with all its direct and
+ * indirect subordinates.
+ */
+public interface OrganizationUnitService {
+
+    /**
+     * Returns the number of employees in the unit headed by the specified manager, including the manager.
+     *
+     * @param index     the subtree index of the organization
+     * @param managerId the ID of the head of the unit
+     * @return the headcount of the unit, or {@code 0} if the manager is not part of the organization
+     */
+    int getHeadcount(OrganizationUnitIndex index, long managerId);
+
+    /**
+     * Returns the total salary of the employees in the unit headed by the specified manager, including the manager.
+     *
+     * @param index     the subtree index of the organization
+     * @param managerId the ID of the head of the unit
+     * @return the payroll of the unit, or {@code 0} if the manager is not part of the organization
+     */
+    double getTotalSalary(OrganizationUnitIndex index, long managerId);
+
+    /**
+     * Returns whether the specified employee belongs to the unit headed by the specified manager, either as the head
+     * or as a direct or indirect subordinate.
+     *
+     * @param index      the subtree index of the organization
+     * @param managerId  the ID of the head of the unit
+     * @param employeeId the ID of the employee
+     * @return {@code true} if the employee belongs to the unit, {@code false} otherwise or if either is unknown
+     */
+    boolean isInUnit(OrganizationUnitIndex index, long managerId, long employeeId);
+
+    /**
+     * Retrieves the managers of the unit whose salary discrepancy exceeds the specified threshold.
+     *
+     * @param index     the subtree index of the organization
+     * @param managerId the ID of the head of the unit
+     * @param threshold the salary discrepancy threshold
+     * @param checkLess if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @return a map associating managers of the unit with their salary discrepancies
+     */
+    Map<Employee, Double> getSalaryDiscrepancies(OrganizationUnitIndex index, long managerId, double threshold,
+                                                 boolean checkLess);
+
+    /**
+     * Retrieves the employees of the unit whose report line, counted from the root of the organization, is longer
+     * than the specified maximum depth.
+     *
+     * @param index     the subtree index of the organization
+     * @param managerId the ID of the head of the unit
+     * @param maxDepth  the maximum depth of hierarchy
+     * @return a map associating employees of the unit with the length of their report line
+     */
+    Map<Employee, Integer> getEmployeesReportLineLength(OrganizationUnitIndex index, long managerId, int maxDepth);
+}
@@ -0,0 +1,21 @@
+package com.company.service;
+
+import com.company.dto.Employee;
+import com.company.dto.OrganizationDiagnostics;
+
+import java.util.Collection;
+
+/**
+ * Service for checking that a set of employees forms a single hierarchy before the organizational structure is built.
+ */
+public interface OrganizationValidationService {
+
+    /**
+     * Detects duplicate IDs, employees without a manager, employees with a missing manager and cycles of report lines.
+     * Employees or IDs that are {@code null} are ignored, as they are by the cache.
+     *
+     * @param employees the employees to check, in source order; of employees sharing an ID the last one is checked
+     * @return the diagnostics of the employees
+     */
+    OrganizationDiagnostics validate(Collection<Employee> employees);
+}
@@ -0,0 +1,19 @@
+package com.company.service;
+
+import com.company.dto.Employee;
+
+/**
+ * Receives the employees found by a report line check, one at a time, with the lengths of their report lines as
+ * primitive values.
+ */
+@FunctionalInterface
+public interface ReportLineLengthConsumer {
+
+    /**
+     * Receives an employee whose report line is longer than the maximum depth of the check.
+     *
+     * @param employee the employee
+     * @param length   the length of the report line of the employee
+     */
+    void accept(Employee employee, int length);
+}
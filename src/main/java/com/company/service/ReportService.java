@@ -1,7 +1,10 @@
 package com.company.service;
 
+import com.company.dto.CompactOrganizationStructure;
 import com.company.dto.Employee;
 import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationReport;
+import com.company.dto.ReportOrder;
 
 import java.util.Map;
 
@@ -28,4 +31,167 @@ public interface ReportService {
      * @return a map associating employees with the length of their report line
      */
     Map<Employee, Integer> getEmployeesReportLineLength(EmployeeStructureNode employeeHierarchy, int maxDepth);
+
+    /**
+     * Retrieves a map of employees and their salary discrepancies exceeding the specified threshold.
+     *
+     * @param structure the compact structure of employees
+     * @param threshold the salary discrepancy threshold
+     * @param checkLess if true, checks discrepancies less than the threshold, if false, more or equal to the threshold
+     * @return a map associating employees with their salary discrepancies
+     */
+    Map<Employee, Double> getSalaryDiscrepancies(CompactOrganizationStructure structure, double threshold, boolean checkLess);
+
+    /**
+     * Retrieves a map of employees and the length of report line for each employee in the structure.
+     *
+     * @param structure the compact structure of employees
+     * @param maxDepth  the maximum depth of hierarchy for which to retrieve the report
+     * @return a map associating employees with the length of their report line
+     */
+    Map<Employee, Integer> getEmployeesReportLineLength(CompactOrganizationStructure structure, int maxDepth);
+
+    /**
+     * Computes all organization checks in a single traversal of the employee structure: managers earning more than
+     * {@code maxDiscrepancy}, managers earning less than {@code minDiscrepancy} and report lines longer than
+     * {@code maxDepth}.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param maxDiscrepancy    the upper salary discrepancy threshold
+     * @param minDiscrepancy    the lower salary discrepancy threshold
+     * @param maxDepth          the maximum depth of hierarchy
+     * @return the combined results of all checks
+     */
+    OrganizationReport getOrganizationReport(EmployeeStructureNode employeeHierarchy, double maxDiscrepancy,
+                                             double minDiscrepancy, int maxDepth);
+
+    /**
+     * Computes all organization checks in a single pass over the compact employee structure.
+     *
+     * @param structure      the compact structure of employees
+     * @param maxDiscrepancy the upper salary discrepancy threshold
+     * @param minDiscrepancy the lower salary discrepancy threshold
+     * @param maxDepth       the maximum depth of hierarchy
+     * @return the combined results of all checks
+     */
+    OrganizationReport getOrganizationReport(CompactOrganizationStructure structure, double maxDiscrepancy,
+                                             double minDiscrepancy, int maxDepth);
+
+    /**
+     * Passes every manager whose salary discrepancy exceeds the specified threshold to the consumer as soon as it is
+     * found, without collecting the results. The consumer is called from the calling thread in pre-order.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param threshold         the salary discrepancy threshold
+     * @param checkLess         if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @param consumer          receives the managers with their salary discrepancies
+     */
+    void findSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold, boolean checkLess,
+                                 SalaryDiscrepancyConsumer consumer);
+
+    /**
+     * Passes every employee whose report line is longer than the specified maximum depth to the consumer as soon as
+     * it is found, without collecting the results. The consumer is called from the calling thread in pre-order.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param maxDepth          the maximum depth of hierarchy
+     * @param consumer          receives the employees with the length of their report line
+     */
+    void findLongReportLines(EmployeeStructureNode employeeHierarchy, int maxDepth, ReportLineLengthConsumer consumer);
+
+    /**
+     * Passes the findings of all organization checks to the sink as soon as they are found, in a single traversal of
+     * the employee structure. The sink is called from the calling thread in pre-order.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param maxDiscrepancy    the upper salary discrepancy threshold
+     * @param minDiscrepancy    the lower salary discrepancy threshold
+     * @param maxDepth          the maximum depth of hierarchy
+     * @param sink              receives the findings
+     */
+    void visitOrganizationReport(EmployeeStructureNode employeeHierarchy, double maxDiscrepancy, double minDiscrepancy,
+                                 int maxDepth, ReportSink sink);
+
+    /**
+     * Passes every manager whose salary discrepancy exceeds the specified threshold to the consumer as soon as it is
+     * found, in index order.
+     *
+     * @param structure the compact structure of employees
+     * @param threshold the salary discrepancy threshold
+     * @param checkLess if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @param consumer  receives the managers with their salary discrepancies
+     */
+    void findSalaryDiscrepancies(CompactOrganizationStructure structure, double threshold, boolean checkLess,
+                                 SalaryDiscrepancyConsumer consumer);
+
+    /**
+     * Passes every employee whose report line is longer than the specified maximum depth to the consumer as soon as
+     * it is found, in index order.
+     *
+     * @param structure the compact structure of employees
+     * @param maxDepth  the maximum depth of hierarchy
+     * @param consumer  receives the employees with the length of their report line
+     */
+    void findLongReportLines(CompactOrganizationStructure structure, int maxDepth, ReportLineLengthConsumer consumer);
+
+    /**
+     * Passes the findings of all organization checks to the sink as soon as they are found, in a single pass over the
+     * compact employee structure in index order.
+     *
+     * @param structure      the compact structure of employees
+     * @param maxDiscrepancy the upper salary discrepancy threshold
+     * @param minDiscrepancy the lower salary discrepancy threshold
+     * @param maxDepth       the maximum depth of hierarchy
+     * @param sink           receives the findings
+     */
+    void visitOrganizationReport(CompactOrganizationStructure structure, double maxDiscrepancy, double minDiscrepancy,
+                                 int maxDepth, ReportSink sink);
+
+    /**
+     * Retrieves the managers whose salary discrepancy exceeds the specified threshold, in the specified order.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param threshold         the salary discrepancy threshold
+     * @param checkLess         if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @param order             the order of the results
+     * @return a map associating employees with their salary discrepancies, iterated in the specified order
+     */
+    Map<Employee, Double> getSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold,
+                                                 boolean checkLess, ReportOrder order);
+
+    /**
+     * Retrieves the employees whose report line is longer than the specified maximum depth, in the specified order.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param maxDepth          the maximum depth of hierarchy
+     * @param order             the order of the results
+     * @return a map associating employees with the length of their report line, iterated in the specified order
+     */
+    Map<Employee, Integer> getEmployeesReportLineLength(EmployeeStructureNode employeeHierarchy, int maxDepth,
+                                                        ReportOrder order);
+
+    /**
+     * Retrieves the employees whose report line is longer than the specified maximum depth, in the specified order,
+     * visiting only the employees deeper than the maximum depth.
+     *
+     * @param structure the compact structure of employees
+     * @param maxDepth  the maximum depth of hierarchy
+     * @param order     the order of the results
+     * @return a map associating employees with the length of their report line, iterated in the specified order
+     */
+    Map<Employee, Integer> getEmployeesReportLineLength(CompactOrganizationStructure structure, int maxDepth,
+                                                        ReportOrder order);
+
+    /**
+     * Retrieves at most {@code limit} managers with the most severe salary discrepancies exceeding the specified
+     * threshold, without sorting all of them.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param threshold         the salary discrepancy threshold
+     * @param checkLess         if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @param limit             the maximum number of managers to return
+     * @return a map associating managers with their salary discrepancies, iterated in {@link ReportOrder#SEVERITY} order
+     */
+    Map<Employee, Double> getTopSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold,
+                                                    boolean checkLess, int limit);
 }
@@ -0,0 +1,34 @@
+package com.company.service;
+
+import com.company.dto.Employee;
+
+/**
+ * Receives the findings of all organization checks, one at a time, as they are discovered by a single traversal.
+ * Findings of different checks are interleaved.
+ */
+public interface ReportSink {
+
+    /**
+     * Receives a manager earning more than it should.
+     *
+     * @param employee    the manager
+     * @param discrepancy the salary discrepancy of the manager
+     */
+    void overpaidManager(Employee employee, double discrepancy);
+
+    /**
+     * Receives a manager earning less than it should.
+     *
+     * @param employee    the manager
+     * @param discrepancy the salary discrepancy of the manager
+     */
+    void underpaidManager(Employee employee, double discrepancy);
+
+    /**
+     * Receives an employee with a too long report line.
+     *
+     * @param employee the employee
+     * @param length   the length of the report line of the employee
+     */
+    void longReportLine(Employee employee, int length);
+}
@@ -0,0 +1,49 @@
+package com.company.service;
+
+import com.company.dto.Employee;
+import com.company.dto.ReportSection;
+
+import java.io.Closeable;
+
+/**
+ * Writes the findings of the organization report one at a time, in the format of the implementation.
+ * <p>
+ * Findings are written to a buffer and reach the destination when the buffer is full, on {@link #flush()} and on
+ * {@link #close()}. Errors writing to the destination are thrown as {@link java.io.UncheckedIOException}.
+ */
+public interface ReportWriter extends Closeable {
+
+    /**
+     * Starts a new section. Findings written afterwards belong to this section.
+     *
+     * @param section the section to start
+     */
+    void beginSection(ReportSection section);
+
+    /**
+     * Writes a manager together with its salary discrepancy.
+     *
+     * @param employee    the manager
+     * @param discrepancy the salary discrepancy of the manager
+     */
+    void writeSalaryDiscrepancy(Employee employee, double discrepancy);
+
+    /**
+     * Writes an employee together with the length of its report line.
+     *
+     * @param employee the employee
+     * @param length   the length of the report line of the employee
+     */
+    void writeReportLineLength(Employee employee, int length);
+
+    /**
+     * Writes all buffered findings to the destination.
+     */
+    void flush();
+
+    /**
+     * Flushes the buffered findings and closes the destination.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,19 @@
+package com.company.service;
+
+import com.company.dto.Employee;
+
+/**
+ * Receives the managers found by a salary discrepancy check, one at a time, with their discrepancies as primitive
+ * values.
+ */
+@FunctionalInterface
+public interface SalaryDiscrepancyConsumer {
+
+    /**
+     * Receives a manager whose salary discrepancy exceeds the threshold of the check.
+     *
+     * @param employee    the manager
+     * @param discrepancy the salary discrepancy of the manager
+     */
+    void accept(Employee employee, double discrepancy);
+}
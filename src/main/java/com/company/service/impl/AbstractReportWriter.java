@@ -0,0 +1,95 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.dto.ReportSection;
+import com.company.service.ReportWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Base class of the report writers: keeps the destination and the current section and turns I/O errors into
+ * {@link UncheckedIOException}s. Subclasses write every finding with plain {@link Writer#write(String)} calls, without
+ * {@code String.format}, into a buffered destination.
+ */
+abstract class AbstractReportWriter implements ReportWriter {
+
+    private final Writer out;
+    private ReportSection section;
+
+    AbstractReportWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void beginSection(ReportSection section) {
+        try {
+            writeSectionStart(section, this.section == null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.section = section;
+    }
+
+    @Override
+    public void writeSalaryDiscrepancy(Employee employee, double discrepancy) {
+        try {
+            writeSalaryDiscrepancy(section, employee, discrepancy);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void writeReportLineLength(Employee employee, int length) {
+        try {
+            writeReportLineLength(section, employee, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the destination of the report.
+     */
+    Writer out() {
+        return out;
+    }
+
+    /**
+     * Writes the start of a section.
+     *
+     * @param section the section to start
+     * @param first   whether this is the first section of the report
+     */
+    abstract void writeSectionStart(ReportSection section, boolean first) throws IOException;
+
+    /**
+     * Writes a manager of the section together with its salary discrepancy.
+     */
+    abstract void writeSalaryDiscrepancy(ReportSection section, Employee employee, double discrepancy) throws IOException;
+
+    /**
+     * Writes an employee of the section together with the length of its report line.
+     */
+    abstract void writeReportLineLength(ReportSection section, Employee employee, int length) throws IOException;
+}
@@ -0,0 +1,311 @@
+package com.company.service.impl;
+
+import com.company.dto.CompactOrganizationStructure;
+import com.company.dto.Employee;
+import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationReport;
+import com.company.dto.ReportOrder;
+import com.company.service.OrganizationCacheService;
+import com.company.service.ReportLineLengthConsumer;
+import com.company.service.ReportService;
+import com.company.service.ReportSink;
+import com.company.service.SalaryDiscrepancyConsumer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ReportService} that remembers the results of another report service, for callers that request the same
+ * reports over and over while the data rarely changes.
+ * <p>
+ * Every method returning a result is memoized by its arguments and the data version of the organization cache. The
+ * structure is identified by the root node or compact structure instance, as handed out by the organization cache,
+ * which must not be modified. As soon as the data version changes, all remembered results are dropped, so a write to
+ * the cache invalidates them and no outdated structure is kept alive. At most {@code maxSize} results are kept; the
+ * least recently used one is evicted first. The numbers of hits, misses and evictions are counted.
+ * <p>
+ * Remembered results are shared between callers and therefore returned as unmodifiable maps. Results are computed
+ * outside of the lock, so threads requesting the same missing result may compute it at the same time. The streaming
+ * methods are not memoized, they pass their findings straight through.
+ */
+public class CachingReportServiceImpl implements ReportService {
+
+    private final ReportService delegate;
+    private final OrganizationCacheService<?, ?> organizationCacheService;
+    private final int maxSize;
+    private final Lock lock = new ReentrantLock();
+    private final Map<Key, Object> results;
+    private long resultsVersion;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a report service that remembers at most {@code maxSize} results of the delegate.
+     *
+     * @param delegate                 the report service computing the results
+     * @param organizationCacheService the organization cache whose data version invalidates the results
+     * @param maxSize                  the maximum number of remembered results
+     */
+    public CachingReportServiceImpl(ReportService delegate, OrganizationCacheService<?, ?> organizationCacheService,
+                                    int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Illegal maximum size: " + maxSize);
+        }
+        this.delegate = delegate;
+        this.organizationCacheService = organizationCacheService;
+        this.maxSize = maxSize;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                if (size() > CachingReportServiceImpl.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The reports that can be memoized.
+     */
+    private enum Operation {
+        SALARY_DISCREPANCIES,
+        REPORT_LINE_LENGTH,
+        ORGANIZATION_REPORT,
+        TOP_SALARY_DISCREPANCIES
+    }
+
+    /**
+     * The arguments of a memoized report. The structure is compared by identity, the other arguments by value.
+     */
+    private static final class Key {
+
+        private final Operation operation;
+        private final Object structure;
+        private final long version;
+        private final Object[] arguments;
+        private final int hash;
+
+        Key(Operation operation, Object structure, long version, Object... arguments) {
+            this.operation = operation;
+            this.structure = structure;
+            this.version = version;
+            this.arguments = arguments;
+            this.hash = 31 * (31 * (31 * operation.hashCode() + System.identityHashCode(structure)) + Long.hashCode(version))
+                    + Arrays.hashCode(arguments);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) object;
+            return operation == other.operation && structure == other.structure && version == other.version
+                    && Arrays.equals(arguments, other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Override
+    public Map<Employee, Double> getSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold, boolean checkLess) {
+        return memoizeMap(new Key(Operation.SALARY_DISCREPANCIES, employeeHierarchy, organizationCacheService.getDataVersion(),
+                threshold, checkLess), () -> delegate.getSalaryDiscrepancies(employeeHierarchy, threshold, checkLess));
+    }
+
+    @Override
+    public Map<Employee, Integer> getEmployeesReportLineLength(EmployeeStructureNode employeeHierarchy, int maxDepth) {
+        return memoizeMap(new Key(Operation.REPORT_LINE_LENGTH, employeeHierarchy, organizationCacheService.getDataVersion(),
+                maxDepth), () -> delegate.getEmployeesReportLineLength(employeeHierarchy, maxDepth));
+    }
+
+    @Override
+    public Map<Employee, Double> getSalaryDiscrepancies(CompactOrganizationStructure structure, double threshold, boolean checkLess) {
+        return memoizeMap(new Key(Operation.SALARY_DISCREPANCIES, structure, organizationCacheService.getDataVersion(),
+                threshold, checkLess), () -> delegate.getSalaryDiscrepancies(structure, threshold, checkLess));
+    }
+
+    @Override
+    public Map<Employee, Integer> getEmployeesReportLineLength(CompactOrganizationStructure structure, int maxDepth) {
+        return memoizeMap(new Key(Operation.REPORT_LINE_LENGTH, structure, organizationCacheService.getDataVersion(),
+                maxDepth), () -> delegate.getEmployeesReportLineLength(structure, maxDepth));
+    }
+
+    @Override
+    public OrganizationReport getOrganizationReport(EmployeeStructureNode employeeHierarchy, double maxDiscrepancy,
+                                                    double minDiscrepancy, int maxDepth) {
+        return memoize(new Key(Operation.ORGANIZATION_REPORT, employeeHierarchy, organizationCacheService.getDataVersion(),
+                        maxDiscrepancy, minDiscrepancy, maxDepth),
+                () -> unmodifiable(delegate.getOrganizationReport(employeeHierarchy, maxDiscrepancy, minDiscrepancy, maxDepth)));
+    }
+
+    @Override
+    public OrganizationReport getOrganizationReport(CompactOrganizationStructure structure, double maxDiscrepancy,
+                                                    double minDiscrepancy, int maxDepth) {
+        return memoize(new Key(Operation.ORGANIZATION_REPORT, structure, organizationCacheService.getDataVersion(),
+                        maxDiscrepancy, minDiscrepancy, maxDepth),
+                () -> unmodifiable(delegate.getOrganizationReport(structure, maxDiscrepancy, minDiscrepancy, maxDepth)));
+    }
+
+    @Override
+    public void findSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold, boolean checkLess,
+                                        SalaryDiscrepancyConsumer consumer) {
+        delegate.findSalaryDiscrepancies(employeeHierarchy, threshold, checkLess, consumer);
+    }
+
+    @Override
+    public void findLongReportLines(EmployeeStructureNode employeeHierarchy, int maxDepth, ReportLineLengthConsumer consumer) {
+        delegate.findLongReportLines(employeeHierarchy, maxDepth, consumer);
+    }
+
+    @Override
+    public void visitOrganizationReport(EmployeeStructureNode employeeHierarchy, double maxDiscrepancy, double minDiscrepancy,
+                                        int maxDepth, ReportSink sink) {
+        delegate.visitOrganizationReport(employeeHierarchy, maxDiscrepancy, minDiscrepancy, maxDepth, sink);
+    }
+
+    @Override
+    public void findSalaryDiscrepancies(CompactOrganizationStructure structure, double threshold, boolean checkLess,
+                                        SalaryDiscrepancyConsumer consumer) {
+        delegate.findSalaryDiscrepancies(structure, threshold, checkLess, consumer);
+    }
+
+    @Override
+    public void findLongReportLines(CompactOrganizationStructure structure, int maxDepth, ReportLineLengthConsumer consumer) {
+        delegate.findLongReportLines(structure, maxDepth, consumer);
+    }
+
+    @Override
+    public void visitOrganizationReport(CompactOrganizationStructure structure, double maxDiscrepancy, double minDiscrepancy,
+                                        int maxDepth, ReportSink sink) {
+        delegate.visitOrganizationReport(structure, maxDiscrepancy, minDiscrepancy, maxDepth, sink);
+    }
+
+    @Override
+    public Map<Employee, Double> getSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold,
+                                                        boolean checkLess, ReportOrder order) {
+        return memoizeMap(new Key(Operation.SALARY_DISCREPANCIES, employeeHierarchy, organizationCacheService.getDataVersion(),
+                threshold, checkLess, order), () -> delegate.getSalaryDiscrepancies(employeeHierarchy, threshold, checkLess, order));
+    }
+
+    @Override
+    public Map<Employee, Integer> getEmployeesReportLineLength(EmployeeStructureNode employeeHierarchy, int maxDepth,
+                                                               ReportOrder order) {
+        return memoizeMap(new Key(Operation.REPORT_LINE_LENGTH, employeeHierarchy, organizationCacheService.getDataVersion(),
+                maxDepth, order), () -> delegate.getEmployeesReportLineLength(employeeHierarchy, maxDepth, order));
+    }
+
+    @Override
+    public Map<Employee, Integer> getEmployeesReportLineLength(CompactOrganizationStructure structure, int maxDepth,
+                                                               ReportOrder order) {
+        return memoizeMap(new Key(Operation.REPORT_LINE_LENGTH, structure, organizationCacheService.getDataVersion(),
+                maxDepth, order), () -> delegate.getEmployeesReportLineLength(structure, maxDepth, order));
+    }
+
+    @Override
+    public Map<Employee, Double> getTopSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold,
+                                                           boolean checkLess, int limit) {
+        return memoizeMap(new Key(Operation.TOP_SALARY_DISCREPANCIES, employeeHierarchy, organizationCacheService.getDataVersion(),
+                threshold, checkLess, limit), () -> delegate.getTopSalaryDiscrepancies(employeeHierarchy, threshold, checkLess, limit));
+    }
+
+    /**
+     * Returns the number of results that were found remembered.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of results that had to be computed.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of results dropped to stay within the maximum size. Results dropped because the data changed
+     * are not counted.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns the number of currently remembered results.
+     *
+     * @return the number of remembered results
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return results.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <K, V> Map<K, V> memoizeMap(Key key, Supplier<Map<K, V>> report) {
+        //the iteration order of the computed map is kept
+        return memoize(key, () -> Collections.unmodifiableMap(report.get()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R memoize(Key key, Supplier<R> report) {
+        lock.lock();
+        try {
+            if (key.version > resultsVersion) {
+                //the data has changed, so no remembered result can be requested again
+                results.clear();
+                resultsVersion = key.version;
+            }
+            Object result = results.get(key);
+            if (result != null) {
+                hits.incrementAndGet();
+                return (R) result;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        misses.incrementAndGet();
+        R result = report.get();
+        lock.lock();
+        try {
+            //a result of outdated data is not remembered
+            if (key.version == resultsVersion) {
+                results.put(key, result);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    private static OrganizationReport unmodifiable(OrganizationReport report) {
+        return new OrganizationReport(Collections.unmodifiableMap(report.getOverpaidManagers()),
+                Collections.unmodifiableMap(report.getUnderpaidManagers()),
+                Collections.unmodifiableMap(report.getLongReportLines()));
+    }
+}
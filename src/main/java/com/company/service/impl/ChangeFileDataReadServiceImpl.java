@@ -0,0 +1,61 @@
+package com.company.service.impl;
+
+import com.company.dto.ChangeType;
+import com.company.dto.DataChange;
+import com.company.dto.Employee;
+import com.company.service.DataReadService;
+
+import java.util.function.Consumer;
+
+/**
+ * A service implementation for reading employee change files, as emitted by HR systems between full exports.
+ * <p>
+ * Every record starts with the change type, {@code upsert} or {@code delete}, followed by the columns of an employee
+ * record. An upsert carries the full employee, a delete only needs the ID:
+ * <pre>
+ * change,Id,firstName,lastName,salary,managerId
+ * upsert,305,Jane,Doe,55000,101
+ * delete,123
+ * </pre>
+ * Records are read with the same byte-level parser as {@link ChannelFileDataReadServiceImpl} and passed to the
+ * consumer from the calling thread in file order, so later changes of the same employee win when they are applied in
+ * order. A first record with an unknown change type is taken for a header row.
+ */
+public class ChangeFileDataReadServiceImpl implements DataReadService<DataChange<Employee, Long>> {
+
+    private final ChannelFileDataReadServiceImpl recordReader = new ChannelFileDataReadServiceImpl();
+
+    /**
+     * Reads the changes from the specified file and passes every change to the consumer.
+     *
+     * @param fileName The name of the CSV change file.
+     * @param consumer The consumer receiving the changes read from the file.
+     * @throws IllegalArgumentException if a record has an unknown change type or a malformed column
+     */
+    @Override
+    public void readData(String fileName, Consumer<? super DataChange<Employee, Long>> consumer) {
+        recordReader.readRecords(fileName, (parser, buffer, start, end, firstRecord) -> {
+            int typeEnd = parser.findFieldEnd(buffer, start, end);
+            ChangeType type;
+            try {
+                type = ChangeType.of(parser.parseText(buffer, start, typeEnd));
+            } catch (IllegalArgumentException e) {
+                if (firstRecord) {
+                    //header row
+                    return;
+                }
+                throw new IllegalArgumentException("Unknown change type: " + parser.parseText(buffer, start, typeEnd));
+            }
+            if (typeEnd >= end) {
+                throw new NumberFormatException("Change record without an employee: " + type);
+            }
+
+            if (type == ChangeType.DELETE) {
+                consumer.accept(DataChange.delete(parser.parseId(buffer, typeEnd + 1, end)));
+            } else {
+                Employee employee = parser.parseRecord(buffer, typeEnd + 1, end);
+                consumer.accept(DataChange.upsert(employee.getId(), employee));
+            }
+        });
+    }
+}
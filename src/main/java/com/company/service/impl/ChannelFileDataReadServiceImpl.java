@@ -0,0 +1,122 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.service.DataReadService;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * A service implementation for reading employee data from a file, scanning raw bytes from a {@link FileChannel}.
+ * <p>
+ * Unlike {@link FileDataReadServiceImpl}, this implementation does not create a {@code String} per line or per column:
+ * numeric columns are parsed directly from the bytes and only first and last names are materialized.
+ * Quoted fields are supported and the header row is recognized by its non-numeric first column.
+ */
+public class ChannelFileDataReadServiceImpl implements DataReadService<Employee> {
+
+    /**
+     * The initial size of the read buffer. The buffer grows if a single record does not fit into it.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Reads employee data from the specified file and passes every Employee object to the consumer.
+     *
+     * @param fileName The name of the CSV file containing employee data.
+     * @param consumer The consumer receiving Employee objects read from the CSV file.
+     */
+    @Override
+    public void readData(String fileName, Consumer<? super Employee> consumer) {
+        readRecords(fileName, (parser, buffer, start, end, firstRecord) -> {
+            if (!firstRecord || !parser.isHeader(buffer, start, end)) {
+                consumer.accept(parser.parseRecord(buffer, start, end));
+            }
+        });
+    }
+
+    /**
+     * Receives the records of a file as byte ranges of the read buffer.
+     */
+    interface RecordHandler {
+
+        /**
+         * Handles the record between {@code start} and {@code end}, which is valid only during the call.
+         *
+         * @param parser      the parser of the file
+         * @param buffer      the buffer containing the record
+         * @param start       the position of the first byte of the record
+         * @param end         the position after the last byte of the record, without the line feed
+         * @param firstRecord {@code true} for the first record of the file, which may be a header row
+         */
+        void accept(EmployeeCsvParser parser, ByteBuffer buffer, int start, int end, boolean firstRecord);
+    }
+
+    /**
+     * Reads the specified file and passes every record that is not blank to the handler, in file order.
+     *
+     * @param fileName the name of the file
+     * @param handler  the handler of the records
+     */
+    void readRecords(String fileName, RecordHandler handler) {
+        try (ReadableByteChannel channel = openChannel(fileName)) {
+            EmployeeCsvParser parser = new EmployeeCsvParser();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            boolean firstRecord = true;
+            boolean endOfFile = false;
+
+            while (!endOfFile) {
+                endOfFile = channel.read(buffer) == -1;
+                buffer.flip();
+
+                int start = 0;
+                int limit = buffer.limit();
+                int end;
+                while ((end = parser.findRecordEnd(buffer, start, limit)) >= 0 || (endOfFile && start < limit)) {
+                    if (end < 0) {
+                        //last record without a trailing line feed
+                        end = limit;
+                    }
+                    if (!parser.isBlank(buffer, start, end)) {
+                        handler.accept(parser, buffer, start, end, firstRecord);
+                        firstRecord = false;
+                    }
+                    start = end + 1;
+                }
+
+                buffer.position(Math.min(start, limit));
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    //a single record is larger than the buffer
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + fileName);
+        }
+    }
+
+    private ReadableByteChannel openChannel(String fileName) throws IOException {
+        try {
+            return FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            InputStream inputStream = getClass().getClassLoader().getResourceAsStream(fileName);
+            if (inputStream == null) {
+                throw new FileNotFoundException("File not found: " + fileName);
+            }
+            return Channels.newChannel(inputStream);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.dto.ReportSection;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the report as comma separated values: a header row followed by one
+ * {@code section,id,firstName,lastName,value} row per finding. Names containing separators or quotes are quoted as
+ * described by RFC 4180; values are written with full precision.
+ */
+public class CsvReportWriter extends AbstractReportWriter {
+
+    private static final String HEADER = "section,id,firstName,lastName,value";
+
+    /**
+     * Constructs a new {@code CsvReportWriter} writing to the specified destination, which should be buffered.
+     *
+     * @param out the destination of the report
+     */
+    public CsvReportWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    void writeSectionStart(ReportSection section, boolean first) throws IOException {
+        if (first) {
+            out().write(HEADER);
+            out().write(System.lineSeparator());
+        }
+    }
+
+    @Override
+    void writeSalaryDiscrepancy(ReportSection section, Employee employee, double discrepancy) throws IOException {
+        writeEmployee(section, employee);
+        out().write(Double.toString(discrepancy));
+        out().write(System.lineSeparator());
+    }
+
+    @Override
+    void writeReportLineLength(ReportSection section, Employee employee, int length) throws IOException {
+        writeEmployee(section, employee);
+        out().write(Integer.toString(length));
+        out().write(System.lineSeparator());
+    }
+
+    private void writeEmployee(ReportSection section, Employee employee) throws IOException {
+        out().write(section.getKey());
+        out().write(',');
+        out().write(String.valueOf(employee.getId()));
+        out().write(',');
+        writeField(employee.getFirstName());
+        out().write(',');
+        writeField(employee.getLastName());
+        out().write(',');
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quoted) {
+            out().write(value);
+            return;
+        }
+        out().write('"');
+        out().write(value.replace("\"", "\"\""));
+        out().write('"');
+    }
+}
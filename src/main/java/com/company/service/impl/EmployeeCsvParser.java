@@ -0,0 +1,381 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A byte-level parser for employee CSV records.
+ * <p>
+ * The parser works directly on a {@link ByteBuffer} (heap or memory-mapped) using absolute positions, so it never
+ * builds a {@code String} for a whole line or for numeric columns. Only the first and last names are materialized,
+ * and every distinct name only once: repeated names are shared through a {@link NameInterner}.
+ * Fields may be enclosed in double quotes, in which case they may contain commas and escaped quotes ({@code ""}).
+ * <p>
+ * Instances keep a scratch buffer and the interned names and are therefore not thread-safe.
+ */
+final class EmployeeCsvParser {
+
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private static final int ID_COLUMN = 0;
+    private static final int FIRST_NAME_COLUMN = 1;
+    private static final int LAST_NAME_COLUMN = 2;
+    private static final int SALARY_COLUMN = 3;
+    private static final int MANAGER_ID_COLUMN = 4;
+
+    /**
+     * The largest mantissa that can be converted to {@code double} without loss of precision (2^53).
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * Powers of ten that are exactly representable as {@code double}.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private byte[] scratch = new byte[64];
+    private final NameInterner names = new NameInterner();
+
+    /**
+     * Bounds of the last field passed to {@link #unquote(ByteBuffer, int, int)}, kept in fields to avoid allocation.
+     */
+    private int valueStart;
+    private int valueEnd;
+
+    /**
+     * Finds the end of the record starting at {@code start}, i.e. the position of the first line feed that is not
+     * enclosed in quotes.
+     *
+     * @param buffer the buffer to scan
+     * @param start  the position of the first byte of the record
+     * @param limit  the position after the last readable byte
+     * @return the position of the terminating line feed, or {@code -1} if the record is not complete within the limit
+     */
+    int findRecordEnd(ByteBuffer buffer, int start, int limit) {
+        boolean quoted = false;
+        for (int i = start; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == QUOTE) {
+                quoted = !quoted;
+            } else if (b == LF && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the record between {@code start} and {@code end} is a header row, i.e. whether its first column
+     * does not contain a number.
+     *
+     * @param buffer the buffer containing the record
+     * @param start  the position of the first byte of the record
+     * @param end    the position after the last byte of the record
+     * @return {@code true} if the record is a header row
+     */
+    boolean isHeader(ByteBuffer buffer, int start, int end) {
+        end = trimLineEnd(buffer, start, end);
+        int i = skipSpaces(buffer, start, end);
+        if (i < end && buffer.get(i) == QUOTE) {
+            i++;
+        }
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            i++;
+        }
+        return i < end && !isDigit(buffer.get(i));
+    }
+
+    /**
+     * Checks whether the record between {@code start} and {@code end} contains only whitespace.
+     *
+     * @param buffer the buffer containing the record
+     * @param start  the position of the first byte of the record
+     * @param end    the position after the last byte of the record
+     * @return {@code true} if the record is blank
+     */
+    boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t' && b != CR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a single employee record located between {@code start} and {@code end}.
+     * The record must not include the terminating line feed; a trailing carriage return is ignored.
+     *
+     * @param buffer the buffer containing the record
+     * @param start  the position of the first byte of the record
+     * @param end    the position after the last byte of the record
+     * @return the parsed employee
+     * @throws NumberFormatException if a numeric column is malformed or a mandatory column is missing
+     */
+    Employee parseRecord(ByteBuffer buffer, int start, int end) {
+        end = trimLineEnd(buffer, start, end);
+
+        long id = 0;
+        String firstName = null;
+        String lastName = null;
+        double salary = 0;
+        Long managerId = null;
+
+        int column = 0;
+        int fieldStart = start;
+        while (fieldStart <= end && column <= MANAGER_ID_COLUMN) {
+            int fieldEnd = findFieldEnd(buffer, fieldStart, end);
+            switch (column) {
+                case ID_COLUMN:
+                    id = parseLong(buffer, fieldStart, fieldEnd);
+                    break;
+                case FIRST_NAME_COLUMN:
+                    firstName = parseString(buffer, fieldStart, fieldEnd);
+                    break;
+                case LAST_NAME_COLUMN:
+                    lastName = parseString(buffer, fieldStart, fieldEnd);
+                    break;
+                case SALARY_COLUMN:
+                    salary = parseDouble(buffer, fieldStart, fieldEnd);
+                    break;
+                default:
+                    if (!isBlank(buffer, fieldStart, fieldEnd)) {
+                        managerId = parseLong(buffer, fieldStart, fieldEnd);
+                    }
+                    break;
+            }
+            column++;
+            fieldStart = fieldEnd + 1;
+        }
+
+        if (column <= SALARY_COLUMN) {
+            throw new NumberFormatException("Incomplete employee record: " + decode(buffer, start, end));
+        }
+        return new Employee(id, firstName, lastName, salary, managerId);
+    }
+
+    /**
+     * Parses only the ID column of the employee record located between {@code start} and {@code end}, ignoring any
+     * further column.
+     *
+     * @param buffer the buffer containing the record
+     * @param start  the position of the first byte of the record
+     * @param end    the position after the last byte of the record
+     * @return the parsed ID
+     * @throws NumberFormatException if the ID column is malformed
+     */
+    long parseId(ByteBuffer buffer, int start, int end) {
+        end = trimLineEnd(buffer, start, end);
+        return parseLong(buffer, start, findFieldEnd(buffer, start, end));
+    }
+
+    /**
+     * Parses the text of the field located between {@code start} and {@code end}, without enclosing quotes and
+     * surrounding spaces.
+     *
+     * @param buffer the buffer containing the field
+     * @param start  the position of the first byte of the field
+     * @param end    the position after the last byte of the field
+     * @return the text of the field
+     */
+    String parseText(ByteBuffer buffer, int start, int end) {
+        return parseString(buffer, start, trimLineEnd(buffer, start, end)).trim();
+    }
+
+    /**
+     * Finds the end of the field starting at {@code start}, i.e. the position of the first comma that is not enclosed
+     * in quotes.
+     *
+     * @param buffer the buffer to scan
+     * @param start  the position of the first byte of the field
+     * @param end    the position after the last byte of the record
+     * @return the position of the terminating comma, or {@code end} for the last field of the record
+     */
+    int findFieldEnd(ByteBuffer buffer, int start, int end) {
+        boolean quoted = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == QUOTE) {
+                quoted = !quoted;
+            } else if (b == COMMA && !quoted) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private String parseString(ByteBuffer buffer, int start, int end) {
+        int quoteStart = skipSpaces(buffer, start, end);
+        if (quoteStart >= end || buffer.get(quoteStart) != QUOTE) {
+            int length = copyToScratch(buffer, start, end);
+            return names.intern(scratch, 0, length);
+        }
+
+        //quoted field: copy the content without enclosing quotes and unescape doubled quotes
+        ensureScratchCapacity(end - start);
+        int length = 0;
+        for (int i = quoteStart + 1; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == QUOTE) {
+                if (i + 1 < end && buffer.get(i + 1) == QUOTE) {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            scratch[length++] = b;
+        }
+        return names.intern(scratch, 0, length);
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end) {
+        int length = copyToScratch(buffer, start, end);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int copyToScratch(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        ensureScratchCapacity(length);
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(start + i);
+        }
+        return length;
+    }
+
+    private long parseLong(ByteBuffer buffer, int start, int end) {
+        unquote(buffer, start, end);
+        int i = valueStart;
+        int last = valueEnd;
+        if (i >= last) {
+            throw new NumberFormatException("Empty numeric field: " + decode(buffer, start, end));
+        }
+
+        boolean negative = false;
+        byte first = buffer.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        if (i >= last) {
+            throw new NumberFormatException("For input string: \"" + decode(buffer, start, end) + "\"");
+        }
+
+        long result = 0;
+        for (; i < last; i++) {
+            byte b = buffer.get(i);
+            if (!isDigit(b)) {
+                throw new NumberFormatException("For input string: \"" + decode(buffer, start, end) + "\"");
+            }
+            //accumulate negatively so that Long.MIN_VALUE can be represented
+            if (result < (Long.MIN_VALUE + (b - '0')) / 10) {
+                throw new NumberFormatException("For input string: \"" + decode(buffer, start, end) + "\"");
+            }
+            result = result * 10 - (b - '0');
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw new NumberFormatException("For input string: \"" + decode(buffer, start, end) + "\"");
+            }
+            return -result;
+        }
+        return result;
+    }
+
+    /**
+     * Parses a plain decimal number ({@code [+-]digits[.digits]}) without building a {@code String}.
+     * The mantissa and the power of ten are both exact, so a single division gives the correctly rounded result,
+     * identical to {@link Double#parseDouble(String)}. Anything else (exponents, too many digits) falls back to
+     * {@link Double#parseDouble(String)}.
+     */
+    private double parseDouble(ByteBuffer buffer, int start, int end) {
+        unquote(buffer, start, end);
+        int i = valueStart;
+        int last = valueEnd;
+
+        boolean negative = false;
+        if (i < last && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for (; i < last; i++) {
+            byte b = buffer.get(i);
+            if (isDigit(b)) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return Double.parseDouble(decode(buffer, valueStart, last));
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return Double.parseDouble(decode(buffer, valueStart, last));
+            }
+        }
+        if (digits == 0 || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(decode(buffer, valueStart, last));
+        }
+
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private void unquote(ByteBuffer buffer, int start, int end) {
+        int i = skipSpaces(buffer, start, end);
+        int last = end;
+        while (last > i && isSpace(buffer.get(last - 1))) {
+            last--;
+        }
+        if (last - i >= 2 && buffer.get(i) == QUOTE && buffer.get(last - 1) == QUOTE) {
+            i++;
+            last--;
+        }
+        valueStart = i;
+        valueEnd = last;
+    }
+
+    private int trimLineEnd(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == CR) {
+            return end - 1;
+        }
+        return end;
+    }
+
+    private int skipSpaces(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        while (i < end && isSpace(buffer.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private void ensureScratchCapacity(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
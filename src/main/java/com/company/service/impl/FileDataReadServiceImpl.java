@@ -6,9 +6,7 @@ import com.company.service.DataReadService;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * A service implementation for reading employee data from a file.
@@ -21,17 +19,16 @@ public class FileDataReadServiceImpl implements DataReadService<Employee> {
     private static final String ID = "Id";
 
     /**
-     * Reads employee data from the specified file and returns a set of Employee objects.
+     * Reads employee data from the specified file and passes every Employee object to the consumer. Employees with
+     * equal names share the same name instances.
      *
      * @param fileName The name of the CSV file containing employee data.
-     * @return A set of Employee objects read from the CSV file.
+     * @param consumer The consumer receiving Employee objects read from the CSV file.
      */
     @Override
-    public Set<Employee> readData(String fileName) {
-        Set<Employee> employees = new HashSet<>();
-
+    public void readData(String fileName, Consumer<? super Employee> consumer) {
         try (BufferedReader bufferedReader = openFile(fileName)) {
-
+            NameInterner names = new NameInterner();
             String line;
             while ((line = bufferedReader.readLine()) != null) {
                 //skip header
@@ -39,19 +36,20 @@ public class FileDataReadServiceImpl implements DataReadService<Employee> {
                     continue;
                 }
                 String[] data = line.split(",");
+                String firstName = names.intern(data[1]);
+                String lastName = names.intern(data[2]);
                 Employee employee;
                 if (data.length == 4 || "".equals(data[4])) {
-                    employee = new Employee(Long.parseLong(data[0]), data[1], data[2], Double.parseDouble(data[3]));
+                    employee = new Employee(Long.parseLong(data[0]), firstName, lastName, Double.parseDouble(data[3]));
 
                 } else {
-                    employee = new Employee(Long.parseLong(data[0]), data[1], data[2], Double.parseDouble(data[3]), Long.parseLong(data[4]));
+                    employee = new Employee(Long.parseLong(data[0]), firstName, lastName, Double.parseDouble(data[3]), Long.parseLong(data[4]));
                 }
-                employees.add(employee);
+                consumer.accept(employee);
             }
         } catch (IOException e) {
             System.err.println("Error reading file: " + fileName);
         }
-        return employees;
     }
 
     private BufferedReader openFile(String fileName) throws IOException {
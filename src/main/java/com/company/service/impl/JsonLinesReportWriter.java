@@ -0,0 +1,75 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.dto.ReportSection;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the report as JSON lines: one object per finding, for example
+ * {@code {"section":"overpaid","id":101,"firstName":"John","lastName":"Doe","discrepancy":0.55}}.
+ * Values are written with full precision; a discrepancy that is not finite is written as {@code null}.
+ */
+public class JsonLinesReportWriter extends AbstractReportWriter {
+
+    /**
+     * Constructs a new {@code JsonLinesReportWriter} writing to the specified destination, which should be buffered.
+     *
+     * @param out the destination of the report
+     */
+    public JsonLinesReportWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    void writeSectionStart(ReportSection section, boolean first) {
+        //every line names its section
+    }
+
+    @Override
+    void writeSalaryDiscrepancy(ReportSection section, Employee employee, double discrepancy) throws IOException {
+        writeEmployee(section, employee);
+        out().write(",\"discrepancy\":");
+        //JSON has no literal for NaN or infinity
+        out().write(Double.isFinite(discrepancy) ? Double.toString(discrepancy) : "null");
+        out().write('}');
+        out().write('\n');
+    }
+
+    @Override
+    void writeReportLineLength(ReportSection section, Employee employee, int length) throws IOException {
+        writeEmployee(section, employee);
+        out().write(",\"length\":");
+        out().write(Integer.toString(length));
+        out().write('}');
+        out().write('\n');
+    }
+
+    private void writeEmployee(ReportSection section, Employee employee) throws IOException {
+        out().write("{\"section\":\"");
+        out().write(section.getKey());
+        out().write("\",\"id\":");
+        out().write(String.valueOf(employee.getId()));
+        out().write(",\"firstName\":");
+        writeString(employee.getFirstName());
+        out().write(",\"lastName\":");
+        writeString(employee.getLastName());
+    }
+
+    private void writeString(String value) throws IOException {
+        out().write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out().write('\\');
+                out().write(c);
+            } else if (c < 0x20) {
+                out().write(String.format("\\u%04x", (int) c));
+            } else {
+                out().write(c);
+            }
+        }
+        out().write('"');
+    }
+}
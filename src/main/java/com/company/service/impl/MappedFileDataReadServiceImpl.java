@@ -0,0 +1,272 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.service.DataReadService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A service implementation for reading employee data from a file in parallel.
+ * <p>
+ * The file is split into newline-aligned chunks, every chunk is memory-mapped and parsed by a separate
+ * {@link RecursiveTask} on a {@link ForkJoinPool}. Chunk boundaries are searched for plain line feeds, so quoted
+ * fields must not contain line breaks. Resources that are not present on the file system (e.g. the default classpath
+ * resource) are read sequentially by {@link ChannelFileDataReadServiceImpl}.
+ */
+public class MappedFileDataReadServiceImpl implements DataReadService<Employee> {
+
+    /**
+     * The minimum size of a chunk, smaller files are not worth splitting.
+     */
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The maximum size of a chunk, bounded by the maximum size of a single mapping.
+     */
+    private static final long MAX_CHUNK_SIZE = 1 << 28;
+
+    /**
+     * The number of chunks per worker thread, to balance chunks containing records of different length.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final int BOUNDARY_SCAN_SIZE = 1 << 12;
+
+    private final ForkJoinPool pool;
+    private final long minChunkSize;
+    private final DataReadService<Employee> fallbackDataReadService = new ChannelFileDataReadServiceImpl();
+
+    /**
+     * Constructs a new {@code MappedFileDataReadServiceImpl} using the common fork-join pool.
+     */
+    public MappedFileDataReadServiceImpl() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@code MappedFileDataReadServiceImpl} using the specified fork-join pool.
+     *
+     * @param pool the pool used to parse chunks
+     */
+    public MappedFileDataReadServiceImpl(ForkJoinPool pool) {
+        this(pool, MIN_CHUNK_SIZE);
+    }
+
+    MappedFileDataReadServiceImpl(ForkJoinPool pool, long minChunkSize) {
+        this.pool = pool;
+        this.minChunkSize = minChunkSize;
+    }
+
+    /**
+     * Reads employee data from the specified file and returns a set of Employee objects.
+     * Chunks are parsed in parallel and merged in file order, so the result is the same as for a sequential read.
+     *
+     * @param fileName The name of the CSV file containing employee data.
+     * @return A set of Employee objects read from the CSV file.
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    @Override
+    public Set<Employee> readData(String fileName) {
+        Path path = Paths.get(fileName);
+        if (!Files.isRegularFile(path)) {
+            return fallbackDataReadService.readData(fileName);
+        }
+
+        Set<Employee> employees = new HashSet<>();
+        for (ChunkParseTask task : parseChunks(path, null)) {
+            employees.addAll(task.join());
+        }
+        return employees;
+    }
+
+    /**
+     * Reads employee data from the specified file and passes every Employee object to the consumer.
+     * The consumer is called by the worker that parsed the chunk, without building an intermediate collection,
+     * so it is invoked concurrently from several threads and in no particular order; it must be thread-safe
+     * (e.g. {@code organizationCacheService::save}). If a chunk cannot be read or the consumer fails, the other
+     * chunks are stopped and the consumer is not called anymore once the failure is thrown, so the caller sees
+     * that the data is incomplete.
+     *
+     * @param fileName The name of the CSV file containing employee data.
+     * @param consumer The thread-safe consumer receiving Employee objects read from the CSV file.
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    @Override
+    public void readData(String fileName, Consumer<? super Employee> consumer) {
+        Path path = Paths.get(fileName);
+        if (!Files.isRegularFile(path)) {
+            fallbackDataReadService.readData(fileName, consumer);
+            return;
+        }
+
+        parseChunks(path, consumer);
+    }
+
+    /**
+     * Parses the chunks of the file in the pool and waits until all of them are parsed. If a chunk fails, the other
+     * chunks are stopped and all of them have returned before the failure is thrown.
+     */
+    private List<ChunkParseTask> parseChunks(Path path, Consumer<? super Employee> consumer) {
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<ChunkParseTask> tasks = new ArrayList<>();
+        try {
+            submitChunks(path, stopped, consumer, tasks);
+            for (ChunkParseTask task : tasks) {
+                task.join();
+            }
+        } catch (IOException e) {
+            stop(stopped, tasks);
+            throw new UncheckedIOException("Error reading file: " + path, e);
+        } catch (RuntimeException | Error e) {
+            stop(stopped, tasks);
+            throw e;
+        }
+        return tasks;
+    }
+
+    private void submitChunks(Path path, AtomicBoolean stopped, Consumer<? super Employee> consumer, List<ChunkParseTask> tasks)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkSize = Math.max(minChunkSize, size / ((long) pool.getParallelism() * CHUNKS_PER_THREAD));
+            chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+
+            long start = 0;
+            while (start < size) {
+                long end = size;
+                if (size - start > chunkSize) {
+                    end = findNextLineStart(channel, start + chunkSize, size);
+                }
+                ChunkParseTask task = new ChunkParseTask(path, start, end, start == 0, stopped, consumer);
+                pool.execute(task);
+                tasks.add(task);
+                start = end;
+            }
+        }
+    }
+
+    /**
+     * Stops the chunks and waits until all of them have returned, so no chunk passes employees to the consumer after
+     * a failed read has returned. A cancelled fork-join task is completed at once, even while it is still running, so
+     * the chunks are stopped by their shared flag instead.
+     */
+    private static void stop(AtomicBoolean stopped, List<ChunkParseTask> tasks) {
+        stopped.set(true);
+        for (ChunkParseTask task : tasks) {
+            task.quietlyJoin();
+        }
+    }
+
+    /**
+     * Finds the position following the first line feed at or after {@code position}.
+     */
+    private long findNextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parses all records of a single newline-aligned chunk of the file.
+     */
+    private static class ChunkParseTask extends RecursiveTask<List<Employee>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path path;
+        private final long start;
+        private final long end;
+        private final boolean firstChunk;
+
+        /**
+         * Set once any chunk of the file has failed, the remaining records of every chunk are skipped then.
+         */
+        private final AtomicBoolean stopped;
+
+        /**
+         * The consumer receiving parsed employees, or {@code null} to collect them into the task result.
+         */
+        private final Consumer<? super Employee> consumer;
+
+        ChunkParseTask(Path path, long start, long end, boolean firstChunk, AtomicBoolean stopped,
+                       Consumer<? super Employee> consumer) {
+            this.path = path;
+            this.start = start;
+            this.end = end;
+            this.firstChunk = firstChunk;
+            this.stopped = stopped;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected List<Employee> compute() {
+            try {
+                return parse();
+            } catch (RuntimeException | Error e) {
+                stopped.set(true);
+                throw e;
+            }
+        }
+
+        private List<Employee> parse() {
+            if (stopped.get()) {
+                return List.of();
+            }
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            EmployeeCsvParser parser = new EmployeeCsvParser();
+            List<Employee> employees = consumer == null ? new ArrayList<>() : List.of();
+            Consumer<? super Employee> target = consumer == null ? employees::add : consumer;
+            boolean firstRecord = firstChunk;
+            int position = 0;
+            int limit = buffer.limit();
+            while (position < limit && !stopped.get()) {
+                int recordEnd = parser.findRecordEnd(buffer, position, limit);
+                if (recordEnd < 0) {
+                    recordEnd = limit;
+                }
+                if (!parser.isBlank(buffer, position, recordEnd)) {
+                    if (!firstRecord || !parser.isHeader(buffer, position, recordEnd)) {
+                        target.accept(parser.parseRecord(buffer, position, recordEnd));
+                    }
+                    firstRecord = false;
+                }
+                position = recordEnd + 1;
+            }
+            return employees;
+        }
+    }
+}
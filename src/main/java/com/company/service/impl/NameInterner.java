@@ -0,0 +1,116 @@
+package com.company.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Deduplicates the first and last names of the employees read from a file.
+ * <p>
+ * Real organizations repeat a few thousand names across millions of employees, so every distinct name is kept as a
+ * single {@code String} shared by all employees carrying it. Names parsed from bytes are looked up by their UTF-8
+ * bytes in an open-addressing table, so a name seen before costs neither a decoding nor an allocation. At most
+ * {@link #MAX_NAMES} distinct names are kept; further names are returned as they are, so data without repeated names
+ * does not build up a table as large as the data itself.
+ * <p>
+ * Instances are not thread-safe; every parser uses its own.
+ */
+final class NameInterner {
+
+    /**
+     * The maximum number of distinct names kept.
+     */
+    static final int MAX_NAMES = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private byte[][] keys = new byte[INITIAL_CAPACITY][];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int size;
+    private final Map<String, String> namesByString = new HashMap<>();
+
+    /**
+     * Returns the shared name with the specified UTF-8 bytes, decoding and keeping it if it has not been seen before.
+     *
+     * @param bytes  the array containing the name
+     * @param offset the position of the first byte of the name
+     * @param length the number of bytes of the name
+     * @return the shared name
+     */
+    String intern(byte[] bytes, int offset, int length) {
+        int hash = hash(bytes, offset, length);
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        byte[] key;
+        while ((key = keys[slot]) != null) {
+            if (hashes[slot] == hash && Arrays.equals(key, 0, key.length, bytes, offset, offset + length)) {
+                return names[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        String name = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        if (size < MAX_NAMES) {
+            keys[slot] = Arrays.copyOfRange(bytes, offset, offset + length);
+            hashes[slot] = hash;
+            names[slot] = name;
+            //the table is at most half full
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Returns the shared name equal to the specified one, keeping it if it has not been seen before.
+     *
+     * @param name the name, may be {@code null}
+     * @return the shared name
+     */
+    String intern(String name) {
+        if (name == null) {
+            return null;
+        }
+        String shared = namesByString.get(name);
+        if (shared != null) {
+            return shared;
+        }
+        if (namesByString.size() < MAX_NAMES) {
+            namesByString.put(name, name);
+        }
+        return name;
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private void resize() {
+        byte[][] oldKeys = keys;
+        int[] oldHashes = hashes;
+        String[] oldNames = names;
+        int capacity = oldKeys.length * 2;
+        keys = new byte[capacity][];
+        hashes = new int[capacity];
+        names = new String[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                names[slot] = oldNames[i];
+            }
+        }
+    }
+}
@@ -1,51 +1,92 @@
 package com.company.service.impl;
 
+import com.company.dto.ChangeType;
+import com.company.dto.CompactOrganizationStructure;
+import com.company.dto.DataChange;
 import com.company.dto.Employee;
 import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationDiagnostics;
+import com.company.dto.OrganizationUnitIndex;
 import com.company.service.OrganizationCacheService;
+import com.company.service.OrganizationValidationService;
+import com.company.util.ConcurrentLongObjectHashMap;
+import com.company.util.LongIntHashMap;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
-import java.util.List;
 import java.util.Set;
 import java.util.Map;
 import java.util.HashSet;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The {@code OrganizationCacheServiceImpl} class implements the {@code OrganizationCacheService} interface
  * to provide caching and organizational structure functionality for {@code Employee} objects.
+ * <p>
+ * Every change of the cached employees increments a data version. The live organizational structure is updated by
+ * writers under {@code orgStructureBuildLock}; readers get immutable copies of it, published through an atomic
+ * reference and built at most once per data version. Readers never wait for a copy to be rebuilt, they get the
+ * previous copy until the new one is published. Discrepancy queries read the concurrent discrepancy index of the live
+ * structure without a lock, so they do not wait for writers or for a copy either.
  */
 public class OrganizationCacheServiceImpl implements OrganizationCacheService<Employee, Long> {
 
     private final Lock orgStructureBuildLock = new ReentrantLock();
-    private final ConcurrentMap<Long, Employee> cache;
-    private volatile EmployeeStructureNode ceo;
+    private final ConcurrentLongObjectHashMap<Employee> cache;
+    private final OrganizationValidationService validationService = new OrganizationValidationServiceImpl();
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final VersionedSnapshot<EmployeeStructureNode> structureSnapshot = new VersionedSnapshot<>();
+    private final VersionedSnapshot<CompactOrganizationStructure> compactStructureSnapshot = new VersionedSnapshot<>();
+    private final VersionedSnapshot<OrganizationUnitIndex> unitIndexSnapshot = new VersionedSnapshot<>();
+    private volatile OrganizationStructure structure;
 
     /**
      * The {@code OrganizationCacheServiceImpl} class implements the {@code OrganizationCacheService} interface
      * to provide caching and organizational structure functionality for {@code Employee} objects.
      */
     public OrganizationCacheServiceImpl() {
-        this.cache = new ConcurrentHashMap<>();
+        this.cache = new ConcurrentLongObjectHashMap<>();
     }
 
     /**
      * Saves the specified employee in the cache.
      * If the employee or its ID is {@code null}, the method does nothing.
+     * Once the organizational structure is built, it is updated in place: a new employee is linked to its manager,
+     * a changed employee replaces the previous one in its node and is moved together with its subordinates if its
+     * manager has changed.
      *
      * @param employee the employee to be saved in the cache
+     * @return the employee previously cached with the same ID, or {@code null} if there was none
      */
     @Override
-    public void save(Employee employee) {
+    public Employee save(Employee employee) {
         if (employee == null || employee.getId() == null) {
-            return;
+            return null;
+        }
+        Employee previous = cache.put(employee.getId(), employee);
+
+        //the structure is published before it reads the cache, so an employee missed by the build is applied here
+        OrganizationStructure organizationStructure = structure;
+        if (organizationStructure == null) {
+            dataVersion.incrementAndGet();
+            return previous;
+        }
+        orgStructureBuildLock.lock();
+        try {
+            Employee current = cache.get(employee.getId());
+            if (current != null) {
+                organizationStructure.save(current);
+            }
+            //the version changes together with the structure, so a copy never claims a change it does not contain
+            dataVersion.incrementAndGet();
+        } finally {
+            orgStructureBuildLock.unlock();
         }
-        cache.put(employee.getId(), employee);
+        return previous;
     }
 
     /**
@@ -59,6 +100,82 @@ public class OrganizationCacheServiceImpl implements OrganizationCacheService<Em
         employees.forEach(this::save);
     }
 
+    /**
+     * Removes the employee with the specified ID from the cache.
+     * Once the organizational structure is built, the employee is removed from it as well. Its direct subordinates
+     * keep their subtrees and are linked again when an employee with the same ID is saved.
+     *
+     * @param employeeId the ID of the employee to be removed
+     * @return the removed employee, or {@code null} if not found
+     */
+    @Override
+    public Employee remove(Long employeeId) {
+        if (employeeId == null) {
+            return null;
+        }
+        Employee employee = cache.remove(employeeId);
+        if (employee == null) {
+            return null;
+        }
+
+        OrganizationStructure organizationStructure = structure;
+        if (organizationStructure == null) {
+            dataVersion.incrementAndGet();
+            return employee;
+        }
+        orgStructureBuildLock.lock();
+        try {
+            if (!cache.containsKey(employeeId)) {
+                organizationStructure.remove(employeeId);
+            }
+            dataVersion.incrementAndGet();
+        } finally {
+            orgStructureBuildLock.unlock();
+        }
+        return employee;
+    }
+
+    /**
+     * Applies a batch of changes in order: an upsert saves its employee, a delete removes the employee with its ID.
+     * The cache is changed first; once the organizational structure is built, it is then updated to the final state of
+     * every changed employee under a single lock, like {@link #save(Employee)} and {@link #remove(Long)} do for a
+     * single employee. Only the changed employees and their managers are visited, so the cost of a batch grows with
+     * its size and not with the size of the organization. The data version changes once per batch, so the
+     * immutable copies of the structure never reflect a part of it and are rebuilt once for the whole batch.
+     *
+     * @param changes the changes to apply
+     */
+    @Override
+    public void applyChanges(Collection<DataChange<Employee, Long>> changes) {
+        for (DataChange<Employee, Long> change : changes) {
+            if (change.getType() == ChangeType.DELETE) {
+                cache.remove(change.getId());
+            } else {
+                cache.put(change.getId(), change.getObject());
+            }
+        }
+
+        OrganizationStructure organizationStructure = structure;
+        if (organizationStructure == null) {
+            dataVersion.incrementAndGet();
+            return;
+        }
+        orgStructureBuildLock.lock();
+        try {
+            for (DataChange<Employee, Long> change : changes) {
+                Employee current = cache.get(change.getId());
+                if (current != null) {
+                    organizationStructure.save(current);
+                } else {
+                    organizationStructure.remove(change.getId());
+                }
+            }
+            dataVersion.incrementAndGet();
+        } finally {
+            orgStructureBuildLock.unlock();
+        }
+    }
+
     /**
      * Finds and returns the employee with the specified ID from the cache.
      *
@@ -67,7 +184,7 @@ public class OrganizationCacheServiceImpl implements OrganizationCacheService<Em
      */
     @Override
     public Employee findById(Long employeeId) {
-        return cache.get(employeeId);
+        return employeeId == null ? null : cache.get(employeeId);
     }
 
     /**
@@ -81,61 +198,362 @@ public class OrganizationCacheServiceImpl implements OrganizationCacheService<Em
     }
 
     /**
-     * Returns the root node of the organizational structure.
-     * If the structure is not yet built, it builds the structure before returning it.
+     * Returns the data version, which is incremented by every save and remove and once per batch of changes.
+     *
+     * @return the current data version
+     */
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * Returns the root node of an immutable copy of the organizational structure.
+     * The copy reflects the latest data version, unless another thread is copying the structure at the same time,
+     * in which case the previous copy is returned. The returned nodes are never modified and must not be modified
+     * by the caller.
      *
      * @return the root {@code EmployeeStructureNode} of the organizational structure
      */
     @Override
     public EmployeeStructureNode getStructure() {
+        return getStructureSnapshot().value;
+    }
 
-        if (ceo == null) {
+    private VersionedSnapshot.Versioned<EmployeeStructureNode> getStructureSnapshot() {
+        return structureSnapshot.get(dataVersion.get(), () -> {
+            OrganizationStructure organizationStructure = getLiveStructure();
             orgStructureBuildLock.lock();
-            buildStructure();
-            orgStructureBuildLock.unlock();
+            try {
+                return new VersionedSnapshot.Versioned<>(dataVersion.get(), organizationStructure.copyTree());
+            } finally {
+                orgStructureBuildLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns the live organizational structure, building it on first use.
+     * After that, the structure is maintained incrementally by {@link #save(Employee)} and {@link #remove(Long)}.
+     */
+    private OrganizationStructure getLiveStructure() {
+        OrganizationStructure organizationStructure = structure;
+        if (organizationStructure == null) {
+            orgStructureBuildLock.lock();
+            try {
+                organizationStructure = structure;
+                if (organizationStructure == null) {
+                    organizationStructure = buildStructure();
+                }
+            } finally {
+                orgStructureBuildLock.unlock();
+            }
         }
+        return organizationStructure;
+    }
 
-        return ceo;
+    /**
+     * Returns the current salary discrepancy of the manager with the specified ID in constant time.
+     * The discrepancy is derived from the running salary sum of the subordinates, maintained by every save and remove.
+     * The lookup does not lock, so it never waits for a writer or for a copy of the structure.
+     *
+     * @param managerId the ID of the manager
+     * @return the salary discrepancy, or {@code null} if the manager does not exist, has no subordinates or has a
+     * salary of zero
+     */
+    @Override
+    public Double getSalaryDiscrepancy(Long managerId) {
+        return getLiveStructure().getSalaryDiscrepancy(managerId);
     }
 
     /**
-     * Builds the organizational structure from the cached employees.
-     * This method initializes the CEO node and links all employees to their respective managers.
+     * Retrieves the managers whose current salary discrepancy exceeds the specified threshold.
+     * Managers are kept ordered by discrepancy, so only the returned managers are visited. The range is read without a
+     * lock, so it never waits for a writer or for a copy of the structure; a manager updated meanwhile is returned with
+     * its previous or its current discrepancy.
+     *
+     * @param threshold the salary discrepancy threshold
+     * @param checkLess if true, returns discrepancies less than the threshold, if false, only greater ones
+     * @return a map associating managers with their salary discrepancies
+     */
+    @Override
+    public Map<Employee, Double> getSalaryDiscrepancies(double threshold, boolean checkLess) {
+        return getLiveStructure().getSalaryDiscrepancies(threshold, checkLess);
+    }
+
+    /**
+     * Returns the organizational structure as a compact struct of primitive arrays.
+     * The compact structure is published the same way as {@link #getStructure()}: it is built at most once per data
+     * version and readers get the previous one while it is rebuilt.
+     *
+     * @return the {@code CompactOrganizationStructure} of the organization
      */
-    private void buildStructure() {
-        Map<Long, List<EmployeeStructureNode>> waitingForManager = new HashMap<>();
-        Map<Long, EmployeeStructureNode> employeeStructureNodeMap = new HashMap<>();
+    @Override
+    public CompactOrganizationStructure getCompactStructure() {
+        return getCompactStructureSnapshot().value;
+    }
 
-        findAll().forEach(employee -> {
-            EmployeeStructureNode employeeStructureNode = new EmployeeStructureNode(employee);
+    private VersionedSnapshot.Versioned<CompactOrganizationStructure> getCompactStructureSnapshot() {
+        //the version is read before the cache, so a change made during the build makes the result outdated
+        return compactStructureSnapshot.get(dataVersion.get(), () -> {
+            long version = dataVersion.get();
+            return new VersionedSnapshot.Versioned<>(version, buildCompactStructure());
+        });
+    }
 
-            if (employee.getManagerId() == null) {
-                ceo = employeeStructureNode;
+    /**
+     * Returns the organizational structure in pre-order, derived from the compact structure of the same data version.
+     * It is published the same way as {@link #getStructure()}.
+     *
+     * @return the {@code OrganizationUnitIndex} of the organization
+     */
+    @Override
+    public OrganizationUnitIndex getOrganizationUnitIndex() {
+        return unitIndexSnapshot.get(dataVersion.get(), () -> {
+            VersionedSnapshot.Versioned<CompactOrganizationStructure> compactStructure = getCompactStructureSnapshot();
+            return new VersionedSnapshot.Versioned<>(compactStructure.version, buildOrganizationUnitIndex(compactStructure.value));
+        }).value;
+    }
+
+    /**
+     * Lays the compact structure out in pre-order without a stack. Subtree sizes are summed bottom-up in reverse
+     * breadth-first order, then every employee places its subordinates one subtree after another, starting right
+     * after its own position.
+     */
+    private static OrganizationUnitIndex buildOrganizationUnitIndex(CompactOrganizationStructure structure) {
+        int size = structure.size();
+        int[] subtreeSizes = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            subtreeSizes[i] = 1;
+            for (int subordinate = structure.getSubordinatesStart(i); subordinate < structure.getSubordinatesEnd(i); subordinate++) {
+                subtreeSizes[i] += subtreeSizes[subordinate];
             }
+        }
 
-            //Check if EmployeeStructureNode for the manager is already created, if not, add to waiting list
-            if (employee.getManagerId() != null && employeeStructureNodeMap.containsKey(employee.getManagerId())) {
-                employeeStructureNode.setManager(employeeStructureNodeMap.get(employee.getManagerId()));
-                employeeStructureNodeMap.get(employee.getManagerId()).addSubordinate(employeeStructureNode);
-            } else {
-                if (waitingForManager.containsKey(employee.getManagerId())) {
-                    waitingForManager.get(employee.getManagerId()).add(employeeStructureNode);
-                } else {
-                    waitingForManager.put(employee.getManagerId(), new ArrayList<>(List.of(employeeStructureNode)));
-                }
+        long[] ids = new long[size];
+        double[] salaries = new double[size];
+        int[] depths = new int[size];
+        int[] subtreeEnds = new int[size];
+        Employee[] employees = new Employee[size];
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            //the root is placed first, every other employee is placed by its manager before it is visited
+            int position = positions[i];
+            ids[position] = structure.getId(i);
+            salaries[position] = structure.getSalary(i);
+            depths[position] = structure.getDepth(i);
+            subtreeEnds[position] = position + subtreeSizes[i];
+            employees[position] = structure.getEmployee(i);
+
+            int next = position + 1;
+            for (int subordinate = structure.getSubordinatesStart(i); subordinate < structure.getSubordinatesEnd(i); subordinate++) {
+                positions[subordinate] = next;
+                next += subtreeSizes[subordinate];
             }
+        }
+        return new OrganizationUnitIndex(ids, salaries, depths, subtreeEnds, employees);
+    }
 
-            employeeStructureNodeMap.put(employee.getId(), employeeStructureNode);
-        });
+    /**
+     * Builds the compact organizational structure from the cached employees, taken in ID order.
+     * Employees are first grouped by manager (counting sort over dense indices), then laid out in breadth-first order
+     * starting from the employee without a manager. If there are several, the one with the lowest ID is the root, as
+     * in {@link #getStructure()}. Employees not reachable from it are not part of the structure.
+     */
+    private CompactOrganizationStructure buildCompactStructure() {
+        Employee[] employees = cache.valuesByKey().toArray(new Employee[0]);
+        int count = employees.length;
+
+        LongIntHashMap indexById = new LongIntHashMap(count, -1);
+        for (int i = 0; i < count; i++) {
+            indexById.put(employees[i].getId(), i);
+        }
 
-        //Add subordinates to managers
-        if (!waitingForManager.isEmpty()) {
-            waitingForManager.forEach((managerId, subordinates) -> {
-                EmployeeStructureNode manager = employeeStructureNodeMap.get(managerId);
-                if (manager != null) {
-                    subordinates.forEach(manager::addSubordinate);
+        int root = -1;
+        int[] managers = new int[count];
+        int[] subordinatesCount = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            Long managerId = employees[i].getManagerId();
+            int manager = managerId == null ? -1 : indexById.get(managerId);
+            managers[i] = manager;
+            if (managerId == null) {
+                if (root < 0) {
+                    root = i;
                 }
-            });
+            } else if (manager >= 0) {
+                subordinatesCount[manager + 1]++;
+            }
+        }
+
+        //group subordinates by manager
+        int[] subordinatesStart = subordinatesCount;
+        for (int i = 0; i < count; i++) {
+            subordinatesStart[i + 1] += subordinatesStart[i];
         }
+        int[] subordinates = new int[subordinatesStart[count]];
+        int[] fill = new int[count];
+        for (int i = 0; i < count; i++) {
+            int manager = managers[i];
+            if (manager >= 0) {
+                subordinates[subordinatesStart[manager] + fill[manager]++] = i;
+            }
+        }
+
+        //breadth-first layout, the order array doubles as the queue
+        int[] order = new int[count];
+        int size = 0;
+        if (root >= 0) {
+            order[size++] = root;
+        }
+        int[] childOffsets = new int[size == 0 ? 1 : count + 1];
+        for (int position = 0; position < size; position++) {
+            int employee = order[position];
+            childOffsets[position] = size;
+            for (int i = subordinatesStart[employee]; i < subordinatesStart[employee + 1]; i++) {
+                order[size++] = subordinates[i];
+            }
+        }
+        childOffsets[size] = size;
+
+        long[] ids = new long[size];
+        double[] salaries = new double[size];
+        int[] parents = new int[size];
+        Employee[] orderedEmployees = new Employee[size];
+        for (int position = 0; position < size; position++) {
+            Employee employee = employees[order[position]];
+            ids[position] = employee.getId();
+            salaries[position] = employee.getSalary();
+            orderedEmployees[position] = employee;
+        }
+        if (size > 0) {
+            parents[0] = CompactOrganizationStructure.NO_PARENT;
+        }
+        for (int position = 0; position < size; position++) {
+            for (int child = childOffsets[position]; child < childOffsets[position + 1]; child++) {
+                parents[child] = position;
+            }
+        }
+
+        if (size < count) {
+            childOffsets = Arrays.copyOf(childOffsets, size + 1);
+        }
+        return new CompactOrganizationStructure(ids, salaries, parents, childOffsets, orderedEmployees);
+    }
+
+    /**
+     * Checks the cached employees in linear time without building the organizational structure.
+     * The cache holds one employee per ID, so the diagnostics never report duplicate IDs.
+     *
+     * @return the diagnostics of the cached employees
+     */
+    @Override
+    public OrganizationDiagnostics validate() {
+        return validationService.validate(cache.valuesByKey());
+    }
+
+    /**
+     * Checks that the cached employees still form a single hierarchy after the employees with the specified IDs were
+     * changed. Once the organizational structure is built, its running sets of employees without a manager and of
+     * employees waiting for a missing manager are read and only the report lines of the changed employees are walked
+     * to find cycles, under the lock of the writers. Before that, all employees are validated.
+     *
+     * @param changedIds the IDs of the saved and removed employees
+     * @return the diagnostics of the cached employees
+     */
+    @Override
+    public OrganizationDiagnostics validate(Collection<Long> changedIds) {
+        OrganizationStructure organizationStructure = structure;
+        if (organizationStructure == null) {
+            return validate();
+        }
+        orgStructureBuildLock.lock();
+        try {
+            return organizationStructure.diagnose(changedIds);
+        } finally {
+            orgStructureBuildLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a binary snapshot of the cached employees and the organizational structure to the specified file.
+     * The structure is built first if necessary.
+     *
+     * @param snapshotFile the file to write the snapshot to
+     * @param sourceFile   the file the cached employees were read from
+     * @return {@code true} if the snapshot was written, {@code false} otherwise
+     */
+    @Override
+    public boolean writeSnapshot(Path snapshotFile, Path sourceFile) {
+        EmployeeStructureNode root = getStructure();
+        try {
+            OrganizationSnapshotFile.write(snapshotFile, sourceFile, cache.valuesByKey(), root == null ? null : root.getEmployee());
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot: " + snapshotFile);
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the cached employees and the organizational structure with the content of the specified snapshot.
+     * The structure is linked by the manager indices stored in the snapshot, without any lookups by ID.
+     *
+     * @param snapshotFile the snapshot file to load
+     * @param sourceFile   the file the snapshot was created from
+     * @return {@code true} if the snapshot was loaded, {@code false} if it is missing, stale or corrupt
+     */
+    @Override
+    public boolean loadSnapshot(Path snapshotFile, Path sourceFile) {
+        OrganizationSnapshotFile.Content content;
+        try {
+            content = OrganizationSnapshotFile.read(snapshotFile, sourceFile);
+        } catch (IOException e) {
+            System.err.println("Error reading snapshot: " + snapshotFile);
+            return false;
+        }
+        if (content == null) {
+            return false;
+        }
+
+        Employee[] employees = content.employees;
+        int[] managerIndices = content.managerIndices;
+        EmployeeStructureNode[] nodes = new EmployeeStructureNode[employees.length];
+        for (int i = 0; i < employees.length; i++) {
+            nodes[i] = new EmployeeStructureNode(employees[i]);
+        }
+        for (int i = 0; i < employees.length; i++) {
+            if (managerIndices[i] >= 0) {
+                nodes[i].setManager(nodes[managerIndices[i]]);
+                nodes[managerIndices[i]].addSubordinate(nodes[i]);
+            }
+        }
+
+        OrganizationStructure organizationStructure = OrganizationStructure.ofLinkedNodes(nodes,
+                content.ceoIndex >= 0 ? nodes[content.ceoIndex] : null);
+        orgStructureBuildLock.lock();
+        try {
+            cache.clear();
+            for (Employee employee : employees) {
+                cache.put(employee.getId(), employee);
+            }
+            structure = organizationStructure;
+            dataVersion.incrementAndGet();
+        } finally {
+            orgStructureBuildLock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Builds the organizational structure from the cached employees in ID order, so that subordinates are linked in
+     * the same order whatever order the employees were saved in. The structure is published before the cache is
+     * read, so that concurrent saves either are read from the cache or wait for the build and update the structure
+     * afterwards.
+     */
+    private OrganizationStructure buildStructure() {
+        OrganizationStructure organizationStructure = new OrganizationStructure(cache.size());
+        structure = organizationStructure;
+        organizationStructure.build(cache.valuesByKey());
+        return organizationStructure;
     }
 }
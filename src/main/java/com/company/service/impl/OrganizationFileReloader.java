@@ -0,0 +1,391 @@
+package com.company.service.impl;
+
+import com.company.dto.DataChange;
+import com.company.dto.Employee;
+import com.company.dto.OrganizationDiagnostics;
+import com.company.service.DataReadService;
+import com.company.service.OrganizationCacheService;
+import com.company.service.OrganizationValidationService;
+import com.company.util.LongIntHashMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps an organization cache in sync with the file its employees are read from, for a long-running process that
+ * answers many queries from the same warm cache.
+ * <p>
+ * A reload reads and validates the whole file without blocking queries and then applies only the differences to the
+ * cache: new and changed employees are saved, employees that are no longer in the file are removed and unchanged
+ * employees are not touched. The cache maintains the organizational structure incrementally, so only the managers of
+ * changed employees are updated. The differences are applied as one batch under a write lock while {@link #query(Supplier)} runs
+ * under the read lock, so a query sees either the previous or the new file, never a part of both. A file that is not
+ * a valid organization is rejected and the previous data is kept.
+ * <p>
+ * {@link #start()} watches the directory of the file and reloads it in a background thread once the file has not been
+ * modified for {@link #QUIET_PERIOD_MILLIS} milliseconds, so a file that is being written is read when it is complete.
+ */
+public class OrganizationFileReloader implements Closeable {
+
+    /**
+     * The time without modifications after which a modified file is reloaded, in milliseconds.
+     */
+    static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final Path file;
+    private final OrganizationCacheService<Employee, Long> organizationCacheService;
+    private final DataReadService<Employee> dataReadService;
+    private final OrganizationValidationService validationService;
+    private final ReadWriteLock dataLock = new ReentrantReadWriteLock();
+    private final Lock reloadLock = new ReentrantLock();
+    private long[] loadedIds = new long[0];
+    private int loadedIdCount;
+    //the remembered IDs deleted by applied changes since the last reload, the only remembered IDs that are not cached
+    private LongIntHashMap deletedIds = new LongIntHashMap(16, 0);
+    private FileTime loadedModified;
+    private long loadedSize = -1;
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Creates a reloader of the specified file into the specified cache. The cache should not be changed by anyone
+     * else while the reloader is in use.
+     *
+     * @param file                     the file to read the employees from
+     * @param organizationCacheService the cache to keep in sync with the file
+     * @param dataReadService          the reader of the file
+     * @param validationService        the validation of the employees read from the file
+     */
+    public OrganizationFileReloader(Path file, OrganizationCacheService<Employee, Long> organizationCacheService,
+                                    DataReadService<Employee> dataReadService, OrganizationValidationService validationService) {
+        this.file = file;
+        this.organizationCacheService = organizationCacheService;
+        this.dataReadService = dataReadService;
+        this.validationService = validationService;
+    }
+
+    /**
+     * Reads the file and applies its differences to the cache, if the file is a valid organization. The first reload
+     * loads the whole file. Afterwards, the immutable copy of the organizational structure is rebuilt, while queries
+     * still get the previous copy.
+     *
+     * @return the diagnostics of the employees read from the file
+     */
+    public OrganizationDiagnostics reload() {
+        reloadLock.lock();
+        try {
+            rememberFileAttributes();
+            //the file is buffered, since it is applied only if it is valid and then only by its differences
+            EmployeeBuffer buffer = new EmployeeBuffer(loadedIdCount);
+            dataReadService.readData(file.toString(), buffer);
+            List<Employee> employees = buffer.toList();
+            OrganizationDiagnostics diagnostics = validationService.validate(employees);
+            if (diagnostics.isValid()) {
+                apply(employees);
+                organizationCacheService.getStructure();
+            }
+            return diagnostics;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the file if its size or modification time have changed since the last reload.
+     *
+     * @return the diagnostics of the employees read from the file, or {@code null} if the file has not changed
+     */
+    OrganizationDiagnostics reloadIfModified() {
+        reloadLock.lock();
+        try {
+            BasicFileAttributes attributes = readFileAttributes();
+            if (attributes != null && attributes.size() == loadedSize
+                    && attributes.lastModifiedTime().equals(loadedModified)) {
+                return null;
+            }
+            return reload();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void rememberFileAttributes() {
+        //read before the file, so a modification during the reload is reloaded again
+        BasicFileAttributes attributes = readFileAttributes();
+        loadedSize = attributes == null ? -1 : attributes.size();
+        loadedModified = attributes == null ? null : attributes.lastModifiedTime();
+    }
+
+    private BasicFileAttributes readFileAttributes() {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void apply(Collection<Employee> employees) {
+        LongIntHashMap fileIds = new LongIntHashMap(employees.size(), 0);
+        long[] ids = new long[employees.size()];
+        int count = 0;
+        for (Employee employee : employees) {
+            fileIds.put(employee.getId(), 1);
+            ids[count++] = employee.getId();
+        }
+
+        dataLock.writeLock().lock();
+        try {
+            List<DataChange<Employee, Long>> changes = new ArrayList<>();
+            for (int i = 0; i < loadedIdCount; i++) {
+                if (!fileIds.containsKey(loadedIds[i])) {
+                    changes.add(DataChange.delete(loadedIds[i]));
+                }
+            }
+            for (Employee employee : employees) {
+                if (!isSameEmployee(organizationCacheService.findById(employee.getId()), employee)) {
+                    changes.add(DataChange.upsert(employee.getId(), employee));
+                }
+            }
+            organizationCacheService.applyChanges(changes);
+            loadedIds = ids;
+            loadedIdCount = count;
+            deletedIds = new LongIntHashMap(16, 0);
+        } finally {
+            dataLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a batch of changes to the cache, never in the middle of a query, if the changed employees still form a
+     * valid organization. A batch that does not, e.g. one that deletes a manager, is rolled back and the previous data
+     * is kept. Only the changed employees and their report lines are checked, so the cost grows with the size of the
+     * batch and not with the size of the organization. The changes last until the file is reloaded, which restores
+     * the content of the file.
+     *
+     * @param changes the changes to apply
+     * @return the diagnostics of the changed employees
+     */
+    public OrganizationDiagnostics applyChanges(Collection<DataChange<Employee, Long>> changes) {
+        dataLock.writeLock().lock();
+        try {
+            //the employees before the batch, by the ID of every changed employee
+            Map<Long, Employee> previous = new HashMap<>();
+            for (DataChange<Employee, Long> change : changes) {
+                if (!previous.containsKey(change.getId())) {
+                    previous.put(change.getId(), organizationCacheService.findById(change.getId()));
+                }
+            }
+            organizationCacheService.applyChanges(changes);
+
+            OrganizationDiagnostics diagnostics = organizationCacheService.validate(previous.keySet());
+            if (diagnostics.isValid()) {
+                rememberChangedIds(previous);
+            } else {
+                List<DataChange<Employee, Long>> rollback = new ArrayList<>(previous.size());
+                previous.forEach((id, employee) -> rollback.add(employee == null ? DataChange.delete(id) : DataChange.upsert(id, employee)));
+                organizationCacheService.applyChanges(rollback);
+            }
+            return diagnostics;
+        } finally {
+            dataLock.writeLock().unlock();
+        }
+    }
+
+    private void rememberChangedIds(Map<Long, Employee> previous) {
+        //added employees are removed again by a reload of a file without them, so every ID is remembered once;
+        //the IDs of employees cached before the batch and of deleted ones are remembered already
+        for (Map.Entry<Long, Employee> entry : previous.entrySet()) {
+            long id = entry.getKey();
+            boolean cached = organizationCacheService.findById(id) != null;
+            if (entry.getValue() != null && !cached) {
+                deletedIds.put(id, 1);
+            } else if (entry.getValue() == null && cached && !deletedIds.containsKey(id)) {
+                if (loadedIdCount == loadedIds.length) {
+                    loadedIds = Arrays.copyOf(loadedIds, Math.max(16, loadedIdCount * 2));
+                }
+                loadedIds[loadedIdCount++] = id;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of IDs that a reload removes from the cache if they are not in the file anymore.
+     *
+     * @return the number of remembered IDs
+     */
+    int getLoadedIdCount() {
+        return loadedIdCount;
+    }
+
+    private static boolean isSameEmployee(Employee current, Employee employee) {
+        //employees are equal by ID, so every field is compared
+        return current != null
+                && Objects.equals(current.getFirstName(), employee.getFirstName())
+                && Objects.equals(current.getLastName(), employee.getLastName())
+                && Double.compare(current.getSalary(), employee.getSalary()) == 0
+                && Objects.equals(current.getManagerId(), employee.getManagerId());
+    }
+
+    /**
+     * Collects the employees read from the file. The reader may call the consumer from several threads, so every
+     * thread appends to its own array-backed list, presized for its share of the expected employees; no thread waits
+     * for another and no node is allocated per employee.
+     */
+    private static final class EmployeeBuffer implements Consumer<Employee> {
+
+        private final int expectedSizePerThread;
+        private final Map<Thread, List<Employee>> buffers = new ConcurrentHashMap<>();
+
+        EmployeeBuffer(int expectedSize) {
+            this.expectedSizePerThread = Math.max(16, expectedSize / Runtime.getRuntime().availableProcessors());
+        }
+
+        @Override
+        public void accept(Employee employee) {
+            buffers.computeIfAbsent(Thread.currentThread(), thread -> new ArrayList<>(expectedSizePerThread)).add(employee);
+        }
+
+        List<Employee> toList() {
+            if (buffers.size() == 1) {
+                return buffers.values().iterator().next();
+            }
+            int size = 0;
+            for (List<Employee> buffer : buffers.values()) {
+                size += buffer.size();
+            }
+            List<Employee> employees = new ArrayList<>(size);
+            for (List<Employee> buffer : buffers.values()) {
+                employees.addAll(buffer);
+            }
+            return employees;
+        }
+    }
+
+    /**
+     * Runs the specified query on the cache, never in the middle of applying a reloaded file.
+     *
+     * @param query the query to run
+     * @param <R>   the type of the result
+     * @return the result of the query
+     */
+    public <R> R query(Supplier<R> query) {
+        dataLock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            dataLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Starts watching the file in a background daemon thread, which reloads the file whenever it is modified.
+     * Reloads that fail or read an invalid organization are reported to the standard error output and keep the
+     * previous data. A reader that may fail with an error, like a mapped read of a file truncated while it is read,
+     * stops the watcher.
+     *
+     * @throws IOException if the directory of the file cannot be watched
+     */
+    public synchronized void start() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        WatchService service = FileSystems.getDefault().newWatchService();
+        try {
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            service.close();
+            throw e;
+        }
+        watchService = service;
+        watcher = new Thread(() -> watch(service), "organization-file-reloader");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(WatchService service) {
+        Path fileName = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean modified = isModified(key, fileName);
+                key.reset();
+                if (!modified) {
+                    continue;
+                }
+                //wait until the file is not written anymore
+                while ((key = service.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                reloadInBackground();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //the reloader is closed
+        }
+    }
+
+    private static boolean isModified(WatchKey key, Path fileName) {
+        boolean modified = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    private void reloadInBackground() {
+        try {
+            OrganizationDiagnostics diagnostics = reloadIfModified();
+            if (diagnostics != null && !diagnostics.isValid()) {
+                System.err.println("Reloaded data is not a valid organization, keeping previous data: " + diagnostics);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error reloading file: " + file + ": " + e);
+        }
+    }
+
+    /**
+     * Stops watching the file. Queries and explicit reloads remain possible.
+     */
+    @Override
+    public synchronized void close() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("Error closing watch service for file: " + file);
+        }
+        watcher.interrupt();
+        watcher = null;
+        watchService = null;
+    }
+}
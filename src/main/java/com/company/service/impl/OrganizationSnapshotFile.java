@@ -0,0 +1,315 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.util.LongIntHashMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes a compact, columnar binary snapshot of the organization.
+ * <p>
+ * Layout (little-endian, every section starts at a multiple of its element size):
+ * <pre>
+ * header          magic, version, source size, source modification time, employee count, CEO index,
+ *                 name count, name bytes length, orphan count
+ * long[count]     employee ids
+ * double[count]   salaries
+ * long[orphans]   manager ids of employees whose manager is not part of the snapshot
+ * int[count]      manager indices ({@link #NO_MANAGER} or {@link #UNRESOLVED_MANAGER} if there is no such row)
+ * int[count]      first name indices into the name pool
+ * int[count]      last name indices into the name pool
+ * int[orphans]    row indices of employees whose manager is not part of the snapshot
+ * int[names + 1]  name offsets into the name bytes
+ * byte[length]    UTF-8 name bytes, every distinct name is stored once
+ * </pre>
+ * The snapshot records the size and modification time of the source file and is considered stale when they change.
+ */
+final class OrganizationSnapshotFile {
+
+    /**
+     * The manager index of an employee without a manager.
+     */
+    static final int NO_MANAGER = -1;
+
+    /**
+     * The manager index of an employee whose manager is not part of the snapshot.
+     */
+    static final int UNRESOLVED_MANAGER = -2;
+
+    private static final int MAGIC = 0x4F524753;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private OrganizationSnapshotFile() {
+    }
+
+    /**
+     * The content of a snapshot: employees in row order, the manager index of every row and the index of the CEO row.
+     */
+    static class Content {
+
+        final Employee[] employees;
+        final int[] managerIndices;
+        final int ceoIndex;
+
+        Content(Employee[] employees, int[] managerIndices, int ceoIndex) {
+            this.employees = employees;
+            this.managerIndices = managerIndices;
+            this.ceoIndex = ceoIndex;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the specified employees, stamped with the current size and modification time of the
+     * source file. The snapshot is written to a temporary file first and then moved into place.
+     *
+     * @param snapshotFile the snapshot file to write
+     * @param sourceFile   the file the employees were read from
+     * @param employees    the employees to write
+     * @param ceo          the root of the organization, or {@code null} if there is none
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(Path snapshotFile, Path sourceFile, Collection<Employee> employees, Employee ceo) throws IOException {
+        long sourceSize = Files.size(sourceFile);
+        long sourceModified = Files.getLastModifiedTime(sourceFile).toMillis();
+
+        Employee[] rows = employees.toArray(new Employee[0]);
+        int count = rows.length;
+        LongIntHashMap rowById = new LongIntHashMap(count, UNRESOLVED_MANAGER);
+        for (int i = 0; i < count; i++) {
+            rowById.put(rows[i].getId(), i);
+        }
+
+        int[] managerIndices = new int[count];
+        int[] firstNames = new int[count];
+        int[] lastNames = new int[count];
+        List<Integer> orphanRows = new ArrayList<>();
+        Map<String, Integer> nameIndex = new HashMap<>();
+        List<byte[]> names = new ArrayList<>();
+        int ceoIndex = NO_MANAGER;
+        for (int i = 0; i < count; i++) {
+            Employee employee = rows[i];
+            if (employee.getManagerId() == null) {
+                managerIndices[i] = NO_MANAGER;
+            } else {
+                managerIndices[i] = rowById.get(employee.getManagerId());
+                if (managerIndices[i] == UNRESOLVED_MANAGER) {
+                    orphanRows.add(i);
+                }
+            }
+            if (employee == ceo) {
+                ceoIndex = i;
+            }
+            firstNames[i] = internName(employee.getFirstName(), nameIndex, names);
+            lastNames[i] = internName(employee.getLastName(), nameIndex, names);
+        }
+
+        int nameBytesLength = 0;
+        for (byte[] name : names) {
+            nameBytesLength += name.length;
+        }
+
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(sourceSize).putLong(sourceModified)
+                    .putInt(count).putInt(ceoIndex).putInt(names.size()).putInt(nameBytesLength).putInt(orphanRows.size())
+                    .putInt(0);
+
+            for (Employee employee : rows) {
+                buffer = ensureRemaining(channel, buffer, Long.BYTES);
+                buffer.putLong(employee.getId());
+            }
+            for (Employee employee : rows) {
+                buffer = ensureRemaining(channel, buffer, Double.BYTES);
+                buffer.putDouble(employee.getSalary());
+            }
+            for (int row : orphanRows) {
+                buffer = ensureRemaining(channel, buffer, Long.BYTES);
+                buffer.putLong(rows[row].getManagerId());
+            }
+            buffer = putInts(channel, buffer, managerIndices);
+            buffer = putInts(channel, buffer, firstNames);
+            buffer = putInts(channel, buffer, lastNames);
+            for (int row : orphanRows) {
+                buffer = ensureRemaining(channel, buffer, Integer.BYTES);
+                buffer.putInt(row);
+            }
+            int offset = 0;
+            for (byte[] name : names) {
+                buffer = ensureRemaining(channel, buffer, Integer.BYTES);
+                buffer.putInt(offset);
+                offset += name.length;
+            }
+            buffer = ensureRemaining(channel, buffer, Integer.BYTES);
+            buffer.putInt(offset);
+            for (byte[] name : names) {
+                buffer = ensureRemaining(channel, buffer, name.length);
+                buffer.put(name);
+            }
+            flush(channel, buffer);
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Memory-maps and reads the specified snapshot if it exists and is up to date with the source file.
+     *
+     * @param snapshotFile the snapshot file to read
+     * @param sourceFile   the file the snapshot was created from
+     * @return the content of the snapshot, or {@code null} if the snapshot does not exist, has an unknown format, is
+     * corrupt, or the source file has changed since it was written
+     * @throws IOException if the snapshot cannot be read
+     */
+    static Content read(Path snapshotFile, Path sourceFile) throws IOException {
+        if (!Files.isRegularFile(snapshotFile) || !Files.isRegularFile(sourceFile)) {
+            return null;
+        }
+
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getLong(8) != Files.size(sourceFile)
+                || buffer.getLong(16) != Files.getLastModifiedTime(sourceFile).toMillis()) {
+            return null;
+        }
+        int count = buffer.getInt(24);
+        int ceoIndex = buffer.getInt(28);
+        int nameCount = buffer.getInt(32);
+        int nameBytesLength = buffer.getInt(36);
+        int orphanCount = buffer.getInt(40);
+        if (count < 0 || nameCount < 0 || nameBytesLength < 0 || orphanCount < 0 || orphanCount > count
+                || ceoIndex < NO_MANAGER || ceoIndex >= count) {
+            return null;
+        }
+
+        //the sizes are checked against the file size in longs, so a corrupt count cannot overflow a position
+        long idsPosition = HEADER_SIZE;
+        long salariesPosition = idsPosition + (long) count * Long.BYTES;
+        long orphanManagersPosition = salariesPosition + (long) count * Double.BYTES;
+        long managersPosition = orphanManagersPosition + (long) orphanCount * Long.BYTES;
+        long firstNamesPosition = managersPosition + (long) count * Integer.BYTES;
+        long lastNamesPosition = firstNamesPosition + (long) count * Integer.BYTES;
+        long orphanRowsPosition = lastNamesPosition + (long) count * Integer.BYTES;
+        long nameOffsetsPosition = orphanRowsPosition + (long) orphanCount * Integer.BYTES;
+        long nameBytesPosition = nameOffsetsPosition + ((long) nameCount + 1) * Integer.BYTES;
+        if (buffer.limit() != nameBytesPosition + nameBytesLength) {
+            return null;
+        }
+
+        //every distinct name is decoded once and shared by all employees
+        String[] names = new String[nameCount];
+        byte[] nameBytes = new byte[nameBytesLength];
+        buffer.position((int) nameBytesPosition);
+        buffer.get(nameBytes);
+        int start = buffer.getInt((int) nameOffsetsPosition);
+        if (start != 0) {
+            return null;
+        }
+        for (int i = 0; i < nameCount; i++) {
+            int end = buffer.getInt((int) nameOffsetsPosition + (i + 1) * Integer.BYTES);
+            if (end < start || end > nameBytesLength) {
+                return null;
+            }
+            names[i] = new String(nameBytes, start, end - start, StandardCharsets.UTF_8);
+            start = end;
+        }
+
+        Long[] orphanManagerIds = new Long[count];
+        for (int i = 0; i < orphanCount; i++) {
+            int row = buffer.getInt((int) orphanRowsPosition + i * Integer.BYTES);
+            if (row < 0 || row >= count) {
+                return null;
+            }
+            orphanManagerIds[row] = buffer.getLong((int) orphanManagersPosition + i * Long.BYTES);
+        }
+
+        long[] ids = new long[count];
+        buffer.position((int) idsPosition);
+        buffer.asLongBuffer().get(ids);
+        double[] salaries = new double[count];
+        buffer.position((int) salariesPosition);
+        buffer.asDoubleBuffer().get(salaries);
+        int[] managerIndices = new int[count];
+        buffer.position((int) managersPosition);
+        buffer.asIntBuffer().get(managerIndices);
+
+        Employee[] employees = new Employee[count];
+        for (int i = 0; i < count; i++) {
+            int managerIndex = managerIndices[i];
+            int firstNameIndex = buffer.getInt((int) firstNamesPosition + i * Integer.BYTES);
+            int lastNameIndex = buffer.getInt((int) lastNamesPosition + i * Integer.BYTES);
+            if (managerIndex >= count || managerIndex < UNRESOLVED_MANAGER
+                    || managerIndex == UNRESOLVED_MANAGER && orphanManagerIds[i] == null
+                    || firstNameIndex < 0 || firstNameIndex >= nameCount
+                    || lastNameIndex < 0 || lastNameIndex >= nameCount) {
+                return null;
+            }
+            Long managerId = managerIndex >= 0 ? Long.valueOf(ids[managerIndex])
+                    : managerIndex == UNRESOLVED_MANAGER ? orphanManagerIds[i] : null;
+            employees[i] = new Employee(ids[i], names[firstNameIndex], names[lastNameIndex], salaries[i], managerId);
+        }
+        return new Content(employees, managerIndices, ceoIndex);
+    }
+
+    private static int internName(String name, Map<String, Integer> nameIndex, List<byte[]> names) {
+        String key = name == null ? "" : name;
+        Integer index = nameIndex.get(key);
+        if (index == null) {
+            index = names.size();
+            nameIndex.put(key, index);
+            names.add(key.getBytes(StandardCharsets.UTF_8));
+        }
+        return index;
+    }
+
+    private static ByteBuffer putInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        for (int value : values) {
+            buffer = ensureRemaining(channel, buffer, Integer.BYTES);
+            buffer.putInt(value);
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer ensureRemaining(FileChannel channel, ByteBuffer buffer, int length) throws IOException {
+        if (buffer.remaining() >= length) {
+            return buffer;
+        }
+        flush(channel, buffer);
+        if (buffer.capacity() < length) {
+            return ByteBuffer.allocateDirect(length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,461 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationDiagnostics;
+import com.company.util.ConcurrentLongObjectHashMap;
+import com.company.util.LongObjectHashMap;
+import com.company.util.LongSorting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The live employee structure tree, updated in place when employees are saved or removed.
+ * <p>
+ * Every employee has exactly one node. An employee whose manager is not known waits in a list keyed by the ID of the
+ * manager and is linked as soon as the manager is saved, so the structure does not depend on the order of the
+ * updates. Subordinates are kept in ascending ID order, so a structure updated in place lists them in the same order
+ * as one built from the same employees. Saving an employee costs {@code O(log k)} plus the number of employees that
+ * were waiting for it, removing an employee costs {@code O(log k)} plus the number of its direct subordinates, where
+ * {@code k} is the number of subordinates of the affected manager; the subordinates after the changed one are moved
+ * by one array copy.
+ * <p>
+ * The salary discrepancy of every manager is derived from the running salary sum of its node and kept in a set
+ * ordered by discrepancy. Every update re-indexes the at most three affected managers in {@code O(log n)}, the
+ * discrepancy of a manager is looked up in {@code O(1)} and the managers beyond a threshold are a range of the set.
+ * Managers with a salary of zero have no discrepancy and are not indexed. Managers of subtrees waiting for their own
+ * manager are indexed as well, although they are not reachable from the root.
+ * <p>
+ * Updates are not thread-safe and must not run concurrently with each other or with {@link #copyTree()}. The
+ * discrepancy index is a concurrent map and skip list, so {@link #getSalaryDiscrepancy(Long)} and
+ * {@link #getSalaryDiscrepancies(double, boolean)} may run at any time without a lock: a lookup sees the discrepancy
+ * of a manager before or after an update, and a range sees every manager that is not updated meanwhile.
+ */
+final class OrganizationStructure {
+
+    private final LongObjectHashMap<EmployeeStructureNode> nodes;
+    private final Set<EmployeeStructureNode> roots = new LinkedHashSet<>();
+    private final LongObjectHashMap<List<EmployeeStructureNode>> waitingForManager = new LongObjectHashMap<>();
+    private final ConcurrentLongObjectHashMap<ManagerDiscrepancy> discrepancyByManager = new ConcurrentLongObjectHashMap<>();
+    private final NavigableSet<ManagerDiscrepancy> discrepancies = new ConcurrentSkipListSet<>();
+
+    /**
+     * Creates an empty structure.
+     */
+    OrganizationStructure() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty structure with room for the specified number of employees.
+     *
+     * @param expectedSize the expected number of employees
+     */
+    OrganizationStructure(int expectedSize) {
+        nodes = new LongObjectHashMap<>(expectedSize);
+    }
+
+    /**
+     * Creates a structure from nodes that are already linked to their managers.
+     *
+     * @param linkedNodes the nodes of all employees
+     * @param root        the node recorded as the root, may be {@code null}; {@link #getRoot()} still picks the lowest ID
+     * @return the structure containing the nodes
+     */
+    static OrganizationStructure ofLinkedNodes(EmployeeStructureNode[] linkedNodes, EmployeeStructureNode root) {
+        OrganizationStructure structure = new OrganizationStructure(linkedNodes.length);
+        if (root != null) {
+            structure.roots.add(root);
+        }
+        for (EmployeeStructureNode node : linkedNodes) {
+            structure.nodes.put(node.getEmployee().getId(), node);
+        }
+        for (EmployeeStructureNode node : linkedNodes) {
+            if (node.getManager() == null) {
+                structure.attach(node, node.getEmployee().getManagerId());
+            }
+            structure.refreshDiscrepancy(node);
+        }
+        return structure;
+    }
+
+    /**
+     * Adds the specified employees to an empty structure in two phases: first a node is allocated for every employee,
+     * then every node is linked to its manager. The managers are resolved in parallel, since the map of nodes is only
+     * read in that phase; the links are added sequentially in ascending ID order, so every subordinate is appended to
+     * the subordinates of its manager. The discrepancies are indexed once at the end.
+     *
+     * @param employees the employees to add, with distinct IDs
+     * @throws IllegalStateException if the structure is not empty
+     */
+    void build(Collection<Employee> employees) {
+        if (!nodes.isEmpty()) {
+            throw new IllegalStateException("Structure is not empty");
+        }
+        Employee[] rows = employees.toArray(new Employee[0]);
+        EmployeeStructureNode[] rowNodes = new EmployeeStructureNode[rows.length];
+        Arrays.parallelSetAll(rowNodes, row -> new EmployeeStructureNode(rows[row]));
+        for (EmployeeStructureNode node : rowNodes) {
+            nodes.put(node.getEmployee().getId(), node);
+        }
+
+        EmployeeStructureNode[] managers = new EmployeeStructureNode[rows.length];
+        Arrays.parallelSetAll(managers, row -> rows[row].getManagerId() == null ? null : nodes.get(rows[row].getManagerId()));
+        for (int row : linkOrder(rows)) {
+            EmployeeStructureNode node = rowNodes[row];
+            if (managers[row] != null) {
+                node.setManager(managers[row]);
+                managers[row].addSubordinate(node);
+            } else {
+                attach(node, rows[row].getManagerId());
+            }
+        }
+
+        ManagerDiscrepancy[] managerDiscrepancies = Arrays.stream(rowNodes).parallel()
+                .map(OrganizationStructure::discrepancyOf)
+                .filter(Objects::nonNull)
+                .toArray(ManagerDiscrepancy[]::new);
+        Arrays.parallelSort(managerDiscrepancies);
+        for (ManagerDiscrepancy managerDiscrepancy : managerDiscrepancies) {
+            discrepancies.add(managerDiscrepancy);
+            discrepancyByManager.put(managerDiscrepancy.managerId, managerDiscrepancy);
+        }
+    }
+
+    /**
+     * Returns the rows in ascending ID order. Rows read from the cache are in that order already.
+     */
+    private static int[] linkOrder(Employee[] rows) {
+        long[] ids = new long[rows.length];
+        boolean ascending = true;
+        for (int row = 0; row < rows.length; row++) {
+            ids[row] = rows[row].getId();
+            ascending &= row == 0 || ids[row - 1] < ids[row];
+        }
+        if (!ascending) {
+            return LongSorting.sortedIndices(ids);
+        }
+        int[] order = new int[rows.length];
+        Arrays.setAll(order, row -> row);
+        return order;
+    }
+
+    /**
+     * Returns the root of the structure, the employee without a manager. If there are several employees without a
+     * manager, the one with the lowest ID is the root, whatever order they were added in.
+     *
+     * @return the root node, or {@code null} if there is no employee without a manager
+     */
+    EmployeeStructureNode getRoot() {
+        EmployeeStructureNode root = null;
+        for (EmployeeStructureNode node : roots) {
+            if (root == null || node.getEmployee().getId() < root.getEmployee().getId()) {
+                root = node;
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Copies the tree reachable from the root. The copy shares the employees, but none of the nodes, so it is not
+     * affected by later updates of the structure.
+     *
+     * @return the root of the copy, or {@code null} if there is no root
+     */
+    EmployeeStructureNode copyTree() {
+        EmployeeStructureNode root = getRoot();
+        if (root == null) {
+            return null;
+        }
+
+        EmployeeStructureNode rootCopy = new EmployeeStructureNode(root.getEmployee());
+        List<EmployeeStructureNode> originals = new ArrayList<>();
+        List<EmployeeStructureNode> copies = new ArrayList<>();
+        originals.add(root);
+        copies.add(rootCopy);
+        while (!originals.isEmpty()) {
+            EmployeeStructureNode original = originals.remove(originals.size() - 1);
+            EmployeeStructureNode copy = copies.remove(copies.size() - 1);
+            for (EmployeeStructureNode subordinate : original.getSubordinates()) {
+                EmployeeStructureNode subordinateCopy = new EmployeeStructureNode(subordinate.getEmployee());
+                subordinateCopy.setManager(copy);
+                copy.addSubordinate(subordinateCopy);
+                originals.add(subordinate);
+                copies.add(subordinateCopy);
+            }
+        }
+        return rootCopy;
+    }
+
+    /**
+     * Adds the employee to the structure or updates it. The node of an existing employee is kept, so its subtree
+     * stays in place; it is only moved if the manager has changed.
+     *
+     * @param employee the employee to add or update
+     */
+    void save(Employee employee) {
+        EmployeeStructureNode node = nodes.get(employee.getId());
+        if (node == null) {
+            node = new EmployeeStructureNode(employee);
+            nodes.put(employee.getId(), node);
+            attach(node, employee.getManagerId());
+
+            List<EmployeeStructureNode> subordinates = waitingForManager.remove(employee.getId());
+            if (subordinates != null) {
+                for (EmployeeStructureNode subordinate : subordinates) {
+                    subordinate.setManager(node);
+                    node.addSubordinate(subordinate);
+                }
+            }
+            refreshDiscrepancy(node.getManager());
+            refreshDiscrepancy(node);
+            return;
+        }
+
+        EmployeeStructureNode previousManager = node.getManager();
+        Long previousManagerId = node.getEmployee().getManagerId();
+        node.setEmployee(employee);
+        if (!Objects.equals(previousManagerId, employee.getManagerId())) {
+            detach(node, previousManagerId);
+            attach(node, employee.getManagerId());
+        }
+        refreshDiscrepancy(previousManager);
+        refreshDiscrepancy(node.getManager());
+        refreshDiscrepancy(node);
+    }
+
+    /**
+     * Removes the employee with the specified ID from the structure. Its direct subordinates keep their subtrees and
+     * wait for an employee with the same ID to be saved again.
+     *
+     * @param employeeId the ID of the employee to remove
+     * @return the removed employee, or {@code null} if the employee is not part of the structure
+     */
+    Employee remove(Long employeeId) {
+        EmployeeStructureNode node = nodes.remove(employeeId);
+        if (node == null) {
+            return null;
+        }
+        EmployeeStructureNode previousManager = node.getManager();
+        detach(node, node.getEmployee().getManagerId());
+        refreshDiscrepancy(previousManager);
+
+        List<EmployeeStructureNode> subordinates = node.getSubordinates();
+        if (!subordinates.isEmpty()) {
+            List<EmployeeStructureNode> waiting = new ArrayList<>(subordinates);
+            //the last subordinate is removed without moving the others
+            for (int i = waiting.size() - 1; i >= 0; i--) {
+                node.removeSubordinate(waiting.get(i));
+                waiting.get(i).setManager(null);
+            }
+            waitingForManager.put(employeeId, waiting);
+        }
+        ManagerDiscrepancy managerDiscrepancy = discrepancyByManager.remove(employeeId);
+        if (managerDiscrepancy != null) {
+            discrepancies.remove(managerDiscrepancy);
+        }
+        return node.getEmployee();
+    }
+
+    /**
+     * Checks that the structure is a single hierarchy after the employees with the specified IDs were changed, assuming
+     * it was one before. The employees without a manager and the employees waiting for a missing manager are kept up
+     * to date by every update, so only the report lines of the changed employees are walked up to find new cycles;
+     * report lines already walked are not walked again. The subordinates left by a removed manager wait for it and are
+     * reported as orphans. Only if a problem is found, the subtrees of the orphans and cycles are visited to count the
+     * unreachable employees.
+     *
+     * @param changedIds the IDs of the saved and removed employees
+     * @return the diagnostics of the structure
+     */
+    OrganizationDiagnostics diagnose(Collection<Long> changedIds) {
+        Map<EmployeeStructureNode, Boolean> walked = new IdentityHashMap<>();
+        List<List<Employee>> cycles = new ArrayList<>();
+        List<EmployeeStructureNode> cycleNodes = new ArrayList<>();
+        for (Long id : changedIds) {
+            EmployeeStructureNode node = nodes.get(id);
+            //the index of every node of the report line walked from the changed employee
+            Map<EmployeeStructureNode, Integer> line = new IdentityHashMap<>();
+            List<EmployeeStructureNode> path = new ArrayList<>();
+            while (node != null && !walked.containsKey(node) && !line.containsKey(node)) {
+                line.put(node, path.size());
+                path.add(node);
+                node = node.getManager();
+            }
+            if (node != null && line.containsKey(node)) {
+                List<Employee> cycle = new ArrayList<>();
+                for (EmployeeStructureNode cycleNode : path.subList(line.get(node), path.size())) {
+                    cycle.add(cycleNode.getEmployee());
+                    cycleNodes.add(cycleNode);
+                }
+                cycles.add(cycle);
+            }
+            path.forEach(pathNode -> walked.put(pathNode, Boolean.TRUE));
+        }
+
+        List<Employee> rootEmployees = new ArrayList<>();
+        roots.forEach(root -> rootEmployees.add(root.getEmployee()));
+        rootEmployees.sort(Comparator.comparing(Employee::getId));
+        List<EmployeeStructureNode> orphanNodes = new ArrayList<>();
+        waitingForManager.forEachValue(orphanNodes::addAll);
+        List<Employee> orphans = new ArrayList<>();
+        orphanNodes.forEach(orphan -> orphans.add(orphan.getEmployee()));
+        orphans.sort(Comparator.comparing(Employee::getId));
+
+        int unreachableCount = 0;
+        if (!cycles.isEmpty() || !orphans.isEmpty()) {
+            Map<EmployeeStructureNode, Boolean> unreachable = new IdentityHashMap<>();
+            Deque<EmployeeStructureNode> stack = new ArrayDeque<>(orphanNodes);
+            stack.addAll(cycleNodes);
+            while (!stack.isEmpty()) {
+                EmployeeStructureNode node = stack.pop();
+                if (unreachable.put(node, Boolean.TRUE) == null) {
+                    node.getSubordinates().forEach(stack::push);
+                }
+            }
+            unreachableCount = unreachable.size();
+        }
+        return new OrganizationDiagnostics(nodes.size(), List.of(), rootEmployees, orphans, cycles, unreachableCount);
+    }
+
+    /**
+     * Returns the current salary discrepancy of the manager with the specified ID.
+     *
+     * @param managerId the ID of the manager
+     * @return the salary discrepancy, or {@code null} if the employee does not exist, has no subordinates or
+     * has a salary of zero
+     */
+    Double getSalaryDiscrepancy(Long managerId) {
+        ManagerDiscrepancy managerDiscrepancy = managerId == null ? null : discrepancyByManager.get(managerId);
+        return managerDiscrepancy == null ? null : SalaryDiscrepancyCalculator.toDouble(managerDiscrepancy.discrepancy);
+    }
+
+    /**
+     * Retrieves the managers whose salary discrepancy exceeds the specified threshold, without visiting the other
+     * managers.
+     *
+     * @param threshold the salary discrepancy threshold
+     * @param checkLess if true, returns discrepancies less than the threshold, if false, only greater ones
+     * @return a map associating managers with their salary discrepancies
+     */
+    Map<Employee, Double> getSalaryDiscrepancies(double threshold, boolean checkLess) {
+        //probes with extreme IDs exclude every manager with a discrepancy equal to the bound
+        Set<ManagerDiscrepancy> violations = checkLess
+                ? discrepancies.headSet(new ManagerDiscrepancy(SalaryDiscrepancyCalculator.lowerBound(threshold), Long.MIN_VALUE, null), false)
+                : discrepancies.tailSet(new ManagerDiscrepancy(SalaryDiscrepancyCalculator.upperBound(threshold), Long.MAX_VALUE, null), false);
+
+        //the size of a range of the skip list is counted by walking it, so the map grows instead
+        Map<Employee, Double> salaryDiscrepancies = new HashMap<>();
+        for (ManagerDiscrepancy violation : violations) {
+            salaryDiscrepancies.put(violation.manager.getEmployee(), SalaryDiscrepancyCalculator.toDouble(violation.discrepancy));
+        }
+        return salaryDiscrepancies;
+    }
+
+    /**
+     * Recomputes the salary discrepancy of the node from its running salary sum and moves it in the ordered set.
+     * The new discrepancy replaces the previous one in a single step and is added to the set before the previous one
+     * is removed, so concurrent lookups never miss a manager that still has a discrepancy.
+     */
+    private void refreshDiscrepancy(EmployeeStructureNode node) {
+        if (node == null) {
+            return;
+        }
+        long id = node.getEmployee().getId();
+        ManagerDiscrepancy managerDiscrepancy = discrepancyOf(node);
+        ManagerDiscrepancy previous;
+        if (managerDiscrepancy != null) {
+            previous = discrepancyByManager.put(id, managerDiscrepancy);
+            discrepancies.add(managerDiscrepancy);
+        } else {
+            previous = discrepancyByManager.remove(id);
+        }
+        //an equal entry of the same manager was not replaced by the add, so it stays
+        if (previous != null && (managerDiscrepancy == null || previous.compareTo(managerDiscrepancy) != 0)) {
+            discrepancies.remove(previous);
+        }
+    }
+
+    /**
+     * Returns the salary discrepancy of the node derived from its running salary sum, or {@code null} if the node has
+     * no subordinates or a salary of zero.
+     */
+    private static ManagerDiscrepancy discrepancyOf(EmployeeStructureNode node) {
+        Employee employee = node.getEmployee();
+        int subordinatesCount = node.getSubordinates().size();
+        if (subordinatesCount == 0 || employee.getSalary() == 0) {
+            return null;
+        }
+        long discrepancy = SalaryDiscrepancyCalculator.calculate(node.getSubordinatesSalary() / subordinatesCount,
+                employee.getSalary());
+        return new ManagerDiscrepancy(discrepancy, employee.getId(), node);
+    }
+
+    private void attach(EmployeeStructureNode node, Long managerId) {
+        if (managerId == null) {
+            roots.add(node);
+            return;
+        }
+        EmployeeStructureNode manager = nodes.get(managerId);
+        if (manager != null) {
+            node.setManager(manager);
+            manager.addSubordinate(node);
+        } else {
+            waitingForManager.computeIfAbsent(managerId, id -> new ArrayList<>()).add(node);
+        }
+    }
+
+    private void detach(EmployeeStructureNode node, Long managerId) {
+        EmployeeStructureNode manager = node.getManager();
+        if (manager != null) {
+            manager.removeSubordinate(node);
+            node.setManager(null);
+        } else if (managerId == null) {
+            roots.remove(node);
+        } else {
+            List<EmployeeStructureNode> waiting = waitingForManager.get(managerId);
+            if (waiting != null) {
+                waiting.remove(node);
+                if (waiting.isEmpty()) {
+                    waitingForManager.remove(managerId);
+                }
+            }
+        }
+    }
+
+    /**
+     * The salary discrepancy of a manager, ordered by discrepancy and then by ID.
+     */
+    private static final class ManagerDiscrepancy implements Comparable<ManagerDiscrepancy> {
+
+        final long discrepancy;
+        final long managerId;
+        final EmployeeStructureNode manager;
+
+        ManagerDiscrepancy(long discrepancy, long managerId, EmployeeStructureNode manager) {
+            this.discrepancy = discrepancy;
+            this.managerId = managerId;
+            this.manager = manager;
+        }
+
+        @Override
+        public int compareTo(ManagerDiscrepancy other) {
+            int result = Long.compare(discrepancy, other.discrepancy);
+            return result != 0 ? result : Long.compare(managerId, other.managerId);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.dto.OrganizationUnitIndex;
+import com.company.service.OrganizationUnitService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implementation of the OrganizationUnitService interface on top of the pre-order subtree index.
+ * <p>
+ * A unit is the contiguous range of positions headed by its manager, so aggregates are answered from prefix sums in
+ * constant time and reports visit only the employees of the unit, never the rest of the organization.
+ */
+public class OrganizationUnitServiceImpl implements OrganizationUnitService {
+
+    /**
+     * Returns the number of employees in the unit in constant time, after looking up the manager.
+     *
+     * @param index     the subtree index of the organization
+     * @param managerId the ID of the head of the unit
+     * @return the headcount of the unit, or {@code 0} if the manager is not part of the organization
+     */
+    @Override
+    public int getHeadcount(OrganizationUnitIndex index, long managerId) {
+        int position = index.getPosition(managerId);
+        return position == OrganizationUnitIndex.NOT_FOUND ? 0 : index.getSubtreeEnd(position) - position;
+    }
+
+    /**
+     * Returns the payroll of the unit in constant time from the salary prefix sums, after looking up the manager.
+     *
+     * @param index     the subtree index of the organization
+     * @param managerId the ID of the head of the unit
+     * @return the payroll of the unit, or {@code 0} if the manager is not part of the organization
+     */
+    @Override
+    public double getTotalSalary(OrganizationUnitIndex index, long managerId) {
+        int position = index.getPosition(managerId);
+        return position == OrganizationUnitIndex.NOT_FOUND ? 0 : index.getSalarySum(position, index.getSubtreeEnd(position));
+    }
+
+    /**
+     * Returns whether the employee belongs to the unit with an interval test, after looking up both employees.
+     *
+     * @param index      the subtree index of the organization
+     * @param managerId  the ID of the head of the unit
+     * @param employeeId the ID of the employee
+     * @return {@code true} if the employee belongs to the unit, {@code false} otherwise or if either is unknown
+     */
+    @Override
+    public boolean isInUnit(OrganizationUnitIndex index, long managerId, long employeeId) {
+        int manager = index.getPosition(managerId);
+        int employee = index.getPosition(employeeId);
+        return manager != OrganizationUnitIndex.NOT_FOUND && employee != OrganizationUnitIndex.NOT_FOUND
+                && index.isAncestor(manager, employee);
+    }
+
+    /**
+     * Retrieves the managers of the unit whose salary discrepancy exceeds the specified threshold.
+     * The direct subordinates of every employee are found by jumping over their subtrees, so every employee of the unit
+     * is visited once as a manager and once as a subordinate.
+     *
+     * @param index     the subtree index of the organization
+     * @param managerId the ID of the head of the unit
+     * @param threshold the salary discrepancy threshold
+     * @param checkLess if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @return a map associating managers of the unit with their salary discrepancies
+     */
+    @Override
+    public Map<Employee, Double> getSalaryDiscrepancies(OrganizationUnitIndex index, long managerId, double threshold,
+                                                        boolean checkLess) {
+        Map<Employee, Double> salaryDiscrepancies = new HashMap<>();
+        int head = index.getPosition(managerId);
+        if (head == OrganizationUnitIndex.NOT_FOUND) {
+            return salaryDiscrepancies;
+        }
+        long lowerBound = SalaryDiscrepancyCalculator.lowerBound(threshold);
+        long upperBound = SalaryDiscrepancyCalculator.upperBound(threshold);
+        for (int position = head; position < index.getSubtreeEnd(head); position++) {
+            int end = index.getSubtreeEnd(position);
+            if (end == position + 1) {
+                continue;
+            }
+
+            double subordinatesSalary = 0;
+            int subordinatesCount = 0;
+            for (int subordinate = position + 1; subordinate < end; subordinate = index.getSubtreeEnd(subordinate)) {
+                subordinatesSalary += index.getSalary(subordinate);
+                subordinatesCount++;
+            }
+            long discrepancy = SalaryDiscrepancyCalculator.calculate(subordinatesSalary / subordinatesCount, index.getSalary(position));
+            if (checkLess && discrepancy < lowerBound) {
+                salaryDiscrepancies.put(index.getEmployee(position), SalaryDiscrepancyCalculator.toDouble(discrepancy));
+            } else if (!checkLess && discrepancy > upperBound) {
+                salaryDiscrepancies.put(index.getEmployee(position), SalaryDiscrepancyCalculator.toDouble(discrepancy));
+            }
+        }
+        return salaryDiscrepancies;
+    }
+
+    /**
+     * Retrieves the employees of the unit whose report line is longer than the specified maximum depth.
+     * Only the employees of the unit are visited.
+     *
+     * @param index     the subtree index of the organization
+     * @param managerId the ID of the head of the unit
+     * @param maxDepth  the maximum depth of hierarchy
+     * @return a map associating employees of the unit with the length of their report line
+     */
+    @Override
+    public Map<Employee, Integer> getEmployeesReportLineLength(OrganizationUnitIndex index, long managerId, int maxDepth) {
+        Map<Employee, Integer> employeesReportLineLength = new HashMap<>();
+        int head = index.getPosition(managerId);
+        if (head == OrganizationUnitIndex.NOT_FOUND || maxDepth <= 0) {
+            return employeesReportLineLength;
+        }
+        for (int position = head; position < index.getSubtreeEnd(head); position++) {
+            if (index.getDepth(position) > maxDepth) {
+                employeesReportLineLength.put(index.getEmployee(position), index.getDepth(position));
+            }
+        }
+        return employeesReportLineLength;
+    }
+}
@@ -0,0 +1,121 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.dto.OrganizationDiagnostics;
+import com.company.service.OrganizationValidationService;
+import com.company.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation of the OrganizationValidationService interface that checks the employees in linear time.
+ * <p>
+ * Every employee has at most one manager, so following the manager IDs from any employee either reaches an employee
+ * without a manager, reaches an employee whose manager does not exist, or runs into a cycle. The report lines are
+ * followed iteratively with three colors: unvisited, on the current path and done. Every finished employee remembers
+ * where its report line ends, so no employee is visited twice and deep hierarchies do not overflow the stack.
+ */
+public class OrganizationValidationServiceImpl implements OrganizationValidationService {
+
+    //manager indices of employees whose report line ends here
+    private static final int NO_MANAGER = -1;
+    private static final int MISSING_MANAGER = -2;
+
+    //colors of the walk
+    private static final byte UNVISITED = 0;
+    private static final byte ON_PATH = 1;
+    private static final byte DONE = 2;
+
+    /**
+     * Detects duplicate IDs, employees without a manager, employees with a missing manager and cycles of report lines.
+     *
+     * @param employees the employees to check, in source order; of employees sharing an ID the last one is checked
+     * @return the diagnostics of the employees
+     */
+    @Override
+    public OrganizationDiagnostics validate(Collection<Employee> employees) {
+        LongIntHashMap indexById = new LongIntHashMap(employees.size(), MISSING_MANAGER);
+        List<Employee> distinctEmployees = new ArrayList<>(employees.size());
+        Set<Long> duplicateIds = new LinkedHashSet<>();
+        for (Employee employee : employees) {
+            if (employee == null || employee.getId() == null) {
+                continue;
+            }
+            int index = indexById.putIfAbsent(employee.getId(), distinctEmployees.size());
+            if (index == MISSING_MANAGER) {
+                distinctEmployees.add(employee);
+            } else {
+                //the cache keeps the last employee saved with an ID
+                duplicateIds.add(employee.getId());
+                distinctEmployees.set(index, employee);
+            }
+        }
+
+        int count = distinctEmployees.size();
+        List<Employee> roots = new ArrayList<>();
+        List<Employee> orphans = new ArrayList<>();
+        int[] managers = new int[count];
+        for (int i = 0; i < count; i++) {
+            Employee employee = distinctEmployees.get(i);
+            managers[i] = employee.getManagerId() == null ? NO_MANAGER : indexById.get(employee.getManagerId());
+            if (managers[i] == NO_MANAGER) {
+                roots.add(employee);
+            } else if (managers[i] == MISSING_MANAGER) {
+                orphans.add(employee);
+            }
+        }
+
+        List<List<Employee>> cycles = new ArrayList<>();
+        int unreachableCount = 0;
+        byte[] colors = new byte[count];
+        boolean[] reachesRoot = new boolean[count];
+        int[] path = new int[count];
+        int[] positionInPath = new int[count];
+        for (int start = 0; start < count; start++) {
+            if (colors[start] != UNVISITED) {
+                continue;
+            }
+
+            //follow the report line until it ends or meets an employee visited before
+            int length = 0;
+            int employee = start;
+            int last = start;
+            while (employee >= 0 && colors[employee] == UNVISITED) {
+                colors[employee] = ON_PATH;
+                positionInPath[employee] = length;
+                path[length++] = employee;
+                last = employee;
+                employee = managers[employee];
+            }
+
+            boolean pathReachesRoot;
+            if (employee >= 0 && colors[employee] == ON_PATH) {
+                //the report line came back to an employee of the current path
+                List<Employee> cycle = new ArrayList<>(length - positionInPath[employee]);
+                for (int i = positionInPath[employee]; i < length; i++) {
+                    cycle.add(distinctEmployees.get(path[i]));
+                }
+                cycles.add(cycle);
+                pathReachesRoot = false;
+            } else if (employee >= 0) {
+                pathReachesRoot = reachesRoot[employee];
+            } else {
+                pathReachesRoot = managers[last] == NO_MANAGER;
+            }
+
+            for (int i = 0; i < length; i++) {
+                colors[path[i]] = DONE;
+                reachesRoot[path[i]] = pathReachesRoot;
+            }
+            if (!pathReachesRoot) {
+                unreachableCount += length;
+            }
+        }
+
+        return new OrganizationDiagnostics(count, new ArrayList<>(duplicateIds), roots, orphans, cycles, unreachableCount);
+    }
+}
@@ -0,0 +1,138 @@
+package com.company.service.impl;
+
+import com.company.dto.EmployeeStructureNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the ReportService interface that evaluates the reports on the employee structure tree in parallel.
+ * <p>
+ * The checks of every employee depend only on the employee and its direct subordinates, so disjoint subtrees are
+ * evaluated independently as {@link RecursiveTask}s on a {@link ForkJoinPool}. Every task collects its results into
+ * its own maps, which are merged once all tasks have completed, so the tasks share no mutable state. The results are
+ * equal to the results of {@link ReportServiceImpl}. A pool with the parallelism of one evaluates the reports
+ * sequentially.
+ * <p>
+ * The reports on the compact structure are inherited unchanged.
+ */
+public class ParallelReportServiceImpl extends ReportServiceImpl {
+
+    /**
+     * The default number of nodes a task visits before it may hand over part of its pending subtrees.
+     */
+    static final int DEFAULT_SPLIT_THRESHOLD = 8192;
+
+    //splitting stops while the pool already has enough queued work, as in the parallel streams
+    private static final int MAX_SURPLUS_QUEUED_TASKS = 3;
+
+    private final ForkJoinPool pool;
+    private final int splitThreshold;
+
+    /**
+     * Constructs a new {@code ParallelReportServiceImpl} that runs in the common pool.
+     */
+    public ParallelReportServiceImpl() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@code ParallelReportServiceImpl} that runs in the specified pool.
+     *
+     * @param pool the pool to evaluate the reports in
+     */
+    public ParallelReportServiceImpl(ForkJoinPool pool) {
+        this(pool, DEFAULT_SPLIT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a new {@code ParallelReportServiceImpl} that runs in the specified pool.
+     *
+     * @param pool           the pool to evaluate the reports in
+     * @param splitThreshold the number of nodes a task visits before it may hand over part of its pending subtrees
+     */
+    ParallelReportServiceImpl(ForkJoinPool pool, int splitThreshold) {
+        this.pool = pool;
+        this.splitThreshold = Math.max(1, splitThreshold);
+    }
+
+    /**
+     * Visits the given employee structure node and all its subordinates with fork/join tasks.
+     * The sizes of the subtrees are not known in advance, so every task traverses its part of the structure with its
+     * own stack and, after visiting at least the split threshold of nodes, forks the bottom half of its pending
+     * subtrees as a new task.
+     */
+    @Override
+    <R> R traverse(EmployeeStructureNode employeeHierarchy, Supplier<R> resultFactory, BinaryOperator<R> merger,
+                   NodeVisitor<R> visitor) {
+        if (pool.getParallelism() == 1) {
+            return super.traverse(employeeHierarchy, resultFactory, merger, visitor);
+        }
+        TraversalStack stack = new TraversalStack();
+        stack.push(employeeHierarchy, 1);
+        List<R> results = pool.invoke(new SubtreeTask<>(stack, resultFactory, visitor, splitThreshold));
+
+        //the results are merged once at the end, merging at every join would copy the same entries repeatedly
+        R result = results.get(0);
+        for (int i = 1; i < results.size(); i++) {
+            result = merger.apply(result, results.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Visits the subtrees pending on its stack and collects their checks into a result of its own.
+     * Returns its own result first, followed by the results of the tasks it forked.
+     */
+    private static final class SubtreeTask<R> extends RecursiveTask<List<R>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TraversalStack stack;
+        private final Supplier<R> resultFactory;
+        private final NodeVisitor<R> visitor;
+        private final int splitThreshold;
+
+        SubtreeTask(TraversalStack stack, Supplier<R> resultFactory, NodeVisitor<R> visitor, int splitThreshold) {
+            this.stack = stack;
+            this.resultFactory = resultFactory;
+            this.visitor = visitor;
+            this.splitThreshold = splitThreshold;
+        }
+
+        @Override
+        protected List<R> compute() {
+            R result = resultFactory.get();
+            List<SubtreeTask<R>> forkedTasks = new ArrayList<>();
+            int visited = 0;
+
+            while (!stack.isEmpty()) {
+                if (visited >= splitThreshold && stack.size() > 1
+                        && getSurplusQueuedTaskCount() <= MAX_SURPLUS_QUEUED_TASKS) {
+                    SubtreeTask<R> task = new SubtreeTask<>(stack.splitBottomHalf(), resultFactory, visitor, splitThreshold);
+                    task.fork();
+                    forkedTasks.add(task);
+                    visited = 0;
+                }
+
+                EmployeeStructureNode employeeStructureNode = stack.pop();
+                int depth = stack.poppedDepth();
+                visitor.visit(employeeStructureNode, depth, result);
+                stack.pushSubordinates(employeeStructureNode, depth + 1);
+                visited++;
+            }
+
+            List<R> results = new ArrayList<>();
+            results.add(result);
+            //the last forked task is the most likely to be still in the local queue
+            for (int i = forkedTasks.size() - 1; i >= 0; i--) {
+                results.addAll(forkedTasks.get(i).join());
+            }
+            return results;
+        }
+    }
+}
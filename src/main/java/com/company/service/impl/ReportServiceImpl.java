@@ -1,14 +1,25 @@
 package com.company.service.impl;
 
+import com.company.dto.CompactOrganizationStructure;
 import com.company.dto.Employee;
 import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationReport;
+import com.company.dto.ReportOrder;
+import com.company.service.ReportLineLengthConsumer;
 import com.company.service.ReportService;
+import com.company.service.ReportSink;
+import com.company.service.SalaryDiscrepancyConsumer;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
 
 /**
  * Implementation of the ReportService interface providing methods to generate reports on salary discrepancies
@@ -26,40 +37,38 @@ public class ReportServiceImpl implements ReportService {
      */
     @Override
     public Map<Employee, Double> getSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold, boolean checkLess) {
-        Map<Employee, Double> salaryDiscrepancies = new HashMap<>();
-        findDiscrepancies(employeeHierarchy, threshold, checkLess, salaryDiscrepancies);
-        return salaryDiscrepancies;
+        if (employeeHierarchy == null) {
+            return new HashMap<>();
+        }
+        long lowerBound = SalaryDiscrepancyCalculator.lowerBound(threshold);
+        long upperBound = SalaryDiscrepancyCalculator.upperBound(threshold);
+        return this.<Map<Employee, Double>>traverse(employeeHierarchy, HashMap::new, ReportServiceImpl::mergeMaps,
+                (employeeStructureNode, depth, salaryDiscrepancies) ->
+                        findDiscrepancy(employeeStructureNode, lowerBound, upperBound, checkLess, salaryDiscrepancies));
     }
 
     /**
-     * Recursively finds salary discrepancies for the given employee structure node and its subordinates.
+     * Checks the salary discrepancy of the given employee structure node against its direct subordinates.
      *
-     * @param employeeStructureNode the current employee structure node
-     * @param threshold             the salary discrepancy threshold
+     * @param employeeStructureNode the employee structure node to check
+     * @param lowerBound            the scaled lower bound of the salary discrepancy
+     * @param upperBound            the scaled upper bound of the salary discrepancy
      * @param checkLess             if true, checks discrepancies less than the threshold, if false, only greater ones
      * @param salaryDiscrepancies   the map to store the found salary discrepancies
      */
-    private void findDiscrepancies(EmployeeStructureNode employeeStructureNode, double threshold, boolean checkLess, Map<Employee, Double> salaryDiscrepancies) {
-
+    private void findDiscrepancy(EmployeeStructureNode employeeStructureNode, long lowerBound, long upperBound,
+                                 boolean checkLess, Map<Employee, Double> salaryDiscrepancies) {
         List<EmployeeStructureNode> subordinates = employeeStructureNode.getSubordinates();
-
-        if (!subordinates.isEmpty()) {
-            double subordinatesAverageSalary = subordinates.stream()
-                    .mapToDouble(node -> node.getEmployee().getSalary())
-                    .average()
-                    .orElse(0.0);
-            double managerSalary = employeeStructureNode.getEmployee().getSalary();
-
-            BigDecimal discrepancy = BigDecimal.ONE.subtract(BigDecimal.valueOf(subordinatesAverageSalary).divide(BigDecimal.valueOf(managerSalary), 10, RoundingMode.HALF_UP));
-            if (checkLess && discrepancy.compareTo(BigDecimal.valueOf(threshold)) < 0) {
-                salaryDiscrepancies.put(employeeStructureNode.getEmployee(), discrepancy.doubleValue());
-            } else if (!checkLess && discrepancy.compareTo(BigDecimal.valueOf(threshold)) > 0) {
-                salaryDiscrepancies.put(employeeStructureNode.getEmployee(), discrepancy.doubleValue());
-            }
+        if (subordinates.isEmpty()) {
+            return;
         }
 
-        for (EmployeeStructureNode subordinate : employeeStructureNode.getSubordinates()) {
-            findDiscrepancies(subordinate, threshold, checkLess, salaryDiscrepancies);
+        double managerSalary = employeeStructureNode.getEmployee().getSalary();
+        long discrepancy = SalaryDiscrepancyCalculator.calculate(getSubordinatesAverageSalary(subordinates), managerSalary);
+        if (checkLess && discrepancy < lowerBound) {
+            salaryDiscrepancies.put(employeeStructureNode.getEmployee(), SalaryDiscrepancyCalculator.toDouble(discrepancy));
+        } else if (!checkLess && discrepancy > upperBound) {
+            salaryDiscrepancies.put(employeeStructureNode.getEmployee(), SalaryDiscrepancyCalculator.toDouble(discrepancy));
         }
     }
 
@@ -72,30 +81,675 @@ public class ReportServiceImpl implements ReportService {
      */
     @Override
     public Map<Employee, Integer> getEmployeesReportLineLength(EmployeeStructureNode employeeHierarchy, int maxDepth) {
-        Map<Employee, Integer> employeesReportLineLength = new HashMap<>();
-        if (employeeHierarchy != null && maxDepth > 0) {
-            checkLineLength(employeeHierarchy, 1, maxDepth, employeesReportLineLength);
+        if (employeeHierarchy == null || maxDepth <= 0) {
+            return new HashMap<>();
+        }
+        return this.<Map<Employee, Integer>>traverse(employeeHierarchy, HashMap::new, ReportServiceImpl::mergeMaps,
+                (employeeStructureNode, depth, employeesReportLineLength) -> {
+                    if (depth > maxDepth) {
+                        employeesReportLineLength.put(employeeStructureNode.getEmployee(), depth);
+                    }
+                });
+    }
+
+    /**
+     * Retrieves a map of employees and their salary discrepancies exceeding the specified threshold.
+     * Employees are scanned in index order; the subordinates of every employee are a contiguous range of indices.
+     *
+     * @param structure the compact structure of employees
+     * @param threshold the salary discrepancy threshold
+     * @param checkLess if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @return a map associating employees with their salary discrepancies
+     */
+    @Override
+    public Map<Employee, Double> getSalaryDiscrepancies(CompactOrganizationStructure structure, double threshold, boolean checkLess) {
+        Map<Employee, Double> salaryDiscrepancies = new HashMap<>();
+        long lowerBound = SalaryDiscrepancyCalculator.lowerBound(threshold);
+        long upperBound = SalaryDiscrepancyCalculator.upperBound(threshold);
+        for (int i = 0; i < structure.size(); i++) {
+            int start = structure.getSubordinatesStart(i);
+            int end = structure.getSubordinatesEnd(i);
+            if (start == end) {
+                continue;
+            }
+
+            long discrepancy = SalaryDiscrepancyCalculator.calculate(getSubordinatesAverageSalary(structure, i), structure.getSalary(i));
+            if (checkLess && discrepancy < lowerBound) {
+                salaryDiscrepancies.put(structure.getEmployee(i), SalaryDiscrepancyCalculator.toDouble(discrepancy));
+            } else if (!checkLess && discrepancy > upperBound) {
+                salaryDiscrepancies.put(structure.getEmployee(i), SalaryDiscrepancyCalculator.toDouble(discrepancy));
+            }
+        }
+        return salaryDiscrepancies;
+    }
+
+    /**
+     * Retrieves a map of employees and the length of report line for each employee in the structure.
+     * The employees deeper than {@code maxDepth} are a single index range of the depth index, so only the reported
+     * employees are visited.
+     *
+     * @param structure the compact structure of employees
+     * @param maxDepth  the maximum depth of hierarchy for which to retrieve the report
+     * @return a map associating employees with the length of their report line
+     */
+    @Override
+    public Map<Employee, Integer> getEmployeesReportLineLength(CompactOrganizationStructure structure, int maxDepth) {
+        if (maxDepth <= 0) {
+            return new HashMap<>();
+        }
+        int start = structure.getLevelStart(maxDepth + 1);
+        int end = structure.size();
+        Map<Employee, Integer> employeesReportLineLength = new HashMap<>(Math.max(16, (int) ((end - start) / 0.75f) + 1));
+        for (int i = start; i < end; i++) {
+            employeesReportLineLength.put(structure.getEmployee(i), structure.getDepth(i));
+        }
+        return employeesReportLineLength;
+    }
+
+    /**
+     * Computes all organization checks in a single traversal of the employee structure.
+     * Every node is visited once and the average salary of its subordinates is computed once for both thresholds.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param maxDiscrepancy    the upper salary discrepancy threshold
+     * @param minDiscrepancy    the lower salary discrepancy threshold
+     * @param maxDepth          the maximum depth of hierarchy
+     * @return the combined results of all checks
+     */
+    @Override
+    public OrganizationReport getOrganizationReport(EmployeeStructureNode employeeHierarchy, double maxDiscrepancy,
+                                                    double minDiscrepancy, int maxDepth) {
+        if (employeeHierarchy == null) {
+            return newReport();
+        }
+        long upperBound = SalaryDiscrepancyCalculator.upperBound(maxDiscrepancy);
+        long lowerBound = SalaryDiscrepancyCalculator.lowerBound(minDiscrepancy);
+        return traverse(employeeHierarchy, ReportServiceImpl::newReport, ReportServiceImpl::mergeReports,
+                (employeeStructureNode, depth, report) ->
+                        collectReport(employeeStructureNode, depth, upperBound, lowerBound, maxDepth, report));
+    }
+
+    /**
+     * Applies all organization checks to the given employee structure node.
+     *
+     * @param employeeStructureNode the employee structure node to check
+     * @param depth                 the length of the report line of the employee
+     * @param upperBound            the scaled upper bound of the salary discrepancy
+     * @param lowerBound            the scaled lower bound of the salary discrepancy
+     * @param maxDepth              the maximum depth of hierarchy
+     * @param report                the report to store the results of the checks
+     */
+    private void collectReport(EmployeeStructureNode employeeStructureNode, int depth, long upperBound, long lowerBound,
+                               int maxDepth, OrganizationReport report) {
+        List<EmployeeStructureNode> subordinates = employeeStructureNode.getSubordinates();
+        if (!subordinates.isEmpty()) {
+            long discrepancy = SalaryDiscrepancyCalculator.calculate(getSubordinatesAverageSalary(subordinates),
+                    employeeStructureNode.getEmployee().getSalary());
+            collectDiscrepancy(employeeStructureNode.getEmployee(), discrepancy, upperBound, lowerBound, report);
+        }
+        if (maxDepth > 0 && depth > maxDepth) {
+            report.getLongReportLines().put(employeeStructureNode.getEmployee(), depth);
+        }
+    }
+
+    /**
+     * Computes all organization checks in a single pass over the compact employee structure.
+     * Employees are scanned in breadth-first index order, their depths are read from the depth index.
+     *
+     * @param structure      the compact structure of employees
+     * @param maxDiscrepancy the upper salary discrepancy threshold
+     * @param minDiscrepancy the lower salary discrepancy threshold
+     * @param maxDepth       the maximum depth of hierarchy
+     * @return the combined results of all checks
+     */
+    @Override
+    public OrganizationReport getOrganizationReport(CompactOrganizationStructure structure, double maxDiscrepancy,
+                                                    double minDiscrepancy, int maxDepth) {
+        OrganizationReport report = newReport();
+        long upperBound = SalaryDiscrepancyCalculator.upperBound(maxDiscrepancy);
+        long lowerBound = SalaryDiscrepancyCalculator.lowerBound(minDiscrepancy);
+
+        for (int i = 0; i < structure.size(); i++) {
+            if (structure.getSubordinatesStart(i) < structure.getSubordinatesEnd(i)) {
+                long discrepancy = SalaryDiscrepancyCalculator.calculate(getSubordinatesAverageSalary(structure, i), structure.getSalary(i));
+                collectDiscrepancy(structure.getEmployee(i), discrepancy, upperBound, lowerBound, report);
+            }
+            if (maxDepth > 0 && structure.getDepth(i) > maxDepth) {
+                report.getLongReportLines().put(structure.getEmployee(i), structure.getDepth(i));
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Passes every manager whose salary discrepancy exceeds the specified threshold to the consumer as soon as it is
+     * found. The structure is always traversed from the calling thread, even by parallel implementations.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param threshold         the salary discrepancy threshold
+     * @param checkLess         if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @param consumer          receives the managers with their salary discrepancies
+     */
+    @Override
+    public void findSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold, boolean checkLess,
+                                        SalaryDiscrepancyConsumer consumer) {
+        if (employeeHierarchy == null) {
+            return;
+        }
+        long lowerBound = SalaryDiscrepancyCalculator.lowerBound(threshold);
+        long upperBound = SalaryDiscrepancyCalculator.upperBound(threshold);
+        traverseSequentially(employeeHierarchy, consumer, (employeeStructureNode, depth, salaryDiscrepancyConsumer) -> {
+            List<EmployeeStructureNode> subordinates = employeeStructureNode.getSubordinates();
+            if (subordinates.isEmpty()) {
+                return;
+            }
+            long discrepancy = SalaryDiscrepancyCalculator.calculate(getSubordinatesAverageSalary(subordinates),
+                    employeeStructureNode.getEmployee().getSalary());
+            if (checkLess ? discrepancy < lowerBound : discrepancy > upperBound) {
+                salaryDiscrepancyConsumer.accept(employeeStructureNode.getEmployee(), SalaryDiscrepancyCalculator.toDouble(discrepancy));
+            }
+        });
+    }
+
+    /**
+     * Passes every employee whose report line is longer than the specified maximum depth to the consumer as soon as
+     * it is found. The structure is always traversed from the calling thread, even by parallel implementations.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param maxDepth          the maximum depth of hierarchy
+     * @param consumer          receives the employees with the length of their report line
+     */
+    @Override
+    public void findLongReportLines(EmployeeStructureNode employeeHierarchy, int maxDepth, ReportLineLengthConsumer consumer) {
+        if (employeeHierarchy == null || maxDepth <= 0) {
+            return;
+        }
+        traverseSequentially(employeeHierarchy, consumer, (employeeStructureNode, depth, reportLineLengthConsumer) -> {
+            if (depth > maxDepth) {
+                reportLineLengthConsumer.accept(employeeStructureNode.getEmployee(), depth);
+            }
+        });
+    }
+
+    /**
+     * Passes the findings of all organization checks to the sink as soon as they are found, in a single traversal.
+     * The structure is always traversed from the calling thread, even by parallel implementations.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param maxDiscrepancy    the upper salary discrepancy threshold
+     * @param minDiscrepancy    the lower salary discrepancy threshold
+     * @param maxDepth          the maximum depth of hierarchy
+     * @param sink              receives the findings
+     */
+    @Override
+    public void visitOrganizationReport(EmployeeStructureNode employeeHierarchy, double maxDiscrepancy,
+                                        double minDiscrepancy, int maxDepth, ReportSink sink) {
+        if (employeeHierarchy == null) {
+            return;
+        }
+        long upperBound = SalaryDiscrepancyCalculator.upperBound(maxDiscrepancy);
+        long lowerBound = SalaryDiscrepancyCalculator.lowerBound(minDiscrepancy);
+        traverseSequentially(employeeHierarchy, sink, (employeeStructureNode, depth, reportSink) -> {
+            List<EmployeeStructureNode> subordinates = employeeStructureNode.getSubordinates();
+            if (!subordinates.isEmpty()) {
+                long discrepancy = SalaryDiscrepancyCalculator.calculate(getSubordinatesAverageSalary(subordinates),
+                        employeeStructureNode.getEmployee().getSalary());
+                emitDiscrepancy(employeeStructureNode.getEmployee(), discrepancy, upperBound, lowerBound, reportSink);
+            }
+            if (maxDepth > 0 && depth > maxDepth) {
+                reportSink.longReportLine(employeeStructureNode.getEmployee(), depth);
+            }
+        });
+    }
+
+    /**
+     * Passes every manager whose salary discrepancy exceeds the specified threshold to the consumer as soon as it is
+     * found, scanning the employees in index order.
+     *
+     * @param structure the compact structure of employees
+     * @param threshold the salary discrepancy threshold
+     * @param checkLess if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @param consumer  receives the managers with their salary discrepancies
+     */
+    @Override
+    public void findSalaryDiscrepancies(CompactOrganizationStructure structure, double threshold, boolean checkLess,
+                                        SalaryDiscrepancyConsumer consumer) {
+        long lowerBound = SalaryDiscrepancyCalculator.lowerBound(threshold);
+        long upperBound = SalaryDiscrepancyCalculator.upperBound(threshold);
+        for (int i = 0; i < structure.size(); i++) {
+            if (structure.getSubordinatesStart(i) == structure.getSubordinatesEnd(i)) {
+                continue;
+            }
+            long discrepancy = SalaryDiscrepancyCalculator.calculate(getSubordinatesAverageSalary(structure, i), structure.getSalary(i));
+            if (checkLess ? discrepancy < lowerBound : discrepancy > upperBound) {
+                consumer.accept(structure.getEmployee(i), SalaryDiscrepancyCalculator.toDouble(discrepancy));
+            }
+        }
+    }
+
+    /**
+     * Passes every employee whose report line is longer than the specified maximum depth to the consumer, visiting
+     * only the index range of the depth index that holds them.
+     *
+     * @param structure the compact structure of employees
+     * @param maxDepth  the maximum depth of hierarchy
+     * @param consumer  receives the employees with the length of their report line
+     */
+    @Override
+    public void findLongReportLines(CompactOrganizationStructure structure, int maxDepth, ReportLineLengthConsumer consumer) {
+        if (maxDepth <= 0) {
+            return;
+        }
+        for (int i = structure.getLevelStart(maxDepth + 1); i < structure.size(); i++) {
+            consumer.accept(structure.getEmployee(i), structure.getDepth(i));
+        }
+    }
+
+    /**
+     * Passes the findings of all organization checks to the sink as soon as they are found, in a single pass over the
+     * compact employee structure in index order.
+     *
+     * @param structure      the compact structure of employees
+     * @param maxDiscrepancy the upper salary discrepancy threshold
+     * @param minDiscrepancy the lower salary discrepancy threshold
+     * @param maxDepth       the maximum depth of hierarchy
+     * @param sink           receives the findings
+     */
+    @Override
+    public void visitOrganizationReport(CompactOrganizationStructure structure, double maxDiscrepancy,
+                                        double minDiscrepancy, int maxDepth, ReportSink sink) {
+        long upperBound = SalaryDiscrepancyCalculator.upperBound(maxDiscrepancy);
+        long lowerBound = SalaryDiscrepancyCalculator.lowerBound(minDiscrepancy);
+        for (int i = 0; i < structure.size(); i++) {
+            if (structure.getSubordinatesStart(i) < structure.getSubordinatesEnd(i)) {
+                long discrepancy = SalaryDiscrepancyCalculator.calculate(getSubordinatesAverageSalary(structure, i), structure.getSalary(i));
+                emitDiscrepancy(structure.getEmployee(i), discrepancy, upperBound, lowerBound, sink);
+            }
+            if (maxDepth > 0 && structure.getDepth(i) > maxDepth) {
+                sink.longReportLine(structure.getEmployee(i), structure.getDepth(i));
+            }
+        }
+    }
+
+    /**
+     * Retrieves the managers whose salary discrepancy exceeds the specified threshold, in the specified order.
+     * The findings are streamed in pre-order; other orders sort only the findings, never the whole structure.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param threshold         the salary discrepancy threshold
+     * @param checkLess         if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @param order             the order of the results
+     * @return a map associating employees with their salary discrepancies, iterated in the specified order
+     */
+    @Override
+    public Map<Employee, Double> getSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold,
+                                                        boolean checkLess, ReportOrder order) {
+        List<Finding> findings = new ArrayList<>();
+        findSalaryDiscrepancies(employeeHierarchy, threshold, checkLess,
+                (employee, discrepancy) -> findings.add(new Finding(employee, discrepancy)));
+        sort(findings, order, checkLess ? Finding.ASCENDING_SEVERITY : Finding.DESCENDING_SEVERITY);
+
+        Map<Employee, Double> salaryDiscrepancies = new LinkedHashMap<>(capacityFor(findings.size()));
+        for (Finding finding : findings) {
+            salaryDiscrepancies.put(finding.employee, finding.value);
+        }
+        return salaryDiscrepancies;
+    }
+
+    /**
+     * Retrieves the employees whose report line is longer than the specified maximum depth, in the specified order.
+     * The findings are streamed in pre-order; other orders sort only the findings, never the whole structure.
+     *
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param maxDepth          the maximum depth of hierarchy
+     * @param order             the order of the results
+     * @return a map associating employees with the length of their report line, iterated in the specified order
+     */
+    @Override
+    public Map<Employee, Integer> getEmployeesReportLineLength(EmployeeStructureNode employeeHierarchy, int maxDepth,
+                                                               ReportOrder order) {
+        List<Finding> findings = new ArrayList<>();
+        findLongReportLines(employeeHierarchy, maxDepth, (employee, length) -> findings.add(new Finding(employee, length)));
+        sort(findings, order, Finding.DESCENDING_SEVERITY);
+
+        Map<Employee, Integer> employeesReportLineLength = new LinkedHashMap<>(capacityFor(findings.size()));
+        for (Finding finding : findings) {
+            employeesReportLineLength.put(finding.employee, (int) finding.value);
         }
         return employeesReportLineLength;
     }
 
     /**
-     * Recursively checks the length of report line for each employee in the structure.
+     * Retrieves the employees whose report line is longer than the specified maximum depth, in the specified order.
+     * The employees are taken from the index range of the depth index that holds them, so only the findings are
+     * visited and sorted, never the whole structure.
+     *
+     * @param structure the compact structure of employees
+     * @param maxDepth  the maximum depth of hierarchy
+     * @param order     the order of the results
+     * @return a map associating employees with the length of their report line, iterated in the specified order
+     */
+    @Override
+    public Map<Employee, Integer> getEmployeesReportLineLength(CompactOrganizationStructure structure, int maxDepth,
+                                                               ReportOrder order) {
+        int start = maxDepth <= 0 ? structure.size() : structure.getLevelStart(maxDepth + 1);
+        Integer[] indices = new Integer[structure.size() - start];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = start + i;
+        }
+        if (order == ReportOrder.PRE_ORDER) {
+            Arrays.sort(indices, (first, second) -> comparePreOrder(structure, first, second));
+        }
+        List<Finding> findings = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            findings.add(new Finding(structure.getEmployee(index), structure.getDepth(index)));
+        }
+        sort(findings, order, Finding.DESCENDING_SEVERITY);
+
+        Map<Employee, Integer> employeesReportLineLength = new LinkedHashMap<>(capacityFor(findings.size()));
+        for (Finding finding : findings) {
+            employeesReportLineLength.put(finding.employee, (int) finding.value);
+        }
+        return employeesReportLineLength;
+    }
+
+    /**
+     * Compares two employees of the compact structure by their pre-order position.
+     * Every level is laid out in the order of its managers, so within a level the index order is the pre-order; two
+     * employees on different levels compare as their ancestors on the same level, and an employee precedes its
+     * subordinates.
+     */
+    private static int comparePreOrder(CompactOrganizationStructure structure, int first, int second) {
+        int firstAncestor = first;
+        int secondAncestor = second;
+        while (structure.getDepth(firstAncestor) > structure.getDepth(secondAncestor)) {
+            firstAncestor = structure.getParent(firstAncestor);
+        }
+        while (structure.getDepth(secondAncestor) > structure.getDepth(firstAncestor)) {
+            secondAncestor = structure.getParent(secondAncestor);
+        }
+        if (firstAncestor == secondAncestor) {
+            return Integer.compare(structure.getDepth(first), structure.getDepth(second));
+        }
+        return Integer.compare(firstAncestor, secondAncestor);
+    }
+
+    /**
+     * Retrieves at most {@code limit} managers with the most severe salary discrepancies exceeding the specified
+     * threshold. The findings are streamed through a heap bounded by the limit, whose head is the least severe
+     * finding kept so far, so the cost is {@code O(n log limit)} and only {@code limit} findings are kept in memory.
      *
-     * @param employeeStructureNode   the current employee structure node
-     * @param depth                   the current depth of hierarchy
-     * @param maxDepth                the maximum depth of hierarchy for which to retrieve the report
-     * @param employeesReportLineLength the map to store the length of report line for each employee
+     * @param employeeHierarchy the hierarchical structure of employees
+     * @param threshold         the salary discrepancy threshold
+     * @param checkLess         if true, checks discrepancies less than the threshold, if false, only greater ones
+     * @param limit             the maximum number of managers to return
+     * @return a map associating managers with their salary discrepancies, iterated in {@link ReportOrder#SEVERITY} order
      */
-    private void checkLineLength(EmployeeStructureNode employeeStructureNode, int depth, int maxDepth,
-                               Map<Employee, Integer> employeesReportLineLength) {
+    @Override
+    public Map<Employee, Double> getTopSalaryDiscrepancies(EmployeeStructureNode employeeHierarchy, double threshold,
+                                                           boolean checkLess, int limit) {
+        if (limit <= 0) {
+            return new LinkedHashMap<>();
+        }
+        Comparator<Finding> severity = checkLess ? Finding.ASCENDING_SEVERITY : Finding.DESCENDING_SEVERITY;
+        PriorityQueue<Finding> heap = new PriorityQueue<>(Math.min(limit, 1024), severity.reversed());
+        findSalaryDiscrepancies(employeeHierarchy, threshold, checkLess, (employee, discrepancy) -> {
+            Finding finding = new Finding(employee, discrepancy);
+            if (heap.size() < limit) {
+                heap.add(finding);
+            } else if (severity.compare(finding, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(finding);
+            }
+        });
+
+        //the heap is drained from the least severe finding
+        Finding[] findings = new Finding[heap.size()];
+        for (int i = findings.length - 1; i >= 0; i--) {
+            findings[i] = heap.poll();
+        }
+        Map<Employee, Double> salaryDiscrepancies = new LinkedHashMap<>(capacityFor(findings.length));
+        for (Finding finding : findings) {
+            salaryDiscrepancies.put(finding.employee, finding.value);
+        }
+        return salaryDiscrepancies;
+    }
+
+    private static void sort(List<Finding> findings, ReportOrder order, Comparator<Finding> severity) {
+        if (order == ReportOrder.EMPLOYEE_ID) {
+            findings.sort(Finding.EMPLOYEE_ID);
+        } else if (order == ReportOrder.SEVERITY) {
+            findings.sort(severity);
+        }
+    }
+
+    private static int capacityFor(int size) {
+        return Math.max(16, (int) (size / 0.75f) + 1);
+    }
+
+    private void emitDiscrepancy(Employee manager, long discrepancy, long upperBound, long lowerBound, ReportSink sink) {
+        if (discrepancy > upperBound) {
+            sink.overpaidManager(manager, SalaryDiscrepancyCalculator.toDouble(discrepancy));
+        }
+        if (discrepancy < lowerBound) {
+            sink.underpaidManager(manager, SalaryDiscrepancyCalculator.toDouble(discrepancy));
+        }
+    }
+
+    private void collectDiscrepancy(Employee manager, long discrepancy, long upperBound, long lowerBound,
+                                    OrganizationReport report) {
+        if (discrepancy > upperBound) {
+            report.getOverpaidManagers().put(manager, SalaryDiscrepancyCalculator.toDouble(discrepancy));
+        }
+        if (discrepancy < lowerBound) {
+            report.getUnderpaidManagers().put(manager, SalaryDiscrepancyCalculator.toDouble(discrepancy));
+        }
+    }
+
+    /**
+     * Returns the average salary of the subordinates, summed in list order without allocating.
+     */
+    private double getSubordinatesAverageSalary(List<EmployeeStructureNode> subordinates) {
+        double subordinatesSalary = 0;
+        for (int i = 0; i < subordinates.size(); i++) {
+            subordinatesSalary += subordinates.get(i).getEmployee().getSalary();
+        }
+        return subordinatesSalary / subordinates.size();
+    }
+
+    private double getSubordinatesAverageSalary(CompactOrganizationStructure structure, int index) {
+        int start = structure.getSubordinatesStart(index);
+        int end = structure.getSubordinatesEnd(index);
+        double subordinatesSalary = 0;
+        for (int subordinate = start; subordinate < end; subordinate++) {
+            subordinatesSalary += structure.getSalary(subordinate);
+        }
+        return subordinatesSalary / (end - start);
+    }
+
+    /**
+     * Visits the given employee structure node and all its subordinates, traversing the structure depth-first with an
+     * explicit stack, so the depth of the hierarchy is not limited by the thread stack size.
+     * <p>
+     * Implementations may visit subtrees concurrently. Every concurrently visited part of the structure is then
+     * collected into its own result created by the result factory, and the results are combined with the merger,
+     * so the visitor never shares a result between threads.
+     *
+     * @param employeeHierarchy the root of the employee structure to visit
+     * @param resultFactory     creates an empty result
+     * @param merger            combines two results, may return either of its arguments
+     * @param visitor           collects the checks of a single node into a result
+     * @param <R>               the type of the result
+     * @return the result collected from all nodes
+     */
+    <R> R traverse(EmployeeStructureNode employeeHierarchy, Supplier<R> resultFactory, BinaryOperator<R> merger,
+                   NodeVisitor<R> visitor) {
+        return traverseSequentially(employeeHierarchy, resultFactory.get(), visitor);
+    }
+
+    /**
+     * Visits the given employee structure node and all its subordinates in pre-order from the calling thread, with an
+     * explicit stack. Used by {@link #traverse} and by the streaming reports, whose consumers are not thread-safe.
+     *
+     * @param employeeHierarchy the root of the employee structure to visit
+     * @param result            the result to collect the checks of all nodes into
+     * @param visitor           collects the checks of a single node into the result
+     * @param <R>               the type of the result
+     * @return the result
+     */
+    static <R> R traverseSequentially(EmployeeStructureNode employeeHierarchy, R result, NodeVisitor<R> visitor) {
+        TraversalStack stack = new TraversalStack();
+        stack.push(employeeHierarchy, 1);
+
+        while (!stack.isEmpty()) {
+            EmployeeStructureNode employeeStructureNode = stack.pop();
+            int depth = stack.poppedDepth();
+            visitor.visit(employeeStructureNode, depth, result);
+            stack.pushSubordinates(employeeStructureNode, depth + 1);
+        }
+        return result;
+    }
+
+    static OrganizationReport newReport() {
+        return new OrganizationReport(new HashMap<>(), new HashMap<>(), new HashMap<>());
+    }
+
+    /**
+     * Merges the smaller of the two maps into the larger one and returns the larger one.
+     */
+    static <K, V> Map<K, V> mergeMaps(Map<K, V> left, Map<K, V> right) {
+        if (left.size() < right.size()) {
+            right.putAll(left);
+            return right;
+        }
+        left.putAll(right);
+        return left;
+    }
+
+    static OrganizationReport mergeReports(OrganizationReport left, OrganizationReport right) {
+        return new OrganizationReport(mergeMaps(left.getOverpaidManagers(), right.getOverpaidManagers()),
+                mergeMaps(left.getUnderpaidManagers(), right.getUnderpaidManagers()),
+                mergeMaps(left.getLongReportLines(), right.getLongReportLines()));
+    }
+
+    /**
+     * A single finding of a report: an employee and its discrepancy or the length of its report line.
+     */
+    private static final class Finding {
+
+        static final Comparator<Finding> EMPLOYEE_ID = Comparator.comparingLong(finding -> finding.employee.getId());
+        static final Comparator<Finding> ASCENDING_SEVERITY =
+                Comparator.<Finding>comparingDouble(finding -> finding.value).thenComparing(EMPLOYEE_ID);
+        static final Comparator<Finding> DESCENDING_SEVERITY =
+                Comparator.<Finding>comparingDouble(finding -> -finding.value).thenComparing(EMPLOYEE_ID);
+
+        final Employee employee;
+        final double value;
+
+        Finding(Employee employee, double value) {
+            this.employee = employee;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Applies the checks of a report to a single employee structure node.
+     *
+     * @param <R> the type of the result the checks are collected into
+     */
+    @FunctionalInterface
+    interface NodeVisitor<R> {
+
+        /**
+         * Applies the checks to the node.
+         *
+         * @param employeeStructureNode the node to check
+         * @param depth                 the length of the report line of the employee, {@code 1} for the root
+         * @param result                the result to collect the checks into
+         */
+        void visit(EmployeeStructureNode employeeStructureNode, int depth, R result);
+    }
+
+    /**
+     * A stack of employee structure nodes with their depths, used instead of recursion.
+     * Its size is bounded by the sum of the numbers of subordinates along the current path, it does not depend on the
+     * thread stack size.
+     */
+    static final class TraversalStack {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private EmployeeStructureNode[] nodes;
+        private int[] depths;
+        private int size;
+
+        TraversalStack() {
+            this(INITIAL_CAPACITY);
+        }
+
+        private TraversalStack(int capacity) {
+            nodes = new EmployeeStructureNode[capacity];
+            depths = new int[capacity];
+        }
+
+        void push(EmployeeStructureNode node, int depth) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                depths = Arrays.copyOf(depths, size * 2);
+            }
+            nodes[size] = node;
+            depths[size] = depth;
+            size++;
+        }
+
+        /**
+         * Pushes the subordinates of the node in reverse order, so that they are popped in their original order
+         * and the traversal visits the structure in pre-order.
+         */
+        void pushSubordinates(EmployeeStructureNode node, int depth) {
+            List<EmployeeStructureNode> subordinates = node.getSubordinates();
+            for (int i = subordinates.size() - 1; i >= 0; i--) {
+                push(subordinates.get(i), depth);
+            }
+        }
+
+        EmployeeStructureNode pop() {
+            EmployeeStructureNode node = nodes[--size];
+            nodes[size] = null;
+            return node;
+        }
+
+        /**
+         * Returns the depth of the node returned by the last {@link #pop()}.
+         */
+        int poppedDepth() {
+            return depths[size];
+        }
+
+        /**
+         * Removes the bottom half of the stack and returns it as a new stack. The bottom entries were pushed first,
+         * they are the closest to the root of the traversal and usually hold the largest pending subtrees.
+         */
+        TraversalStack splitBottomHalf() {
+            int half = size / 2;
+            TraversalStack bottom = new TraversalStack(Math.max(INITIAL_CAPACITY, half));
+            System.arraycopy(nodes, 0, bottom.nodes, 0, half);
+            System.arraycopy(depths, 0, bottom.depths, 0, half);
+            bottom.size = half;
+
+            System.arraycopy(nodes, half, nodes, 0, size - half);
+            System.arraycopy(depths, half, depths, 0, size - half);
+            Arrays.fill(nodes, size - half, size, null);
+            size -= half;
+            return bottom;
+        }
 
-        if (depth > maxDepth) {
-            employeesReportLineLength.put(employeeStructureNode.getEmployee(), depth);
+        int size() {
+            return size;
         }
 
-        for (EmployeeStructureNode subordinate : employeeStructureNode.getSubordinates()) {
-            checkLineLength(subordinate, depth + 1, maxDepth, employeesReportLineLength);
+        boolean isEmpty() {
+            return size == 0;
         }
     }
 }
@@ -0,0 +1,86 @@
+package com.company.service.impl;
+
+import com.company.dto.ReportFormat;
+import com.company.service.ReportWriter;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Creates buffered report writers for the standard output and for files.
+ */
+public final class ReportWriters {
+
+    /**
+     * The size of the character buffer of a report writer.
+     */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private ReportWriters() {
+    }
+
+    /**
+     * Creates a report writer for the standard output. Closing the writer flushes the standard output but does not
+     * close it.
+     *
+     * @param format the format of the report
+     * @return a buffered report writer
+     */
+    public static ReportWriter toStandardOutput(ReportFormat format) {
+        OutputStream standardOutput = new FilterOutputStream(System.out) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        return create(format, new BufferedWriter(new OutputStreamWriter(standardOutput, StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    /**
+     * Creates a report writer for the specified file, written through a file channel. An existing file is replaced.
+     *
+     * @param format the format of the report
+     * @param file   the file to write the report to
+     * @return a buffered report writer
+     * @throws IOException if the file cannot be opened
+     */
+    public static ReportWriter toFile(ReportFormat format, Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        //the channel writer encodes every write call separately, so characters are collected in front of it
+        return create(format, new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE),
+                BUFFER_SIZE));
+    }
+
+    /**
+     * Creates a report writer for the specified destination, which should be buffered.
+     *
+     * @param format the format of the report
+     * @param out    the destination of the report
+     * @return a report writer of the specified format
+     */
+    public static ReportWriter create(ReportFormat format, Writer out) {
+        switch (format) {
+            case CSV:
+                return new CsvReportWriter(out);
+            case JSONL:
+                return new JsonLinesReportWriter(out);
+            default:
+                return new TextReportWriter(out);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.company.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Calculates salary discrepancies as scaled {@code long} values without allocating.
+ * <p>
+ * The discrepancy of a manager is {@code 1 - subordinatesAverageSalary / managerSalary}, rounded half-up to
+ * {@link #DECIMAL_PLACES} decimal places and represented as a number of {@code 1e-10} units. The ratio is computed in
+ * {@code double} arithmetic, scaled and then rounded, so the result equals the exact decimal computation unless the
+ * exact ratio lies within a few {@code double} ulps of a rounding tie at the tenth decimal place. Scaled ratios of
+ * {@code 2^62} and more are computed exactly with {@link BigDecimal}; discrepancies beyond the {@code long} range, below
+ * about {@code -9.2e8}, saturate at {@link Long#MIN_VALUE} and still compare correctly with every threshold in range.
+ * <p>
+ * Thresholds are converted to scaled bounds exactly, once per report: a discrepancy is greater than a threshold if
+ * it is greater than the {@linkplain #upperBound(double) floor} of the scaled threshold, and less than a threshold if
+ * it is less than the {@linkplain #lowerBound(double) ceiling} of the scaled threshold. Thresholds with more than ten
+ * decimal places are therefore compared exactly as well.
+ */
+final class SalaryDiscrepancyCalculator {
+
+    /**
+     * The number of decimal places of a discrepancy.
+     */
+    static final int DECIMAL_PLACES = 10;
+
+    /**
+     * The scaled representation of a discrepancy of {@code 1}.
+     */
+    static final long SCALE = 10_000_000_000L;
+
+    private static final BigDecimal MIN_SCALED = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAX_SCALED = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private SalaryDiscrepancyCalculator() {
+    }
+
+    /**
+     * Calculates the scaled salary discrepancy of a manager.
+     *
+     * @param subordinatesAverageSalary the average salary of the direct subordinates
+     * @param managerSalary             the salary of the manager
+     * @return the discrepancy in units of {@code 1e-10}
+     * @throws ArithmeticException if the salary of the manager is zero or a salary is not finite
+     */
+    static long calculate(double subordinatesAverageSalary, double managerSalary) {
+        if (managerSalary == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (!Double.isFinite(subordinatesAverageSalary) || !Double.isFinite(managerSalary)) {
+            throw new ArithmeticException("Salary is not finite");
+        }
+        double scaledRatio = subordinatesAverageSalary / managerSalary * SCALE;
+        if (!(Math.abs(scaledRatio) < 0x1p62)) {
+            //beyond the precision of the double ratio or the range of a long, including an overflow to infinity
+            return calculateExactly(subordinatesAverageSalary, managerSalary);
+        }
+        //half-up rounds ties away from zero
+        long roundedRatio = scaledRatio >= 0 ? (long) Math.floor(scaledRatio + 0.5) : -(long) Math.floor(-scaledRatio + 0.5);
+        return SCALE - roundedRatio;
+    }
+
+    private static long calculateExactly(double subordinatesAverageSalary, double managerSalary) {
+        BigDecimal ratio = BigDecimal.valueOf(subordinatesAverageSalary)
+                .divide(BigDecimal.valueOf(managerSalary), DECIMAL_PLACES, RoundingMode.HALF_UP);
+        BigDecimal scaled = BigDecimal.ONE.subtract(ratio).movePointRight(DECIMAL_PLACES);
+        return scaled.max(MIN_SCALED).min(MAX_SCALED).longValueExact();
+    }
+
+    /**
+     * Converts a scaled discrepancy to {@code double}, the {@code double} closest to the decimal discrepancy. Scaled
+     * values up to {@code 2^53} and the scale are exact doubles, so one division suffices; larger ones are converted
+     * with {@link BigDecimal}.
+     *
+     * @param scaledDiscrepancy the discrepancy in units of {@code 1e-10}
+     * @return the discrepancy as {@code double}
+     */
+    static double toDouble(long scaledDiscrepancy) {
+        if (Math.abs(scaledDiscrepancy) > 1L << 53) {
+            return BigDecimal.valueOf(scaledDiscrepancy, DECIMAL_PLACES).doubleValue();
+        }
+        return scaledDiscrepancy / (double) SCALE;
+    }
+
+    /**
+     * Returns the largest scaled value that is not greater than the threshold. A scaled discrepancy is greater than the
+     * threshold if and only if it is greater than this bound.
+     *
+     * @param threshold the salary discrepancy threshold
+     * @return the upper bound in units of {@code 1e-10}
+     */
+    static long upperBound(double threshold) {
+        return scale(threshold, RoundingMode.FLOOR);
+    }
+
+    /**
+     * Returns the smallest scaled value that is not less than the threshold. A scaled discrepancy is less than the
+     * threshold if and only if it is less than this bound.
+     *
+     * @param threshold the salary discrepancy threshold
+     * @return the lower bound in units of {@code 1e-10}
+     */
+    static long lowerBound(double threshold) {
+        return scale(threshold, RoundingMode.CEILING);
+    }
+
+    private static long scale(double threshold, RoundingMode roundingMode) {
+        BigDecimal scaled = BigDecimal.valueOf(threshold).movePointRight(DECIMAL_PLACES).setScale(0, roundingMode);
+        return scaled.max(MIN_SCALED).min(MAX_SCALED).longValue();
+    }
+}
@@ -0,0 +1,66 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.dto.ReportSection;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Writes the report as plain text: the title of every section followed by one {@code FirstName LastName Value} line
+ * per finding, with an empty line between sections. Discrepancies are written with two decimal places, rounded
+ * half-up like {@code %.2f}, always with a dot as the decimal separator.
+ */
+public class TextReportWriter extends AbstractReportWriter {
+
+    /**
+     * Constructs a new {@code TextReportWriter} writing to the specified destination, which should be buffered.
+     *
+     * @param out the destination of the report
+     */
+    public TextReportWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    void writeSectionStart(ReportSection section, boolean first) throws IOException {
+        if (!first) {
+            out().write(System.lineSeparator());
+        }
+        out().write(section.getTitle());
+        out().write(System.lineSeparator());
+    }
+
+    @Override
+    void writeSalaryDiscrepancy(ReportSection section, Employee employee, double discrepancy) throws IOException {
+        writeName(employee);
+        out().write(formatDiscrepancy(discrepancy));
+        out().write(System.lineSeparator());
+    }
+
+    @Override
+    void writeReportLineLength(ReportSection section, Employee employee, int length) throws IOException {
+        writeName(employee);
+        out().write(Integer.toString(length));
+        out().write(System.lineSeparator());
+    }
+
+    private void writeName(Employee employee) throws IOException {
+        out().write(employee.getFirstName());
+        out().write(' ');
+        out().write(employee.getLastName());
+        out().write(' ');
+    }
+
+    /**
+     * Rounds the shortest decimal representation of the value half-up to two decimal places, as the formatter does.
+     */
+    static String formatDiscrepancy(double discrepancy) {
+        String formatted = BigDecimal.valueOf(discrepancy).setScale(2, RoundingMode.HALF_UP).toPlainString();
+        //the formatter keeps the sign of negative values rounded to zero
+        boolean negative = discrepancy < 0 || (discrepancy == 0 && 1 / discrepancy < 0);
+        return negative && formatted.charAt(0) != '-' ? "-" + formatted : formatted;
+    }
+}
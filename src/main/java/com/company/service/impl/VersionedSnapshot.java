@@ -0,0 +1,66 @@
+package com.company.service.impl;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Publishes an immutable value built for a data version through an atomic reference.
+ * <p>
+ * A value is built at most once per data version. A reader that finds the published value outdated rebuilds it only
+ * if no other thread is rebuilding it already; otherwise it returns the previous value without waiting. Readers wait
+ * only for the very first value, when there is nothing to return yet.
+ *
+ * @param <T> the type of the value
+ */
+final class VersionedSnapshot<T> {
+
+    private final AtomicReference<Versioned<T>> current = new AtomicReference<>();
+    private final Lock buildLock = new ReentrantLock();
+
+    /**
+     * A value and the data version it was built for.
+     */
+    static final class Versioned<T> {
+
+        final long version;
+        final T value;
+
+        Versioned(long version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Returns the published value if it is up to date with the specified data version, otherwise rebuilds it.
+     *
+     * @param version the current data version
+     * @param builder builds the value together with the data version it reflects, which must not be lower than the
+     *                version read by the caller
+     * @return the published value, or the previous value while another thread is rebuilding it
+     */
+    Versioned<T> get(long version, Supplier<Versioned<T>> builder) {
+        Versioned<T> snapshot = current.get();
+        if (snapshot != null && snapshot.version >= version) {
+            return snapshot;
+        }
+        if (snapshot == null) {
+            buildLock.lock();
+        } else if (!buildLock.tryLock()) {
+            return snapshot;
+        }
+
+        try {
+            snapshot = current.get();
+            if (snapshot == null || snapshot.version < version) {
+                snapshot = builder.get();
+                current.set(snapshot);
+            }
+            return snapshot;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+}
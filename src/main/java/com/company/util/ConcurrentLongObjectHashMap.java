@@ -0,0 +1,219 @@
+package com.company.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A thread-safe map from primitive {@code long} keys to objects, split into stripes that are each a
+ * {@link LongObjectHashMap} guarded by its own lock.
+ * <p>
+ * The stripe of a key is chosen by its lowest bits, so consecutive keys go to consecutive stripes and the keys of a
+ * dense range stay dense within every stripe. Keys that are all multiples of the number of stripes share one stripe,
+ * which is still correct, but makes their writers wait for each other. Writers lock only the stripe of the key, so
+ * writers of different stripes do not wait for each other. Readers do not lock at all: a lookup reads the stripe
+ * optimistically and only takes the read lock if a writer changed the stripe in the meantime. The bulk operations
+ * lock one stripe at a time, so they are consistent per stripe but not across stripes, like the views of
+ * {@link java.util.concurrent.ConcurrentHashMap}. {@code null} values are not supported.
+ *
+ * @param <V> the type of the values
+ */
+public class ConcurrentLongObjectHashMap<V> {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    private final StampedLock[] locks;
+    private final LongObjectHashMap<V>[] stripes;
+
+    /**
+     * Constructs an empty map.
+     */
+    public ConcurrentLongObjectHashMap() {
+        this(0);
+    }
+
+    /**
+     * Constructs an empty map that holds the specified number of entries without growing, if the keys are spread
+     * evenly.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public ConcurrentLongObjectHashMap(int expectedSize) {
+        locks = new StampedLock[STRIPES];
+        //an array of a generic type can only be created with its wildcard type
+        @SuppressWarnings("unchecked")
+        LongObjectHashMap<V>[] maps = (LongObjectHashMap<V>[]) new LongObjectHashMap<?>[STRIPES];
+        stripes = maps;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new StampedLock();
+            stripes[i] = new LongObjectHashMap<>(expectedSize / STRIPES, STRIPE_BITS);
+        }
+    }
+
+    private static int stripeOf(long key) {
+        return (int) key & (STRIPES - 1);
+    }
+
+    /**
+     * Returns the value of the specified key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if the map does not contain the key
+     */
+    public V get(long key) {
+        int stripe = stripeOf(key);
+        StampedLock lock = locks[stripe];
+        long stamp = lock.tryOptimisticRead();
+        V value = stripes[stripe].get(key);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return stripes[stripe].get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns whether the map contains the specified key.
+     *
+     * @param key the key
+     * @return {@code true} if the map contains the key
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates the value with the specified key.
+     *
+     * @param key   the key
+     * @param value the value, not {@code null}
+     * @return the previous value of the key, or {@code null} if there was none
+     */
+    public V put(long key, V value) {
+        int stripe = stripeOf(key);
+        long stamp = locks[stripe].writeLock();
+        try {
+            return stripes[stripe].put(key, value);
+        } finally {
+            locks[stripe].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the specified key from the map.
+     *
+     * @param key the key
+     * @return the value of the removed key, or {@code null} if the map did not contain the key
+     */
+    public V remove(long key) {
+        int stripe = stripeOf(key);
+        long stamp = locks[stripe].writeLock();
+        try {
+            return stripes[stripe].remove(key);
+        } finally {
+            locks[stripe].unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of entries. Entries added or removed during the call may or may not be counted.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            long stamp = locks[stripe].readLock();
+            try {
+                size += stripes[stripe].size();
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns whether the map is empty.
+     *
+     * @return {@code true} if the map contains no entries
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            long stamp = locks[stripe].writeLock();
+            try {
+                stripes[stripe].clear();
+            } finally {
+                locks[stripe].unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the values, in no particular order. Entries added or removed during the call may or may not
+     * be part of the copy.
+     *
+     * @return a new list of the values
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            long stamp = locks[stripe].readLock();
+            try {
+                stripes[stripe].forEachValue(values::add);
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns a copy of the values in ascending key order. Unlike {@link #values()}, the order depends only on the
+     * keys and not on the order the entries were added in, and values of consecutive keys are next to each other.
+     * Entries added or removed during the call may or may not be part of the copy.
+     *
+     * @return a new list of the values
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> valuesByKey() {
+        int capacity = size();
+        long[] keys = new long[capacity];
+        Object[] values = new Object[capacity];
+        int size = 0;
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            long stamp = locks[stripe].readLock();
+            try {
+                int stripeSize = stripes[stripe].size();
+                if (size + stripeSize > keys.length) {
+                    //entries were added since the size was taken
+                    keys = Arrays.copyOf(keys, Math.max(size + stripeSize, keys.length * 2));
+                    values = Arrays.copyOf(values, keys.length);
+                }
+                size = stripes[stripe].copyTo(keys, values, size);
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+
+        int[] order = LongSorting.sortedIndices(size == keys.length ? keys : Arrays.copyOf(keys, size));
+        List<V> sortedValues = new ArrayList<>(size);
+        for (int index : order) {
+            sortedValues.add((V) values[index]);
+        }
+        return sortedValues;
+    }
+}
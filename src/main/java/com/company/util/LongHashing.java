@@ -0,0 +1,93 @@
+package com.company.util;
+
+/**
+ * Hashing and sizing shared by the open-addressing maps with {@code long} keys.
+ * <p>
+ * A table starts with {@link #sequentialSlot}, which keeps consecutive keys in consecutive slots: employee IDs are
+ * mostly a dense range, which then fills the table without a single collision and is read almost sequentially in ID
+ * order. Regular patterns of keys such as multiples of a power of two cluster with it, so once an insertion probes more
+ * than {@link #MAX_SEQUENTIAL_PROBES} slots the table is rehashed with {@link #slot}, which spreads any pattern evenly.
+ * Tables are powers of two and are at most three quarters full, so a linear probe ends after a couple of slots on
+ * average.
+ */
+final class LongHashing {
+
+    //the maximum share of occupied slots, in quarters
+    private static final int MAX_LOAD_QUARTERS = 3;
+
+    /**
+     * The number of occupied slots an insertion may pass before a table hashed by {@link #sequentialSlot} is rehashed
+     * by {@link #slot}.
+     */
+    static final int MAX_SEQUENTIAL_PROBES = 32;
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private LongHashing() {
+    }
+
+    /**
+     * Returns the slot at which the probe for the specified key starts, spreading the keys by a multiplication with the
+     * golden ratio folded to 32 bits.
+     *
+     * @param key  the key
+     * @param mask the table length minus one
+     * @return the first slot to probe
+     */
+    static int slot(long key, int mask) {
+        long hash = key * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Returns the slot at which the probe for the specified key starts, keeping consecutive keys in consecutive slots
+     * like {@link java.util.HashMap} does.
+     *
+     * @param key  the key
+     * @param mask the table length minus one
+     * @return the first slot to probe
+     */
+    static int sequentialSlot(long key, int mask) {
+        int hash = (int) (key ^ (key >>> 32));
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the table length that holds the specified number of entries without growing.
+     *
+     * @param expectedSize the expected number of entries
+     * @return a power of two
+     */
+    static int capacityFor(int expectedSize) {
+        long minimum = Math.max(4L, ((long) expectedSize * 4 + MAX_LOAD_QUARTERS - 1) / MAX_LOAD_QUARTERS);
+        if (minimum > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) minimum - 1) << 1;
+    }
+
+    /**
+     * Returns the number of entries after which a table of the specified length grows.
+     *
+     * @param capacity the table length
+     * @return the maximum number of entries
+     */
+    static int maxSizeFor(int capacity) {
+        return capacity / 4 * MAX_LOAD_QUARTERS;
+    }
+
+    /**
+     * Returns the table length following the specified one.
+     *
+     * @param capacity the current table length
+     * @return twice the current table length
+     * @throws IllegalStateException if the table cannot grow any further
+     */
+    static int grow(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Map is full");
+        }
+        return capacity << 1;
+    }
+}
@@ -0,0 +1,179 @@
+package com.company.util;
+
+/**
+ * A map from primitive {@code long} keys to primitive {@code int} values, backed by open addressing with linear
+ * probing. It is meant for dense indices such as the position of an employee in an array, built once and then read.
+ * <p>
+ * Keys and values are kept in two parallel arrays, so an entry costs twelve bytes per slot and nothing is boxed. The
+ * key {@code 0} marks a free slot and is stored apart from the table. Consecutive keys are first kept in consecutive
+ * slots, which makes lookups in key order as cheap as an array access; the table is rehashed with scrambled keys once
+ * a probe gets long, so regular patterns of keys cannot degrade it. A lookup of a missing key returns the missing
+ * value chosen at construction, which must not be used as a regular value if absent keys are to be told apart.
+ * Entries cannot be removed.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class LongIntHashMap {
+
+    private static final long FREE = 0L;
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int maxSize;
+    private boolean scrambled;
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    /**
+     * Constructs an empty map that holds the specified number of entries without growing.
+     *
+     * @param expectedSize the expected number of entries
+     * @param missingValue the value returned for keys the map does not contain
+     */
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        allocate(LongHashing.capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value of the specified key.
+     *
+     * @param key the key
+     * @return the value, or the missing value if the map does not contain the key
+     */
+    public int get(long key) {
+        if (key == FREE) {
+            return hasFreeKey ? freeKeyValue : missingValue;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Returns whether the map contains the specified key.
+     *
+     * @param key the key
+     * @return {@code true} if the map contains the key
+     */
+    public boolean containsKey(long key) {
+        if (key == FREE) {
+            return hasFreeKey;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Associates the value with the specified key.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the previous value of the key, or the missing value if there was none
+     */
+    public int put(long key, int value) {
+        return put(key, value, true);
+    }
+
+    /**
+     * Associates the value with the specified key, unless the map contains the key already.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the current value of the key, or the missing value if the value was added
+     */
+    public int putIfAbsent(long key, int value) {
+        return put(key, value, false);
+    }
+
+    private int put(long key, int value, boolean replace) {
+        if (key == FREE) {
+            int previous = hasFreeKey ? freeKeyValue : missingValue;
+            if (!hasFreeKey || replace) {
+                freeKeyValue = value;
+            }
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            return previous;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        int probes = 0;
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                int previous = values[slot];
+                if (replace) {
+                    values[slot] = value;
+                }
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+            probes++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > maxSize) {
+            resize(LongHashing.grow(keys.length));
+        } else if (probes > LongHashing.MAX_SEQUENTIAL_PROBES && !scrambled) {
+            scrambled = true;
+            resize(keys.length);
+        }
+        return missingValue;
+    }
+
+    private int slot(long key, int mask) {
+        return scrambled ? LongHashing.slot(key, mask) : LongHashing.sequentialSlot(key, mask);
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        maxSize = LongHashing.maxSizeFor(capacity);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
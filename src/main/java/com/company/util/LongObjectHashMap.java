@@ -0,0 +1,274 @@
+package com.company.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * A map from primitive {@code long} keys to objects, backed by open addressing with linear probing.
+ * <p>
+ * Keys and values are kept in two parallel arrays, so an entry costs a {@code long} and a reference per slot instead
+ * of a boxed key and a node object. A slot is free if its value is {@code null}, which is why {@code null} values are
+ * not supported. Consecutive keys are first kept in consecutive slots; the table is rehashed with scrambled keys once
+ * a probe gets long, so regular patterns of keys cannot degrade it. Removal shifts the following entries of the probe
+ * sequence back instead of leaving tombstones, so lookups never slow down after many updates.
+ * <p>
+ * A lookup reads the table once and never fails, even if a writer changes the map at the same time; its result is
+ * only meaningful without concurrent writes. {@link ConcurrentLongObjectHashMap} relies on this for optimistic reads.
+ * Otherwise this class is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public class LongObjectHashMap<V> {
+
+    private final int keyShift;
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int maxSize;
+    private boolean scrambled;
+
+    /**
+     * Constructs an empty map.
+     */
+    public LongObjectHashMap() {
+        this(0);
+    }
+
+    /**
+     * Constructs an empty map that holds the specified number of entries without growing.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public LongObjectHashMap(int expectedSize) {
+        this(expectedSize, 0);
+    }
+
+    /**
+     * Constructs an empty map for keys that all share their lowest bits, which are left out of the hash.
+     *
+     * @param expectedSize the expected number of entries
+     * @param keyShift     the number of lowest bits shared by all keys
+     */
+    LongObjectHashMap(int expectedSize, int keyShift) {
+        this.keyShift = keyShift;
+        allocate(LongHashing.capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value of the specified key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if the map does not contain the key
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long[] keys = this.keys;
+        Object[] values = this.values;
+        //both arrays have the same length, unless they are read while a writer replaces them
+        int mask = Math.min(keys.length, values.length) - 1;
+        int slot = slot(key, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            Object value = values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (keys[slot] == key) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the map contains the specified key.
+     *
+     * @param key the key
+     * @return {@code true} if the map contains the key
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates the value with the specified key.
+     *
+     * @param key   the key
+     * @param value the value, not {@code null}
+     * @return the previous value of the key, or {@code null} if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "value");
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        int probes = 0;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+            probes++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > maxSize) {
+            resize(LongHashing.grow(keys.length));
+        } else if (probes > LongHashing.MAX_SEQUENTIAL_PROBES && !scrambled) {
+            scrambled = true;
+            resize(keys.length);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of the specified key, computing and adding it first if the map does not contain the key.
+     *
+     * @param key             the key
+     * @param mappingFunction computes the value of a missing key, must not return {@code null}
+     * @return the current value of the key
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> mappingFunction) {
+        V value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes the specified key from the map.
+     *
+     * @param key the key
+     * @return the value of the removed key, or {@code null} if the map did not contain the key
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                shiftBack(slot, mask);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Frees the slot by moving back every following entry of the cluster that would no longer be found past the gap.
+     */
+    private void shiftBack(int gap, int mask) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) {
+                break;
+            }
+            int home = slot(keys[slot], mask);
+            //the entry stays if its home lies cyclically in (gap, slot]
+            boolean stays = gap <= slot ? gap < home && home <= slot : gap < home || home <= slot;
+            if (!stays) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private int slot(long key, int mask) {
+        long hashed = key >> keyShift;
+        return scrambled ? LongHashing.slot(hashed, mask) : LongHashing.sequentialSlot(hashed, mask);
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the map is empty.
+     *
+     * @return {@code true} if the map contains no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all entries, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Passes every value to the specified action, in no particular order.
+     *
+     * @param action the action to perform on every value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    /**
+     * Copies the keys and values of all entries to the specified arrays, in no particular order.
+     *
+     * @param targetKeys   the array to copy the keys to
+     * @param targetValues the array to copy the values to
+     * @param offset       the index in the arrays of the first entry
+     * @return the index in the arrays following the last entry
+     */
+    int copyTo(long[] targetKeys, Object[] targetValues, int offset) {
+        int next = offset;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                targetKeys[next] = keys[slot];
+                targetValues[next++] = values[slot];
+            }
+        }
+        return next;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        maxSize = LongHashing.maxSizeFor(capacity);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i], mask);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
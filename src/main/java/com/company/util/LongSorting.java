@@ -0,0 +1,72 @@
+package com.company.util;
+
+import java.util.Arrays;
+
+/**
+ * Sorting of indices by primitive {@code long} keys without boxing.
+ */
+public final class LongSorting {
+
+    //the key range up to which the keys are placed directly, as a multiple of the number of keys
+    private static final int MAX_DENSE_RANGE_FACTOR = 2;
+
+    private LongSorting() {
+    }
+
+    /**
+     * Returns the indices of the specified keys in ascending key order. Keys from a dense range, such as consecutive
+     * IDs with a few gaps, are placed directly at their offset in the range in linear time. Otherwise, if the key range
+     * leaves enough bits, every index is packed below its key into a single {@code long}, so one primitive sort orders
+     * both. Failing that, every index is found by a binary search in the sorted keys, which is several times slower on
+     * large arrays.
+     *
+     * @param keys the keys to sort, which must be distinct; the array is not modified
+     * @return the indices of the keys, the index of the smallest key first
+     */
+    public static int[] sortedIndices(long[] keys) {
+        int size = keys.length;
+        int[] indices = new int[size];
+        if (size == 0) {
+            return indices;
+        }
+        long minKey = Long.MAX_VALUE;
+        long maxKey = Long.MIN_VALUE;
+        for (long key : keys) {
+            minKey = Math.min(minKey, key);
+            maxKey = Math.max(maxKey, key);
+        }
+        int indexBits = 32 - Integer.numberOfLeadingZeros(size - 1);
+        long keyRange = maxKey - minKey;
+        if (keyRange >= 0 && keyRange < (long) size * MAX_DENSE_RANGE_FACTOR) {
+            int[] indexByOffset = new int[(int) keyRange + 1];
+            Arrays.fill(indexByOffset, -1);
+            for (int index = 0; index < size; index++) {
+                indexByOffset[(int) (keys[index] - minKey)] = index;
+            }
+            int i = 0;
+            for (int index : indexByOffset) {
+                if (index >= 0) {
+                    indices[i++] = index;
+                }
+            }
+        } else if (keyRange >= 0 && (keyRange >>> (63 - indexBits)) == 0) {
+            long[] packed = new long[size];
+            for (int index = 0; index < size; index++) {
+                packed[index] = (keys[index] - minKey) << indexBits | index;
+            }
+            Arrays.parallelSort(packed);
+            long indexMask = (1L << indexBits) - 1;
+            for (int i = 0; i < size; i++) {
+                indices[i] = (int) (packed[i] & indexMask);
+            }
+        } else {
+            //keys are distinct, so every sorted key is found at exactly one place
+            long[] sortedKeys = keys.clone();
+            Arrays.parallelSort(sortedKeys);
+            for (int index = 0; index < size; index++) {
+                indices[Arrays.binarySearch(sortedKeys, keys[index])] = index;
+            }
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,145 @@
+package com.company.service.impl;
+
+import static com.company.service.impl.OrganizationCacheServiceImplTest.EMPLOYEES_CSV_PATH;
+
+import com.company.dto.CompactOrganizationStructure;
+import com.company.dto.Employee;
+import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationReport;
+import com.company.dto.ReportOrder;
+import com.company.service.OrganizationCacheService;
+import com.company.service.ReportService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class CachingReportServiceImplTest {
+
+    private final ReportService reportService = new ReportServiceImpl();
+    private OrganizationCacheService<Employee, Long> organizationCacheService;
+    private CachingReportServiceImpl cachingReportService;
+
+    @BeforeEach
+    public void setUp() {
+        organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(new FileDataReadServiceImpl().readData(EMPLOYEES_CSV_PATH));
+        cachingReportService = new CachingReportServiceImpl(reportService, organizationCacheService, 2);
+    }
+
+    @Test
+    public void testResultsMatchDelegate() {
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+        CompactOrganizationStructure structure = organizationCacheService.getCompactStructure();
+
+        Assertions.assertEquals(reportService.getSalaryDiscrepancies(ceo, 0.5, false),
+                cachingReportService.getSalaryDiscrepancies(ceo, 0.5, false));
+        Assertions.assertEquals(reportService.getEmployeesReportLineLength(ceo, 3),
+                cachingReportService.getEmployeesReportLineLength(ceo, 3));
+        Assertions.assertEquals(reportService.getSalaryDiscrepancies(structure, 0.2, true),
+                cachingReportService.getSalaryDiscrepancies(structure, 0.2, true));
+        Assertions.assertEquals(reportService.getEmployeesReportLineLength(structure, 3),
+                cachingReportService.getEmployeesReportLineLength(structure, 3));
+        Assertions.assertEquals(new ArrayList<>(reportService.getSalaryDiscrepancies(ceo, 0.5, false, ReportOrder.SEVERITY).keySet()),
+                new ArrayList<>(cachingReportService.getSalaryDiscrepancies(ceo, 0.5, false, ReportOrder.SEVERITY).keySet()));
+        Assertions.assertEquals(new ArrayList<>(reportService.getTopSalaryDiscrepancies(ceo, 0.5, false, 3).keySet()),
+                new ArrayList<>(cachingReportService.getTopSalaryDiscrepancies(ceo, 0.5, false, 3).keySet()));
+        OrganizationReport expected = reportService.getOrganizationReport(ceo, 0.5, 0.2, 3);
+        OrganizationReport actual = cachingReportService.getOrganizationReport(ceo, 0.5, 0.2, 3);
+        Assertions.assertEquals(expected.getOverpaidManagers(), actual.getOverpaidManagers());
+        Assertions.assertEquals(expected.getUnderpaidManagers(), actual.getUnderpaidManagers());
+        Assertions.assertEquals(expected.getLongReportLines(), actual.getLongReportLines());
+    }
+
+    @Test
+    public void testRepeatedRequestIsHit() {
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+
+        Map<Employee, Double> first = cachingReportService.getSalaryDiscrepancies(ceo, 0.5, false);
+        Map<Employee, Double> second = cachingReportService.getSalaryDiscrepancies(ceo, 0.5, false);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, cachingReportService.getHitCount());
+        Assertions.assertEquals(1, cachingReportService.getMissCount());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> second.clear());
+    }
+
+    @Test
+    public void testDifferentArgumentsAreMisses() {
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.5, false);
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.5, true);
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.2, false);
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.5, false, ReportOrder.EMPLOYEE_ID);
+        cachingReportService.getSalaryDiscrepancies(organizationCacheService.getCompactStructure(), 0.5, false);
+
+        Assertions.assertEquals(0, cachingReportService.getHitCount());
+        Assertions.assertEquals(5, cachingReportService.getMissCount());
+    }
+
+    @Test
+    public void testWriteInvalidatesResults() {
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+        Map<Employee, Double> before = cachingReportService.getSalaryDiscrepancies(ceo, 0.5, false);
+
+        organizationCacheService.save(new Employee(400L, "Jane", "Roe", 1000.0, 123L));
+        EmployeeStructureNode changedCeo = organizationCacheService.getStructure();
+        Map<Employee, Double> after = cachingReportService.getSalaryDiscrepancies(changedCeo, 0.5, false);
+
+        Assertions.assertNotSame(before, after);
+        Assertions.assertEquals(reportService.getSalaryDiscrepancies(changedCeo, 0.5, false), after);
+        Assertions.assertEquals(0, cachingReportService.getHitCount());
+        Assertions.assertEquals(1, cachingReportService.size());
+        //the previous structure is not found after the write either
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.5, false);
+        Assertions.assertEquals(0, cachingReportService.getHitCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultIsEvicted() {
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.1, false);
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.2, false);
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.1, false);
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.3, false);
+        Assertions.assertEquals(1, cachingReportService.getEvictionCount());
+        Assertions.assertEquals(2, cachingReportService.size());
+
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.1, false);
+        Assertions.assertEquals(2, cachingReportService.getHitCount());
+        cachingReportService.getSalaryDiscrepancies(ceo, 0.2, false);
+        Assertions.assertEquals(2, cachingReportService.getHitCount());
+        Assertions.assertEquals(4, cachingReportService.getMissCount());
+    }
+
+    @Test
+    public void testRepeatedPreOrderReportIsHitUntilWrite() {
+        //the three sections of a report, as written by the serve mode
+        CachingReportServiceImpl reportCache = new CachingReportServiceImpl(reportService, organizationCacheService, 3);
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+        Map<Employee, Double> overpaid = reportCache.getSalaryDiscrepancies(ceo, 0.5, false, ReportOrder.PRE_ORDER);
+        reportCache.getSalaryDiscrepancies(ceo, 0.2, true, ReportOrder.PRE_ORDER);
+        reportCache.getEmployeesReportLineLength(ceo, 3, ReportOrder.PRE_ORDER);
+
+        Assertions.assertSame(overpaid, reportCache.getSalaryDiscrepancies(ceo, 0.5, false, ReportOrder.PRE_ORDER));
+        reportCache.getSalaryDiscrepancies(ceo, 0.2, true, ReportOrder.PRE_ORDER);
+        reportCache.getEmployeesReportLineLength(ceo, 3, ReportOrder.PRE_ORDER);
+        Assertions.assertEquals(3, reportCache.getHitCount());
+        Assertions.assertEquals(3, reportCache.getMissCount());
+        //the remembered report is in the order it is streamed in
+        Map<Employee, Double> streamed = new LinkedHashMap<>();
+        reportService.findSalaryDiscrepancies(ceo, 0.5, false, streamed::put);
+        Assertions.assertEquals(new ArrayList<>(streamed.keySet()), new ArrayList<>(overpaid.keySet()));
+
+        organizationCacheService.save(new Employee(400L, "Jane", "Roe", 1000.0, 123L));
+        EmployeeStructureNode changedCeo = organizationCacheService.getStructure();
+        Assertions.assertNotSame(overpaid, reportCache.getSalaryDiscrepancies(changedCeo, 0.5, false, ReportOrder.PRE_ORDER));
+        Assertions.assertEquals(3, reportCache.getHitCount());
+        Assertions.assertEquals(4, reportCache.getMissCount());
+    }
+}
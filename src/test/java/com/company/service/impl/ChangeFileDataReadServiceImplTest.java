@@ -0,0 +1,83 @@
+package com.company.service.impl;
+
+import com.company.dto.ChangeType;
+import com.company.dto.DataChange;
+import com.company.dto.Employee;
+import com.company.service.DataReadService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class ChangeFileDataReadServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final DataReadService<DataChange<Employee, Long>> dataReadService = new ChangeFileDataReadServiceImpl();
+
+    @Test
+    public void testReadDataInFileOrder() throws IOException {
+        Path file = write("change,Id,firstName,lastName,salary,managerId\r\n" +
+                "upsert,305,\"Doe, Jr.\",Roe,55000.5,101\r\n" +
+                "DELETE,123\r\n" +
+                "\n" +
+                " upsert ,1,Joe,Doe,60000,\n" +
+                "delete,305,Jane,Roe,55000,101");
+
+        List<DataChange<Employee, Long>> changes = read(file);
+
+        Assertions.assertEquals(4, changes.size());
+        Assertions.assertEquals(ChangeType.UPSERT, changes.get(0).getType());
+        Assertions.assertEquals(305L, changes.get(0).getId());
+        Assertions.assertEquals("Doe, Jr.", changes.get(0).getObject().getFirstName());
+        Assertions.assertEquals(55000.5, changes.get(0).getObject().getSalary());
+        Assertions.assertEquals(101L, changes.get(0).getObject().getManagerId());
+        Assertions.assertEquals(ChangeType.DELETE, changes.get(1).getType());
+        Assertions.assertEquals(123L, changes.get(1).getId());
+        Assertions.assertNull(changes.get(1).getObject());
+        Assertions.assertNull(changes.get(2).getObject().getManagerId());
+        Assertions.assertEquals(ChangeType.DELETE, changes.get(3).getType());
+        Assertions.assertEquals(305L, changes.get(3).getId());
+    }
+
+    @Test
+    public void testReadDataWithoutHeader() throws IOException {
+        Path file = write("delete,7\n");
+
+        List<DataChange<Employee, Long>> changes = read(file);
+
+        Assertions.assertEquals(1, changes.size());
+        Assertions.assertEquals(7L, changes.get(0).getId());
+    }
+
+    @Test
+    public void testReadDataWithUnknownChangeTypeShouldFail() throws IOException {
+        Path file = write("upsert,1,Joe,Doe,60000,\nmove,2,Jane,Doe,100,1\n");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> read(file));
+    }
+
+    @Test
+    public void testReadDataWithIncompleteUpsertShouldFail() throws IOException {
+        Path file = write("upsert,1,Joe\n");
+        Assertions.assertThrows(NumberFormatException.class, () -> read(file));
+    }
+
+    private List<DataChange<Employee, Long>> read(Path file) {
+        List<DataChange<Employee, Long>> changes = new ArrayList<>();
+        dataReadService.readData(file.toString(), changes::add);
+        return changes;
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("changes.csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,125 @@
+package com.company.service.impl;
+
+import static com.company.service.impl.OrganizationCacheServiceImplTest.EMPLOYEES_CSV_PATH;
+
+import com.company.dto.Employee;
+import com.company.service.DataReadService;
+import com.company.service.OrganizationCacheService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+class ChannelFileDataReadServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final DataReadService<Employee> dataReadService = new ChannelFileDataReadServiceImpl();
+
+    @Test
+    public void testReadDataMatchesLineReader() {
+        Set<Employee> expected = new FileDataReadServiceImpl().readData(EMPLOYEES_CSV_PATH);
+        Set<Employee> actual = dataReadService.readData(EMPLOYEES_CSV_PATH);
+
+        Assertions.assertEquals(expected.size(), actual.size());
+        Map<Long, Employee> actualById = actual.stream().collect(Collectors.toMap(Employee::getId, Function.identity()));
+        expected.forEach(employee -> assertSameEmployee(employee, actualById.get(employee.getId())));
+    }
+
+    @Test
+    public void testReadDataIntoConsumer() {
+        Set<Employee> expected = dataReadService.readData(EMPLOYEES_CSV_PATH);
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        dataReadService.readData(EMPLOYEES_CSV_PATH, organizationCacheService::save);
+
+        Assertions.assertEquals(expected.size(), organizationCacheService.findAll().size());
+        expected.forEach(employee -> assertSameEmployee(employee, organizationCacheService.findById(employee.getId())));
+    }
+
+    @Test
+    public void testReadDataWithQuotedFields() throws IOException {
+        Path file = write("Id,firstName,lastName,salary,managerId\r\n" +
+                "1,\"Doe, Jr.\",\"O\"\"Brien\",\"1000.50\",\r\n" +
+                "2, \"Anna\" ,Smith,900,\"1\"\r\n");
+
+        Map<Long, Employee> employees = readById(file);
+
+        Assertions.assertEquals(2, employees.size());
+        Assertions.assertEquals("Doe, Jr.", employees.get(1L).getFirstName());
+        Assertions.assertEquals("O\"Brien", employees.get(1L).getLastName());
+        Assertions.assertEquals(1000.5, employees.get(1L).getSalary());
+        Assertions.assertNull(employees.get(1L).getManagerId());
+        Assertions.assertEquals("Anna", employees.get(2L).getFirstName());
+        Assertions.assertEquals(1L, employees.get(2L).getManagerId());
+    }
+
+    @Test
+    public void testReadDataWithoutHeaderAndTrailingNewLine() throws IOException {
+        Path file = write("1,Joe,Doe,60000\n\n2,Jane,Doe,0.1,1");
+
+        Map<Long, Employee> employees = readById(file);
+
+        Assertions.assertEquals(2, employees.size());
+        Assertions.assertEquals(0.1, employees.get(2L).getSalary());
+        Assertions.assertEquals(1L, employees.get(2L).getManagerId());
+    }
+
+    @Test
+    public void testReadDataWithRecordLargerThanBuffer() throws IOException {
+        String longName = "A".repeat(200_000);
+        Path file = write("Id,firstName,lastName,salary,managerId\n1," + longName + ",Doe,100,\n2,Jane,Doe,90,1\n");
+
+        Map<Long, Employee> employees = readById(file);
+
+        Assertions.assertEquals(2, employees.size());
+        Assertions.assertEquals(longName, employees.get(1L).getFirstName());
+    }
+
+    @Test
+    public void testReadDataSharesEqualNames() throws IOException {
+        Path file = write("1,Joe,Doe,100,\n2,Jane,\"Doe\",90,1\n3,\"Joe\",Smith,80,1\n4,Doe,Joe,70,2\n");
+
+        Map<Long, Employee> employees = readById(file);
+
+        Assertions.assertEquals("Doe", employees.get(2L).getLastName());
+        Assertions.assertSame(employees.get(1L).getLastName(), employees.get(2L).getLastName());
+        Assertions.assertSame(employees.get(1L).getFirstName(), employees.get(3L).getFirstName());
+        Assertions.assertSame(employees.get(1L).getFirstName(), employees.get(4L).getLastName());
+        Assertions.assertSame(employees.get(1L).getLastName(), employees.get(4L).getFirstName());
+    }
+
+    @Test
+    public void testReadDataWithMalformedNumberShouldFail() throws IOException {
+        Path file = write("1,Joe,Doe,60000\n2x,Jane,Doe,100,1\n");
+        Assertions.assertThrows(NumberFormatException.class, () -> dataReadService.readData(file.toString()));
+    }
+
+    private Map<Long, Employee> readById(Path file) {
+        return dataReadService.readData(file.toString()).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("employees.csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    static void assertSameEmployee(Employee expected, Employee actual) {
+        Assertions.assertNotNull(actual);
+        Assertions.assertEquals(expected.getId(), actual.getId());
+        Assertions.assertEquals(expected.getFirstName(), actual.getFirstName());
+        Assertions.assertEquals(expected.getLastName(), actual.getLastName());
+        Assertions.assertEquals(expected.getSalary(), actual.getSalary());
+        Assertions.assertEquals(expected.getManagerId(), actual.getManagerId());
+    }
+}
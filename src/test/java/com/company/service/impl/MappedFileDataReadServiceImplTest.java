@@ -0,0 +1,108 @@
+package com.company.service.impl;
+
+import static com.company.service.impl.ChannelFileDataReadServiceImplTest.assertSameEmployee;
+import static com.company.service.impl.OrganizationCacheServiceImplTest.EMPLOYEES_CSV_PATH;
+
+import com.company.dto.Employee;
+import com.company.service.OrganizationCacheService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+class MappedFileDataReadServiceImplTest {
+
+    private static final int EMPLOYEES_COUNT = 20_000;
+
+    @TempDir
+    static Path tempDir;
+
+    private static Path employeesFile;
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        pool = new ForkJoinPool(4);
+        employeesFile = tempDir.resolve("employees.csv");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(employeesFile, StandardCharsets.UTF_8)) {
+            writer.write("Id,firstName,lastName,salary,managerId\n");
+            writer.write("1,Joe,Doe,100000,\n");
+            for (int id = 2; id <= EMPLOYEES_COUNT; id++) {
+                writer.write(id + ",First" + id + ",\"Last, " + id + "\"," + (30000 + random.nextInt(50000)) + "," + (1 + random.nextInt(id - 1)) + "\n");
+            }
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testReadDataMatchesSequentialReader() {
+        Set<Employee> expected = new ChannelFileDataReadServiceImpl().readData(employeesFile.toString());
+        Set<Employee> actual = new MappedFileDataReadServiceImpl(pool, 1024).readData(employeesFile.toString());
+
+        Assertions.assertEquals(EMPLOYEES_COUNT, expected.size());
+        assertSameEmployees(expected, actual);
+    }
+
+    @Test
+    public void testReadDataIntoCacheMatchesSequentialReader() {
+        Set<Employee> expected = new ChannelFileDataReadServiceImpl().readData(employeesFile.toString());
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        new MappedFileDataReadServiceImpl(pool, 1024).readData(employeesFile.toString(), organizationCacheService::save);
+
+        assertSameEmployees(expected, organizationCacheService.findAll());
+    }
+
+    @Test
+    public void testReadDataFallsBackToClasspathResource() {
+        Set<Employee> expected = new FileDataReadServiceImpl().readData(EMPLOYEES_CSV_PATH);
+        Set<Employee> actual = new MappedFileDataReadServiceImpl(pool).readData(EMPLOYEES_CSV_PATH);
+
+        assertSameEmployees(expected, actual);
+    }
+
+    @Test
+    public void testFailedReadStopsAllChunksBeforeThrowing() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        MappedFileDataReadServiceImpl dataReadService = new MappedFileDataReadServiceImpl(pool, 1024);
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> dataReadService.readData(employeesFile.toString(), employee -> {
+                    if (calls.incrementAndGet() == 100) {
+                        throw new IllegalStateException("Consumer failed");
+                    }
+                }));
+
+        int callsAfterFailure = calls.get();
+        Assertions.assertTrue(callsAfterFailure < EMPLOYEES_COUNT);
+        //no chunk is still running and calling the consumer
+        Thread.sleep(100);
+        Assertions.assertEquals(callsAfterFailure, calls.get());
+        Assertions.assertTrue(pool.awaitQuiescence(0, TimeUnit.MILLISECONDS));
+    }
+
+    private void assertSameEmployees(Set<Employee> expected, Set<Employee> actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        Map<Long, Employee> actualById = actual.stream().collect(Collectors.toMap(Employee::getId, Function.identity()));
+        expected.forEach(employee -> assertSameEmployee(employee, actualById.get(employee.getId())));
+    }
+}
@@ -0,0 +1,61 @@
+package com.company.service.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+class NameInternerTest {
+
+    @Test
+    public void testEqualByteRangesGiveSameInstance() {
+        NameInterner interner = new NameInterner();
+        byte[] first = "1,Jürgen,Doe".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "Jürgen".getBytes(StandardCharsets.UTF_8);
+
+        String name = interner.intern(first, 2, second.length);
+        Assertions.assertEquals("Jürgen", name);
+        Assertions.assertSame(name, interner.intern(second, 0, second.length));
+        Assertions.assertNotSame(name, interner.intern(first, 2, second.length - 1));
+        Assertions.assertEquals("", interner.intern(first, 0, 0));
+        Assertions.assertSame(interner.intern(first, 0, 0), interner.intern(second, 3, 0));
+    }
+
+    @Test
+    public void testEqualStringsGiveSameInstance() {
+        NameInterner interner = new NameInterner();
+        String name = interner.intern(new String("Jane"));
+
+        Assertions.assertSame(name, interner.intern(new String("Jane")));
+        Assertions.assertNotSame(name, interner.intern(new String("John")));
+        Assertions.assertNull(interner.intern(null));
+    }
+
+    @Test
+    public void testNamesBeyondMaximumAreNotShared() {
+        NameInterner interner = new NameInterner();
+        String[] names = new String[NameInterner.MAX_NAMES];
+        String[] strings = new String[NameInterner.MAX_NAMES];
+        for (int i = 0; i < NameInterner.MAX_NAMES; i++) {
+            byte[] bytes = ("Name" + i).getBytes(StandardCharsets.UTF_8);
+            names[i] = interner.intern(bytes, 0, bytes.length);
+            strings[i] = interner.intern("Name" + i);
+        }
+
+        byte[] bytes = "Beyond".getBytes(StandardCharsets.UTF_8);
+        String beyond = interner.intern(bytes, 0, bytes.length);
+        Assertions.assertEquals("Beyond", beyond);
+        Assertions.assertEquals("Beyond", interner.intern(bytes, 0, bytes.length));
+        Assertions.assertNotSame(beyond, interner.intern(bytes, 0, bytes.length));
+        String beyondString = interner.intern(new String("Beyond"));
+        Assertions.assertEquals("Beyond", beyondString);
+        Assertions.assertNotSame(beyondString, interner.intern(new String("Beyond")));
+
+        //the names kept before the maximum was reached are still shared
+        for (int i = 0; i < NameInterner.MAX_NAMES; i += 997) {
+            bytes = ("Name" + i).getBytes(StandardCharsets.UTF_8);
+            Assertions.assertSame(names[i], interner.intern(bytes, 0, bytes.length));
+            Assertions.assertSame(strings[i], interner.intern("Name" + i));
+        }
+    }
+}
@@ -1,15 +1,46 @@
 package com.company.service.impl;
 
+import com.company.dto.CompactOrganizationStructure;
+import com.company.dto.DataChange;
 import com.company.dto.Employee;
 import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationDiagnostics;
+import com.company.dto.ReportOrder;
 import com.company.service.DataReadService;
 import com.company.service.OrganizationCacheService;
+import com.company.service.ReportService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 
 
 class OrganizationCacheServiceImplTest {
@@ -37,6 +68,18 @@ class OrganizationCacheServiceImplTest {
         Assertions.assertEquals(employees.size(), organizationCacheService.findAll().size());
     }
 
+    @Test
+    public void testSaveReturnsReplacedEmployee() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        Employee employee = new Employee(1L, "John", "Doe", 1000.0);
+        Assertions.assertNull(organizationCacheService.save(employee));
+        Assertions.assertSame(employee, organizationCacheService.save(new Employee(1L, "John", "Doe", 2000.0)));
+
+        //the same holds once the structure is built
+        organizationCacheService.getStructure();
+        Assertions.assertEquals(2000.0, organizationCacheService.save(employee).getSalary());
+    }
+
     @Test
     public void testSaveNullShouldNotBeSaved() {
         OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
@@ -79,6 +122,70 @@ class OrganizationCacheServiceImplTest {
         Assertions.assertEquals(employees.size(), employeeStructureNodes.size());
     }
 
+    @Test
+    public void testGetCompactStructure() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+        CompactOrganizationStructure structure = organizationCacheService.getCompactStructure();
+
+        Assertions.assertEquals(employees.size(), structure.size());
+        Assertions.assertEquals(123, structure.getId(0));
+        Assertions.assertEquals(CompactOrganizationStructure.NO_PARENT, structure.getParent(0));
+        for (int i = 1; i < structure.size(); i++) {
+            int parent = structure.getParent(i);
+            Assertions.assertTrue(parent < i);
+            Assertions.assertEquals(structure.getEmployee(i).getManagerId(), structure.getId(parent));
+            Assertions.assertTrue(structure.getSubordinatesStart(parent) <= i && i < structure.getSubordinatesEnd(parent));
+        }
+    }
+
+    @Test
+    public void testCompactStructureDepthIndex() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+        CompactOrganizationStructure structure = organizationCacheService.getCompactStructure();
+
+        Assertions.assertEquals(1, structure.getDepth(0));
+        int[] histogram = new int[structure.getMaxDepth()];
+        for (int i = 0; i < structure.size(); i++) {
+            if (i > 0) {
+                Assertions.assertEquals(structure.getDepth(structure.getParent(i)) + 1, structure.getDepth(i));
+            }
+            int depth = structure.getDepth(i);
+            Assertions.assertTrue(structure.getLevelStart(depth) <= i && i < structure.getLevelEnd(depth));
+            histogram[depth - 1]++;
+        }
+        Assertions.assertArrayEquals(histogram, structure.getDepthHistogram());
+        Assertions.assertEquals(structure.size(), structure.getLevelStart(structure.getMaxDepth() + 1));
+        Assertions.assertEquals(0, structure.getLevelSize(structure.getMaxDepth() + 1));
+        Assertions.assertEquals(0, structure.getLevelSize(0));
+    }
+
+    @Test
+    public void testSeveralRootsGiveSameRootInBothStructures() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        //the root with the higher ID is saved first
+        organizationCacheService.save(new Employee(20L, "Jane", "Roe", 1000.0, null));
+        organizationCacheService.save(new Employee(21L, "Max", "Roe", 500.0, 20L));
+        organizationCacheService.save(new Employee(10L, "Joe", "Doe", 1000.0, null));
+        organizationCacheService.save(new Employee(11L, "Tom", "Doe", 500.0, 10L));
+
+        Assertions.assertEquals(10L, organizationCacheService.getStructure().getEmployee().getId());
+        Assertions.assertEquals(10L, organizationCacheService.getCompactStructure().getId(0));
+
+        organizationCacheService.remove(10L);
+        Assertions.assertEquals(20L, organizationCacheService.getStructure().getEmployee().getId());
+        Assertions.assertEquals(20L, organizationCacheService.getCompactStructure().getId(0));
+    }
+
+    @Test
+    public void testGetCompactStructureWhenCacheIsEmpty() {
+        CompactOrganizationStructure structure = new OrganizationCacheServiceImpl().getCompactStructure();
+        Assertions.assertEquals(0, structure.size());
+        Assertions.assertEquals(0, structure.getMaxDepth());
+        Assertions.assertEquals(0, structure.getLevelStart(1));
+    }
+
     private void buildStructureAsSet(EmployeeStructureNode employee, Set<EmployeeStructureNode> employeeStructureNodes) {
         if (employee == null) {
             return;
@@ -112,4 +219,556 @@ class OrganizationCacheServiceImplTest {
         structureNodes.remove(ceo);
         return false;
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testValidate() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+        Assertions.assertTrue(organizationCacheService.validate().isValid());
+
+        organizationCacheService.save(new Employee(1000L, "John", "Doe", 1000.0, 1001L));
+        organizationCacheService.save(new Employee(1001L, "John", "Doe", 1000.0, 1000L));
+        OrganizationDiagnostics diagnostics = organizationCacheService.validate();
+        Assertions.assertFalse(diagnostics.isValid());
+        Assertions.assertEquals(1, diagnostics.getCycles().size());
+        Assertions.assertEquals(2, diagnostics.getUnreachableCount());
+    }
+
+    @Test
+    public void testSaveAfterGetStructureUpdatesStructure() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+
+        //hire under the CEO, raise a salary and move Alice with her subordinate to Bob
+        organizationCacheService.save(new Employee(400L, "Jane", "Roe", 40000.0, 123L));
+        organizationCacheService.save(new Employee(124L, "Martin", "Chekov", 55000.0, 123L));
+        organizationCacheService.save(new Employee(300L, "Alice", "Hasacat", 50000.0, 125L));
+
+        //the previously returned structure is a snapshot and does not change
+        Assertions.assertEquals(employees.size(), managersById(ceo).size());
+        Assertions.assertEquals(49000.0, findNode(ceo, 124L).getEmployee().getSalary());
+
+        ceo = organizationCacheService.getStructure();
+        Map<Long, Long> managers = managersById(ceo);
+        Assertions.assertEquals(employees.size() + 1, managers.size());
+        Assertions.assertEquals(123L, managers.get(400L));
+        Assertions.assertEquals(125L, managers.get(300L));
+        Assertions.assertEquals(300L, managers.get(305L));
+        Assertions.assertEquals(55000.0, findNode(ceo, 124L).getEmployee().getSalary());
+        Assertions.assertTrue(findNode(ceo, 124L).getSubordinates().isEmpty());
+    }
+
+    @Test
+    public void testRemoveUpdatesStructure() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+        organizationCacheService.getStructure();
+
+        Assertions.assertEquals(300L, organizationCacheService.remove(300L).getId());
+        Assertions.assertNull(organizationCacheService.findById(300L));
+        Assertions.assertNull(organizationCacheService.remove(300L));
+        Assertions.assertEquals(Set.of(123L, 124L, 125L), managersById(organizationCacheService.getStructure()).keySet());
+
+        //the subordinates of a removed employee are linked again when it returns
+        organizationCacheService.save(new Employee(300L, "Alice", "Hasacat", 50000.0, 125L));
+        Map<Long, Long> managers = managersById(organizationCacheService.getStructure());
+        Assertions.assertEquals(125L, managers.get(300L));
+        Assertions.assertEquals(300L, managers.get(305L));
+
+        organizationCacheService.remove(123L);
+        Assertions.assertNull(organizationCacheService.getStructure());
+        organizationCacheService.save(new Employee(1L, "New", "Ceo", 90000.0));
+        Assertions.assertEquals(1L, organizationCacheService.getStructure().getEmployee().getId());
+    }
+
+    @Test
+    public void testIncrementalStructureMatchesRebuiltStructure() {
+        Random random = new Random(11);
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.save(new Employee(0L, "John", "Doe", 1000.0));
+        organizationCacheService.getStructure();
+
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(2000);
+            if (random.nextInt(4) == 0) {
+                organizationCacheService.remove(id);
+            } else {
+                //managers have smaller IDs, so the structure never contains a cycle
+                long managerId = random.nextInt((int) id);
+                organizationCacheService.save(new Employee(id, "John", "Doe", 1000.0 + random.nextInt(1000), managerId));
+            }
+
+            if (i % 1000 == 0) {
+                OrganizationCacheService<Employee, Long> rebuiltCacheService = new OrganizationCacheServiceImpl();
+                rebuiltCacheService.saveAll(organizationCacheService.findAll());
+                Assertions.assertEquals(managersById(rebuiltCacheService.getStructure()),
+                        managersById(organizationCacheService.getStructure()));
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalStructureKeepsPreOrderOfRebuiltStructure() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.save(new Employee(1L, "Joe", "Doe", 1000.0));
+        for (long id = 2; id <= 5; id++) {
+            organizationCacheService.save(new Employee(id, "John", "Doe", 500.0, 1L));
+        }
+        organizationCacheService.getStructure();
+        organizationCacheService.remove(2L);
+        organizationCacheService.save(new Employee(2L, "John", "Doe", 500.0, 1L));
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L), preOrderIds(organizationCacheService.getStructure()));
+
+        Random random = new Random(19);
+        ReportService reportService = new ReportServiceImpl();
+        for (int i = 0; i < 20_000; i++) {
+            long id = 2 + random.nextInt(2000);
+            if (random.nextInt(4) == 0) {
+                organizationCacheService.remove(id);
+            } else {
+                long managerId = 1 + random.nextInt((int) id - 1);
+                organizationCacheService.save(new Employee(id, "John", "Doe", 1000 * (10 + random.nextInt(90)), managerId));
+            }
+
+            if (i % 1000 == 0) {
+                OrganizationCacheService<Employee, Long> rebuiltCacheService = new OrganizationCacheServiceImpl();
+                rebuiltCacheService.saveAll(organizationCacheService.findAll());
+                EmployeeStructureNode rebuilt = rebuiltCacheService.getStructure();
+                EmployeeStructureNode updated = organizationCacheService.getStructure();
+                Assertions.assertEquals(preOrderIds(rebuilt), preOrderIds(updated));
+                Assertions.assertEquals(
+                        new ArrayList<>(reportService.getSalaryDiscrepancies(rebuilt, 0.2, true, ReportOrder.PRE_ORDER).keySet()),
+                        new ArrayList<>(reportService.getSalaryDiscrepancies(updated, 0.2, true, ReportOrder.PRE_ORDER).keySet()));
+            }
+        }
+    }
+
+    private static List<Long> preOrderIds(EmployeeStructureNode root) {
+        List<Long> ids = new ArrayList<>();
+        ReportServiceImplTest.collectEmployees(root).forEach(employee -> ids.add(employee.getId()));
+        return ids;
+    }
+
+    @Test
+    public void testGetSalaryDiscrepancy() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+
+        Assertions.assertEquals(0.2, organizationCacheService.getSalaryDiscrepancy(123L));
+        Assertions.assertEquals(-0.0204081633, organizationCacheService.getSalaryDiscrepancy(124L));
+        Assertions.assertNull(organizationCacheService.getSalaryDiscrepancy(305L));
+        Assertions.assertNull(organizationCacheService.getSalaryDiscrepancy(999L));
+
+        //a raise of a subordinate, a raise of the manager and a new subordinate
+        organizationCacheService.save(new Employee(125L, "Bob", "Ronstad", 51000.0, 123L));
+        Assertions.assertEquals(0.1666666667, organizationCacheService.getSalaryDiscrepancy(123L));
+        organizationCacheService.save(new Employee(123L, "Joe", "Doe", 100000.0));
+        Assertions.assertEquals(0.5, organizationCacheService.getSalaryDiscrepancy(123L));
+        organizationCacheService.save(new Employee(400L, "Jane", "Roe", 7500.0, 305L));
+        Assertions.assertEquals(0.75, organizationCacheService.getSalaryDiscrepancy(305L));
+
+        organizationCacheService.remove(300L);
+        Assertions.assertNull(organizationCacheService.getSalaryDiscrepancy(124L));
+        //Brett waits for a new manager but still manages Jane
+        Assertions.assertEquals(Map.of(organizationCacheService.findById(123L), 0.5, organizationCacheService.findById(305L), 0.75),
+                organizationCacheService.getSalaryDiscrepancies(0.4, false));
+    }
+
+    @Test
+    public void testIncrementalSalaryDiscrepanciesMatchReports() {
+        Random random = new Random(13);
+        ReportService reportService = new ReportServiceImpl();
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.save(new Employee(0L, "John", "Doe", 100000.0));
+        organizationCacheService.getStructure();
+
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(2000);
+            if (random.nextInt(4) == 0) {
+                organizationCacheService.remove(id);
+            } else {
+                long managerId = random.nextInt((int) id);
+                organizationCacheService.save(new Employee(id, "John", "Doe", 1000 * (10 + random.nextInt(90)), managerId));
+            }
+
+            if (i % 1000 == 0) {
+                //managers waiting for a removed manager of their own are included as well
+                Map<Employee, Double> overpaid = new HashMap<>();
+                Map<Employee, Double> underpaid = new HashMap<>();
+                for (EmployeeStructureNode manager : withDirectSubordinates(organizationCacheService.findAll())) {
+                    overpaid.putAll(reportService.getSalaryDiscrepancies(manager, 0.5, false));
+                    underpaid.putAll(reportService.getSalaryDiscrepancies(manager, 0.2, true));
+                    Assertions.assertEquals(reportService.getSalaryDiscrepancies(manager, -10, false).get(manager.getEmployee()),
+                            organizationCacheService.getSalaryDiscrepancy(manager.getEmployee().getId()));
+                }
+                Assertions.assertEquals(overpaid, organizationCacheService.getSalaryDiscrepancies(0.5, false));
+                Assertions.assertEquals(underpaid, organizationCacheService.getSalaryDiscrepancies(0.2, true));
+            }
+        }
+    }
+
+    @Test
+    public void testApplyChangesMatchesRebuiltStructure() {
+        Random random = new Random(17);
+        ReportService reportService = new ReportServiceImpl();
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.save(new Employee(0L, "John", "Doe", 100000.0));
+        organizationCacheService.getStructure();
+
+        for (int batch = 0; batch < 200; batch++) {
+            //a batch may change the same employee several times, the last change wins
+            List<DataChange<Employee, Long>> changes = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                long id = 1 + random.nextInt(2000);
+                if (random.nextInt(4) == 0) {
+                    changes.add(DataChange.delete(id));
+                } else {
+                    long managerId = random.nextInt((int) id);
+                    changes.add(DataChange.upsert(id, new Employee(id, "John", "Doe", 1000 * (10 + random.nextInt(90)), managerId)));
+                }
+            }
+            organizationCacheService.applyChanges(changes);
+
+            if (batch % 20 == 0) {
+                OrganizationCacheService<Employee, Long> rebuiltCacheService = new OrganizationCacheServiceImpl();
+                rebuiltCacheService.saveAll(organizationCacheService.findAll());
+                Assertions.assertEquals(managersById(rebuiltCacheService.getStructure()),
+                        managersById(organizationCacheService.getStructure()));
+                for (EmployeeStructureNode manager : withDirectSubordinates(organizationCacheService.findAll())) {
+                    Assertions.assertEquals(reportService.getSalaryDiscrepancies(manager, -10, false).get(manager.getEmployee()),
+                            organizationCacheService.getSalaryDiscrepancy(manager.getEmployee().getId()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testValidateChangesMatchesFullValidation() {
+        Random random = new Random(23);
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.save(new Employee(0L, "John", "Doe", 100000.0));
+        for (long id = 1; id < 500; id++) {
+            organizationCacheService.save(new Employee(id, "John", "Doe", 50000.0, (long) random.nextInt((int) id)));
+        }
+        organizationCacheService.getStructure();
+
+        int invalidBatches = 0;
+        for (int batch = 0; batch < 500; batch++) {
+            Map<Long, Employee> previous = new HashMap<>();
+            List<DataChange<Employee, Long>> changes = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(3); i++) {
+                long id = random.nextInt(600);
+                previous.putIfAbsent(id, organizationCacheService.findById(id));
+                int type = random.nextInt(10);
+                if (type == 0) {
+                    changes.add(DataChange.delete(id));
+                } else {
+                    //any manager, so cycles, orphans and further roots are created as well
+                    Long managerId = type == 1 ? null : (long) random.nextInt(type == 2 ? 700 : 600);
+                    changes.add(DataChange.upsert(id, new Employee(id, "John", "Doe", 50000.0, managerId)));
+                }
+            }
+            organizationCacheService.applyChanges(changes);
+
+            OrganizationDiagnostics expected = organizationCacheService.validate();
+            OrganizationDiagnostics actual = organizationCacheService.validate(previous.keySet());
+            Assertions.assertEquals(expected.isValid(), actual.isValid());
+            Assertions.assertEquals(expected.getEmployeesCount(), actual.getEmployeesCount());
+            Assertions.assertEquals(new HashSet<>(expected.getRoots()), new HashSet<>(actual.getRoots()));
+            Assertions.assertEquals(new HashSet<>(expected.getOrphans()), new HashSet<>(actual.getOrphans()));
+            Assertions.assertEquals(cycleMembers(expected), cycleMembers(actual));
+            Assertions.assertEquals(expected.getUnreachableCount(), actual.getUnreachableCount());
+
+            if (!actual.isValid()) {
+                invalidBatches++;
+                List<DataChange<Employee, Long>> rollback = new ArrayList<>();
+                previous.forEach((id, employee) -> rollback.add(employee == null ? DataChange.delete(id) : DataChange.upsert(id, employee)));
+                organizationCacheService.applyChanges(rollback);
+                Assertions.assertTrue(organizationCacheService.validate().isValid());
+            }
+        }
+        //both valid and invalid batches are checked
+        Assertions.assertTrue(invalidBatches > 50 && invalidBatches < 450, "Invalid batches: " + invalidBatches);
+    }
+
+    private static Set<Set<Employee>> cycleMembers(OrganizationDiagnostics diagnostics) {
+        Set<Set<Employee>> cycles = new HashSet<>();
+        diagnostics.getCycles().forEach(cycle -> cycles.add(new HashSet<>(cycle)));
+        return cycles;
+    }
+
+    @Test
+    public void testApplyChangesPublishesBatchAsOneVersion() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+
+        organizationCacheService.applyChanges(List.of(
+                DataChange.upsert(400L, new Employee(400L, "Jane", "Roe", 40000.0, 401L)),
+                DataChange.upsert(401L, new Employee(401L, "Max", "Roe", 45000.0, 123L)),
+                DataChange.delete(305L),
+                DataChange.upsert(401L, new Employee(401L, "Max", "Roe", 60000.0, 123L))));
+
+        EmployeeStructureNode changedCeo = organizationCacheService.getStructure();
+        Assertions.assertNotSame(ceo, changedCeo);
+        Assertions.assertSame(changedCeo, organizationCacheService.getStructure());
+        Assertions.assertEquals(401L, findNode(changedCeo, 400L).getManager().getEmployee().getId());
+        Assertions.assertEquals(60000.0, findNode(changedCeo, 401L).getEmployee().getSalary());
+        Assertions.assertNull(findNode(changedCeo, 305L));
+        Assertions.assertNull(organizationCacheService.findById(305L));
+        Assertions.assertEquals(0.3333333333, organizationCacheService.getSalaryDiscrepancy(401L));
+    }
+
+    @Test
+    public void testGetStructureIsBuiltOncePerDataVersion() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+        CompactOrganizationStructure compactStructure = organizationCacheService.getCompactStructure();
+        Assertions.assertSame(ceo, organizationCacheService.getStructure());
+        Assertions.assertSame(compactStructure, organizationCacheService.getCompactStructure());
+
+        organizationCacheService.save(new Employee(400L, "Jane", "Roe", 40000.0, 123L));
+        Assertions.assertNotSame(ceo, organizationCacheService.getStructure());
+        Assertions.assertNotSame(compactStructure, organizationCacheService.getCompactStructure());
+        Assertions.assertEquals(employees.size() + 1, organizationCacheService.getCompactStructure().size());
+    }
+
+    @Test
+    public void testConcurrentReadersAndWritersSeeConsistentStructures() throws InterruptedException {
+        int employeesCount = 2000;
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        Random setUpRandom = new Random(17);
+        organizationCacheService.save(new Employee(0L, "John", "Doe", 100000.0));
+        for (long id = 1; id < employeesCount; id++) {
+            organizationCacheService.save(new Employee(id, "John", "Doe", 1000 * (10 + setUpRandom.nextInt(90)), (long) setUpRandom.nextInt((int) id)));
+        }
+
+        int writers = 3;
+        int readers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch writersDone = new CountDownLatch(writers);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicInteger reads = new AtomicInteger();
+
+        for (int writer = 0; writer < writers; writer++) {
+            Random random = new Random(writer);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 20_000; i++) {
+                        long id = 1 + random.nextInt(employeesCount - 1);
+                        if (random.nextInt(5) == 0) {
+                            organizationCacheService.remove(id);
+                        } else {
+                            organizationCacheService.save(new Employee(id, "John", "Doe",
+                                    1000 * (10 + random.nextInt(90)), (long) random.nextInt((int) id)));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    writersDone.countDown();
+                }
+            });
+        }
+        ReportService reportService = new ReportServiceImpl();
+        for (int reader = 0; reader < readers; reader++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    while (writersDone.getCount() > 0) {
+                        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+                        Map<Long, Long> managers = managersById(ceo);
+                        Assertions.assertEquals(0L, ceo.getEmployee().getId());
+                        //walking the same snapshot again gives the same result, nobody modifies it
+                        Assertions.assertEquals(managers, managersById(ceo));
+                        reportService.getOrganizationReport(ceo, 0.5, 0.2, 3);
+                        //the discrepancy index is read without a lock while the writers update it
+                        for (Map.Entry<Employee, Double> entry : organizationCacheService.getSalaryDiscrepancies(0.5, false).entrySet()) {
+                            Assertions.assertTrue(entry.getValue() > 0.5);
+                        }
+                        organizationCacheService.getSalaryDiscrepancy((long) ThreadLocalRandom.current().nextInt(employeesCount));
+
+                        CompactOrganizationStructure compactStructure = organizationCacheService.getCompactStructure();
+                        for (int i = 1; i < compactStructure.size(); i++) {
+                            Assertions.assertEquals(compactStructure.getEmployee(i).getManagerId(),
+                                    compactStructure.getId(compactStructure.getParent(i)));
+                        }
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assertions.assertTrue(failures.isEmpty(), () -> "Failures: " + failures);
+        Assertions.assertTrue(reads.get() > 0);
+
+        OrganizationCacheService<Employee, Long> rebuiltCacheService = new OrganizationCacheServiceImpl();
+        rebuiltCacheService.saveAll(organizationCacheService.findAll());
+        Assertions.assertEquals(managersById(rebuiltCacheService.getStructure()),
+                managersById(organizationCacheService.getStructure()));
+        Assertions.assertEquals(rebuiltCacheService.getCompactStructure().size(),
+                organizationCacheService.getCompactStructure().size());
+        Assertions.assertEquals(rebuiltCacheService.getSalaryDiscrepancies(0.5, false),
+                organizationCacheService.getSalaryDiscrepancies(0.5, false));
+        Assertions.assertEquals(rebuiltCacheService.getSalaryDiscrepancies(0.2, true),
+                organizationCacheService.getSalaryDiscrepancies(0.2, true));
+    }
+
+    @Test
+    public void testDiscrepancyQueriesDoNotWaitForWriters() throws Exception {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+        Double discrepancy = organizationCacheService.getSalaryDiscrepancy(123L);
+
+        //the lock held by writers and by copies of the structure
+        Field lockField = OrganizationCacheServiceImpl.class.getDeclaredField("orgStructureBuildLock");
+        lockField.setAccessible(true);
+        Lock lock = (Lock) lockField.get(organizationCacheService);
+        lock.lock();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Double> pointQuery = executor.submit(() -> organizationCacheService.getSalaryDiscrepancy(123L));
+            Assertions.assertEquals(discrepancy, pointQuery.get(10, TimeUnit.SECONDS));
+            Future<Map<Employee, Double>> rangeQuery = executor.submit(() -> organizationCacheService.getSalaryDiscrepancies(0.1, false));
+            Assertions.assertEquals(discrepancy, rangeQuery.get(10, TimeUnit.SECONDS).get(organizationCacheService.findById(123L)));
+        } finally {
+            lock.unlock();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Returns a single level node with its direct subordinates for every employee.
+     */
+    private List<EmployeeStructureNode> withDirectSubordinates(Set<Employee> employees) {
+        Map<Long, EmployeeStructureNode> managers = new HashMap<>();
+        employees.forEach(employee -> managers.put(employee.getId(), new EmployeeStructureNode(employee)));
+        employees.forEach(employee -> {
+            EmployeeStructureNode manager = managers.get(employee.getManagerId());
+            if (manager != null) {
+                manager.addSubordinate(new EmployeeStructureNode(employee));
+            }
+        });
+        return new ArrayList<>(managers.values());
+    }
+
+    private Map<Long, Long> managersById(EmployeeStructureNode ceo) {
+        Map<Long, Long> managers = new HashMap<>();
+        Deque<EmployeeStructureNode> stack = new ArrayDeque<>(List.of(ceo));
+        while (!stack.isEmpty()) {
+            EmployeeStructureNode node = stack.pop();
+            managers.put(node.getEmployee().getId(), node.getManager() == null ? null : node.getManager().getEmployee().getId());
+            node.getSubordinates().forEach(subordinate -> {
+                Assertions.assertSame(node, subordinate.getManager());
+                Assertions.assertEquals(node.getEmployee().getId(), subordinate.getEmployee().getManagerId());
+                stack.push(subordinate);
+            });
+        }
+        return managers;
+    }
+
+    private EmployeeStructureNode findNode(EmployeeStructureNode node, Long employeeId) {
+        if (node.getEmployee().getId().equals(employeeId)) {
+            return node;
+        }
+        for (EmployeeStructureNode subordinate : node.getSubordinates()) {
+            EmployeeStructureNode found = findNode(subordinate, employeeId);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testWriteAndLoadSnapshot(@TempDir Path tempDir) throws IOException {
+        Path sourceFile = tempDir.resolve("employees.csv");
+        Path snapshotFile = tempDir.resolve("employees.csv.snapshot");
+        Files.write(sourceFile, "Id,firstName,lastName,salary,managerId\n".getBytes(StandardCharsets.UTF_8));
+
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+        organizationCacheService.save(new Employee(999L, "Orphan", "Doe", 1000.0, 998L));
+        Assertions.assertTrue(organizationCacheService.writeSnapshot(snapshotFile, sourceFile));
+
+        OrganizationCacheService<Employee, Long> loadedCacheService = new OrganizationCacheServiceImpl();
+        Assertions.assertTrue(loadedCacheService.loadSnapshot(snapshotFile, sourceFile));
+
+        Assertions.assertEquals(employees.size() + 1, loadedCacheService.findAll().size());
+        organizationCacheService.findAll().forEach(employee ->
+                ChannelFileDataReadServiceImplTest.assertSameEmployee(employee, loadedCacheService.findById(employee.getId())));
+
+        EmployeeStructureNode ceo = loadedCacheService.getStructure();
+        Assertions.assertEquals(123, ceo.getEmployee().getId());
+        Set<EmployeeStructureNode> employeeStructureNodes = new HashSet<>();
+        buildStructureAsSet(ceo, employeeStructureNodes);
+        Assertions.assertEquals(employees.size(), employeeStructureNodes.size());
+    }
+
+    @Test
+    public void testLoadSnapshotWhenSourceChangedShouldFail(@TempDir Path tempDir) throws IOException {
+        Path sourceFile = tempDir.resolve("employees.csv");
+        Path snapshotFile = tempDir.resolve("employees.csv.snapshot");
+        Files.write(sourceFile, "Id,firstName,lastName,salary,managerId\n".getBytes(StandardCharsets.UTF_8));
+
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+        Assertions.assertTrue(organizationCacheService.writeSnapshot(snapshotFile, sourceFile));
+
+        Files.setLastModifiedTime(sourceFile, FileTime.fromMillis(Files.getLastModifiedTime(sourceFile).toMillis() + 1000));
+        Assertions.assertFalse(new OrganizationCacheServiceImpl().loadSnapshot(snapshotFile, sourceFile));
+
+        Assertions.assertFalse(new OrganizationCacheServiceImpl().loadSnapshot(tempDir.resolve("missing.snapshot"), sourceFile));
+    }
+
+    @Test
+    public void testLoadCorruptSnapshotShouldFail(@TempDir Path tempDir) throws IOException {
+        Path sourceFile = tempDir.resolve("employees.csv");
+        Path snapshotFile = tempDir.resolve("employees.csv.snapshot");
+        Files.write(sourceFile, "Id,firstName,lastName,salary,managerId\n".getBytes(StandardCharsets.UTF_8));
+
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.saveAll(employees);
+        organizationCacheService.save(new Employee(999L, "Orphan", "Doe", 1000.0, 998L));
+        Assertions.assertTrue(organizationCacheService.writeSnapshot(snapshotFile, sourceFile));
+        byte[] snapshot = Files.readAllBytes(snapshotFile);
+        ByteBuffer header = ByteBuffer.wrap(snapshot).order(ByteOrder.LITTLE_ENDIAN);
+        int count = header.getInt(24);
+        int orphanCount = header.getInt(40);
+        int managersPosition = 48 + count * (Long.BYTES + Double.BYTES) + orphanCount * Long.BYTES;
+        int firstNamesPosition = managersPosition + count * Integer.BYTES;
+        int orphanRowsPosition = firstNamesPosition + 2 * count * Integer.BYTES;
+        int nameOffsetsPosition = orphanRowsPosition + orphanCount * Integer.BYTES;
+
+        //the size and modification time of the source file still match, only the content is broken
+        int[][] corruptions = {
+                {24, Integer.MAX_VALUE},
+                {24, -1},
+                {28, count},
+                {managersPosition, count},
+                {managersPosition, -3},
+                {firstNamesPosition, Integer.MAX_VALUE},
+                {orphanRowsPosition, -1},
+                {nameOffsetsPosition + Integer.BYTES, Integer.MAX_VALUE}
+        };
+        for (int[] corruption : corruptions) {
+            byte[] corrupt = snapshot.clone();
+            ByteBuffer.wrap(corrupt).order(ByteOrder.LITTLE_ENDIAN).putInt(corruption[0], corruption[1]);
+            Files.write(snapshotFile, corrupt);
+
+            OrganizationCacheService<Employee, Long> loadedCacheService = new OrganizationCacheServiceImpl();
+            Assertions.assertFalse(loadedCacheService.loadSnapshot(snapshotFile, sourceFile));
+            Assertions.assertTrue(loadedCacheService.findAll().isEmpty());
+        }
+    }
+}
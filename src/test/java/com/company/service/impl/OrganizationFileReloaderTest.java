@@ -0,0 +1,208 @@
+package com.company.service.impl;
+
+import com.company.dto.DataChange;
+import com.company.dto.Employee;
+import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationDiagnostics;
+import com.company.service.OrganizationCacheService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class OrganizationFileReloaderTest {
+
+    private static final String HEADER = "Id,firstName,lastName,salary,managerId\n";
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private OrganizationCacheService<Employee, Long> organizationCacheService;
+    private OrganizationFileReloader reloader;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = tempDir.resolve("employees.csv");
+        write("1,Joe,Doe,300,\n2,Jane,Doe,100,1\n3,Anna,Smith,100,1\n4,Tom,Smith,50,2\n");
+        organizationCacheService = new OrganizationCacheServiceImpl();
+        reloader = new OrganizationFileReloader(file, organizationCacheService, new ChannelFileDataReadServiceImpl(),
+                new OrganizationValidationServiceImpl());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reloader.close();
+    }
+
+    @Test
+    public void testReloadLoadsFile() {
+        Assertions.assertTrue(reloader.reload().isValid());
+
+        Assertions.assertEquals(4, organizationCacheService.findAll().size());
+        EmployeeStructureNode ceo = reloader.query(organizationCacheService::getStructure);
+        Assertions.assertEquals(1L, ceo.getEmployee().getId());
+        Assertions.assertEquals(2, ceo.getSubordinates().size());
+    }
+
+    @Test
+    public void testReloadAppliesOnlyChanges() throws IOException {
+        reloader.reload();
+        Employee unchanged = organizationCacheService.findById(2L);
+
+        write("1,Joe,Doe,300,\n2,Jane,Doe,100,1\n3,Anna,Smith,120,1\n5,Max,Miller,60,2\n");
+        Assertions.assertTrue(reloader.reload().isValid());
+
+        Assertions.assertSame(unchanged, organizationCacheService.findById(2L));
+        Assertions.assertEquals(120, organizationCacheService.findById(3L).getSalary());
+        Assertions.assertNull(organizationCacheService.findById(4L));
+        Assertions.assertEquals(2L, organizationCacheService.findById(5L).getManagerId());
+        Assertions.assertEquals(4, organizationCacheService.findAll().size());
+        OrganizationCacheService<Employee, Long> expected = new OrganizationCacheServiceImpl();
+        new ChannelFileDataReadServiceImpl().readData(file.toString(), expected::save);
+        Assertions.assertEquals(expected.getSalaryDiscrepancy(2L), organizationCacheService.getSalaryDiscrepancy(2L));
+    }
+
+    @Test
+    public void testReloadKeepsPreviousDataOfInvalidFile() throws IOException {
+        reloader.reload();
+
+        write("1,Joe,Doe,300,\n2,Jane,Doe,100,\n");
+        Assertions.assertFalse(reloader.reload().isValid());
+
+        Assertions.assertEquals(4, organizationCacheService.findAll().size());
+        Assertions.assertEquals(1L, organizationCacheService.findById(2L).getManagerId());
+    }
+
+    @Test
+    public void testReloadRestoresFileAfterAppliedChanges() {
+        reloader.reload();
+        reloader.applyChanges(List.of(DataChange.upsert(5L, new Employee(5L, "Max", "Miller", 60, 2L)),
+                DataChange.delete(4L)));
+        Assertions.assertNotNull(organizationCacheService.findById(5L));
+        Assertions.assertNull(organizationCacheService.findById(4L));
+
+        reloader.reload();
+
+        Assertions.assertNull(organizationCacheService.findById(5L));
+        Assertions.assertNotNull(organizationCacheService.findById(4L));
+        Assertions.assertEquals(4, organizationCacheService.findAll().size());
+    }
+
+    @Test
+    public void testRepeatedApplyRemembersEveryIdOnce() {
+        reloader.reload();
+        Employee employee = new Employee(5L, "Max", "Miller", 60, 2L);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(reloader.applyChanges(List.of(DataChange.upsert(5L, employee),
+                    DataChange.upsert(5L, employee))).isValid());
+        }
+        Assertions.assertTrue(reloader.applyChanges(List.of(DataChange.delete(5L))).isValid());
+        Assertions.assertTrue(reloader.applyChanges(List.of(DataChange.upsert(5L, employee))).isValid());
+        Assertions.assertEquals(5, reloader.getLoadedIdCount());
+
+        reloader.reload();
+
+        Assertions.assertNull(organizationCacheService.findById(5L));
+        Assertions.assertEquals(4, organizationCacheService.findAll().size());
+        Assertions.assertEquals(4, reloader.getLoadedIdCount());
+    }
+
+    @Test
+    public void testApplyRejectsChangesBreakingOrganization() {
+        reloader.reload();
+        Employee manager = organizationCacheService.findById(2L);
+
+        OrganizationDiagnostics diagnostics = reloader.applyChanges(List.of(
+                DataChange.upsert(5L, new Employee(5L, "Max", "Miller", 60, 2L)), DataChange.delete(2L)));
+
+        Assertions.assertFalse(diagnostics.isValid());
+        Assertions.assertEquals(Set.of(4L, 5L), diagnostics.getOrphans().stream().map(Employee::getId).collect(Collectors.toSet()));
+        Assertions.assertSame(manager, organizationCacheService.findById(2L));
+        Assertions.assertNull(organizationCacheService.findById(5L));
+        Assertions.assertEquals(4, organizationCacheService.findAll().size());
+        Assertions.assertEquals(4, reloader.getLoadedIdCount());
+        EmployeeStructureNode ceo = reloader.query(organizationCacheService::getStructure);
+        Assertions.assertEquals(2, ceo.getSubordinates().size());
+        Assertions.assertEquals(1 - 50.0 / 100, organizationCacheService.getSalaryDiscrepancy(2L), 1e-10);
+    }
+
+    @Test
+    public void testApplyDoesNotScaleWithOrganizationSize() throws IOException {
+        int employeesCount = 200_000;
+        StringBuilder records = new StringBuilder("1,Joe,Doe,300,\n");
+        Random random = new Random(31);
+        for (int id = 2; id <= employeesCount; id++) {
+            records.append(id).append(",John,Doe,").append(100 + random.nextInt(100)).append(',')
+                    .append(1 + random.nextInt(id - 1)).append('\n');
+        }
+        write(records.toString());
+        Assertions.assertTrue(reloader.reload().isValid());
+
+        long validationNanos = Long.MAX_VALUE;
+        long applyNanos = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            organizationCacheService.validate();
+            validationNanos = Math.min(validationNanos, System.nanoTime() - start);
+
+            //a hire, a raise, a move and a leaver, each applied as its own batch
+            start = System.nanoTime();
+            for (int i = 0; i < 25; i++) {
+                long id = employeesCount + 1 + i;
+                long managerId = 1 + random.nextInt(employeesCount);
+                Assertions.assertTrue(reloader.applyChanges(List.of(DataChange.upsert(id, new Employee(id, "Max", "Miller", 150, managerId)))).isValid());
+                Assertions.assertTrue(reloader.applyChanges(List.of(DataChange.upsert(id, new Employee(id, "Max", "Miller", 160, managerId)))).isValid());
+                Assertions.assertTrue(reloader.applyChanges(List.of(DataChange.upsert(id, new Employee(id, "Max", "Miller", 160, 1L)))).isValid());
+                Assertions.assertTrue(reloader.applyChanges(List.of(DataChange.delete(id))).isValid());
+            }
+            applyNanos = Math.min(applyNanos, System.nanoTime() - start);
+        }
+
+        //100 batches take less time than validating the whole organization once
+        Assertions.assertTrue(applyNanos < validationNanos,
+                "Applying took " + applyNanos / 1000 + " us, validating " + validationNanos / 1000 + " us");
+        Assertions.assertEquals(employeesCount, organizationCacheService.findAll().size());
+        Assertions.assertEquals(employeesCount + 25, reloader.getLoadedIdCount());
+    }
+
+    @Test
+    public void testReloadIfModifiedSkipsUnchangedFile() throws IOException {
+        reloader.reload();
+
+        Assertions.assertNull(reloader.reloadIfModified());
+        write("1,Joe,Doe,300,\n2,Jane,Doe,100,1\n");
+        Assertions.assertNotNull(reloader.reloadIfModified());
+        Assertions.assertEquals(2, organizationCacheService.findAll().size());
+    }
+
+    @Test
+    public void testStartReloadsModifiedFile() throws IOException, InterruptedException {
+        reloader.reload();
+        reloader.start();
+
+        write("1,Joe,Doe,300,\n2,Jane,Doe,100,1\n3,Anna,Smith,100,1\n4,Tom,Smith,80,2\n");
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (reloader.query(() -> organizationCacheService.findById(4L).getSalary()) != 80
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assertions.assertEquals(80, organizationCacheService.findById(4L).getSalary());
+    }
+
+    private void write(String records) throws IOException {
+        Files.write(file, (HEADER + records).getBytes(StandardCharsets.UTF_8));
+    }
+}
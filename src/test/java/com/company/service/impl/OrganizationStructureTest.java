@@ -0,0 +1,134 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.dto.EmployeeStructureNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+class OrganizationStructureTest {
+
+    @Test
+    public void testBuildLinksSubordinatesListedBeforeTheirManager() {
+        OrganizationStructure structure = new OrganizationStructure();
+        structure.build(List.of(
+                new Employee(4L, "Tom", "Smith", 50.0, 2L),
+                new Employee(3L, "Anna", "Smith", 100.0, 1L),
+                new Employee(2L, "Jane", "Doe", 100.0, 1L),
+                new Employee(1L, "Joe", "Doe", 300.0, null)));
+
+        EmployeeStructureNode root = structure.getRoot();
+        Assertions.assertEquals(1L, root.getEmployee().getId());
+        Assertions.assertEquals(Set.of(1L, 2L, 3L, 4L), describe(root).keySet());
+        Assertions.assertEquals(new TreeSet<>(List.of(2L, 3L)), describe(root).get(1L));
+        Assertions.assertEquals(new TreeSet<>(List.of(4L)), describe(root).get(2L));
+        Assertions.assertEquals(200.0, root.getSubordinatesSalary());
+        Assertions.assertEquals(1 - 100.0 / 300, structure.getSalaryDiscrepancy(1L), 1e-10);
+    }
+
+    @Test
+    public void testBuildKeepsOrphansWaitingForTheirManager() {
+        OrganizationStructure structure = new OrganizationStructure();
+        structure.build(List.of(
+                new Employee(1L, "Joe", "Doe", 300.0, null),
+                new Employee(5L, "Max", "Miller", 60.0, 9L),
+                new Employee(6L, "Eva", "Miller", 40.0, 9L),
+                new Employee(7L, "Ben", "Miller", 30.0, 5L)));
+
+        Assertions.assertEquals(Collections.singleton(1L), describe(structure.getRoot()).keySet());
+        //the subtree of a waiting employee is kept and indexed
+        Assertions.assertNotNull(structure.getSalaryDiscrepancy(5L));
+
+        structure.save(new Employee(9L, "Ann", "Miller", 100.0, 1L));
+
+        Map<Long, TreeSet<Long>> tree = describe(structure.getRoot());
+        Assertions.assertEquals(5, tree.size());
+        Assertions.assertEquals(new TreeSet<>(List.of(5L, 6L)), tree.get(9L));
+        Assertions.assertEquals(new TreeSet<>(List.of(7L)), tree.get(5L));
+        Assertions.assertEquals(1 - 50.0 / 100, structure.getSalaryDiscrepancy(9L), 1e-10);
+    }
+
+    @Test
+    public void testBuildWithSeveralRootsPicksLowestId() {
+        OrganizationStructure structure = new OrganizationStructure();
+        structure.build(List.of(
+                new Employee(20L, "Jane", "Roe", 1000.0, null),
+                new Employee(21L, "Max", "Roe", 500.0, 20L),
+                new Employee(10L, "Joe", "Doe", 1000.0, null),
+                new Employee(11L, "Tom", "Doe", 500.0, 10L)));
+
+        Assertions.assertEquals(10L, structure.getRoot().getEmployee().getId());
+        Assertions.assertEquals(Set.of(10L, 11L), describe(structure.getRoot()).keySet());
+        //the other tree is kept and indexed
+        Assertions.assertNotNull(structure.getSalaryDiscrepancy(20L));
+    }
+
+    @Test
+    public void testBuildOfNonEmptyStructureShouldFail() {
+        OrganizationStructure structure = new OrganizationStructure();
+        structure.save(new Employee(1L, "Joe", "Doe", 300.0, null));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> structure.build(List.of(new Employee(2L, "Jane", "Doe", 100.0, 1L))));
+    }
+
+    @Test
+    public void testBuildMatchesIncrementalSaveOnShuffledInput() {
+        Random random = new Random(13);
+        for (int run = 0; run < 20; run++) {
+            List<Employee> employees = ReportServiceImplTest.collectEmployees(
+                    ReportServiceImplTest.randomOrganization(random, 1 + random.nextInt(5000)));
+            Collections.shuffle(employees, random);
+
+            OrganizationStructure built = new OrganizationStructure(employees.size());
+            built.build(employees);
+            OrganizationStructure saved = new OrganizationStructure();
+            employees.forEach(saved::save);
+
+            Assertions.assertEquals(describe(saved.getRoot()), describe(built.getRoot()));
+            Assertions.assertEquals(subordinatesSalaries(saved.getRoot()), subordinatesSalaries(built.getRoot()));
+            for (double threshold : new double[]{0.1, 0.2, 0.5}) {
+                Assertions.assertEquals(saved.getSalaryDiscrepancies(threshold, false), built.getSalaryDiscrepancies(threshold, false));
+                Assertions.assertEquals(saved.getSalaryDiscrepancies(threshold, true), built.getSalaryDiscrepancies(threshold, true));
+            }
+        }
+    }
+
+    /**
+     * Maps the ID of every employee reachable from the root to the IDs of its direct subordinates, in any order.
+     */
+    private static Map<Long, TreeSet<Long>> describe(EmployeeStructureNode root) {
+        Map<Long, TreeSet<Long>> tree = new HashMap<>();
+        Deque<EmployeeStructureNode> stack = new ArrayDeque<>(List.of(root));
+        while (!stack.isEmpty()) {
+            EmployeeStructureNode node = stack.pop();
+            TreeSet<Long> subordinates = new TreeSet<>();
+            for (EmployeeStructureNode subordinate : node.getSubordinates()) {
+                Assertions.assertSame(node, subordinate.getManager());
+                subordinates.add(subordinate.getEmployee().getId());
+                stack.push(subordinate);
+            }
+            tree.put(node.getEmployee().getId(), subordinates);
+        }
+        return tree;
+    }
+
+    private static Map<Long, Double> subordinatesSalaries(EmployeeStructureNode root) {
+        Map<Long, Double> salaries = new HashMap<>();
+        Deque<EmployeeStructureNode> stack = new ArrayDeque<>(List.of(root));
+        while (!stack.isEmpty()) {
+            EmployeeStructureNode node = stack.pop();
+            salaries.put(node.getEmployee().getId(), node.getSubordinatesSalary());
+            node.getSubordinates().forEach(stack::push);
+        }
+        return salaries;
+    }
+}
@@ -0,0 +1,165 @@
+package com.company.service.impl;
+
+import static com.company.service.impl.ReportServiceImplTest.collectEmployees;
+import static com.company.service.impl.ReportServiceImplTest.randomOrganization;
+
+import com.company.dto.Employee;
+import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationUnitIndex;
+import com.company.service.OrganizationCacheService;
+import com.company.service.OrganizationUnitService;
+import com.company.service.ReportService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class OrganizationUnitServiceImplTest {
+
+    private static final OrganizationUnitService organizationUnitService = new OrganizationUnitServiceImpl();
+    private static final ReportService reportService = new ReportServiceImpl();
+
+    @Test
+    public void testUnitQueriesMatchSubtreeWalks() {
+        Random random = new Random(19);
+        for (int i = 0; i < 20; i++) {
+            EmployeeStructureNode ceo = randomOrganization(random, 1 + random.nextInt(2000));
+            OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+            collectEmployees(ceo).forEach(organizationCacheService::save);
+            OrganizationUnitIndex index = organizationCacheService.getOrganizationUnitIndex();
+            Map<Long, EmployeeStructureNode> nodesById = new HashMap<>();
+            collectNodes(ceo, nodesById);
+            Assertions.assertEquals(nodesById.size(), index.size());
+
+            for (int j = 0; j < 20; j++) {
+                EmployeeStructureNode head = nodesById.get(index.getId(random.nextInt(index.size())));
+                long headId = head.getEmployee().getId();
+                List<Employee> unit = collectEmployees(head);
+
+                Assertions.assertEquals(unit.size(), organizationUnitService.getHeadcount(index, headId));
+                Assertions.assertEquals(unit.stream().mapToDouble(Employee::getSalary).sum(),
+                        organizationUnitService.getTotalSalary(index, headId), 1e-6);
+                Assertions.assertEquals(reportService.getSalaryDiscrepancies(head, 0.5, false),
+                        organizationUnitService.getSalaryDiscrepancies(index, headId, 0.5, false));
+                Assertions.assertEquals(reportService.getSalaryDiscrepancies(head, 0.2, true),
+                        organizationUnitService.getSalaryDiscrepancies(index, headId, 0.2, true));
+
+                //the node report counts the report line from the head of the unit
+                int headDepth = index.getDepth(index.getPosition(headId));
+                Map<Employee, Integer> expected = new HashMap<>();
+                reportService.getEmployeesReportLineLength(head, Math.max(1, 4 - headDepth + 1))
+                        .forEach((employee, depth) -> expected.put(employee, depth + headDepth - 1));
+                if (headDepth > 4) {
+                    expected.put(head.getEmployee(), headDepth);
+                }
+                Assertions.assertEquals(expected, organizationUnitService.getEmployeesReportLineLength(index, headId, 4));
+
+                long employeeId = index.getId(random.nextInt(index.size()));
+                Assertions.assertEquals(isManagedBy(nodesById.get(employeeId), head),
+                        organizationUnitService.isInUnit(index, headId, employeeId));
+            }
+        }
+    }
+
+    @Test
+    public void testUnitQueriesWhenManagerIsUnknown() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.save(new Employee(1L, "John", "Doe", 1000.0));
+        organizationCacheService.save(new Employee(2L, "Jane", "Doe", 500.0, 1L));
+        OrganizationUnitIndex index = organizationCacheService.getOrganizationUnitIndex();
+
+        Assertions.assertEquals(2, organizationUnitService.getHeadcount(index, 1L));
+        Assertions.assertEquals(1500.0, organizationUnitService.getTotalSalary(index, 1L));
+        Assertions.assertTrue(organizationUnitService.isInUnit(index, 1L, 2L));
+        Assertions.assertFalse(organizationUnitService.isInUnit(index, 2L, 1L));
+
+        Assertions.assertEquals(0, organizationUnitService.getHeadcount(index, 3L));
+        Assertions.assertEquals(0.0, organizationUnitService.getTotalSalary(index, 3L));
+        Assertions.assertFalse(organizationUnitService.isInUnit(index, 3L, 2L));
+        Assertions.assertTrue(organizationUnitService.getSalaryDiscrepancies(index, 3L, 0.5, false).isEmpty());
+        Assertions.assertTrue(organizationUnitService.getEmployeesReportLineLength(index, 3L, 1).isEmpty());
+    }
+
+    @Test
+    public void testUnitQueriesWithWideIdRange() {
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.save(new Employee(Long.MAX_VALUE, "John", "Doe", 1000.0));
+        organizationCacheService.save(new Employee(Long.MIN_VALUE, "Jane", "Doe", 500.0, Long.MAX_VALUE));
+        organizationCacheService.save(new Employee(0L, "Jane", "Doe", 500.0, Long.MIN_VALUE));
+        OrganizationUnitIndex index = organizationCacheService.getOrganizationUnitIndex();
+
+        Assertions.assertEquals(0, index.getPosition(Long.MAX_VALUE));
+        Assertions.assertEquals(2, organizationUnitService.getHeadcount(index, Long.MIN_VALUE));
+        Assertions.assertTrue(organizationUnitService.isInUnit(index, Long.MAX_VALUE, 0L));
+        Assertions.assertEquals(OrganizationUnitIndex.NOT_FOUND, index.getPosition(1L));
+    }
+
+    @Test
+    public void testUnitIndexOfDeepHierarchy() {
+        int depth = 200_000;
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.save(new Employee(1L, "John", "Doe", 1000.0));
+        for (long id = 2; id <= depth; id++) {
+            organizationCacheService.save(new Employee(id, "John", "Doe", 1000.0, id - 1));
+        }
+        OrganizationUnitIndex index = organizationCacheService.getOrganizationUnitIndex();
+
+        Assertions.assertEquals(depth / 2 + 1, organizationUnitService.getHeadcount(index, depth / 2));
+        Assertions.assertEquals(depth, index.getDepth(index.getPosition(depth)));
+        Assertions.assertEquals(3, organizationUnitService.getEmployeesReportLineLength(index, depth - 2, depth - 3).size());
+    }
+
+    @Test
+    public void testTotalSalaryOfSmallUnitInLargeOrganizationMatchesDirectSum() {
+        Random random = new Random(23);
+        int size = 200_000;
+        OrganizationCacheService<Employee, Long> organizationCacheService = new OrganizationCacheServiceImpl();
+        organizationCacheService.save(new Employee(0L, "John", "Doe", 250_000.0));
+        for (long id = 1; id < size; id++) {
+            long managerId = Math.max(0, id - 1 - random.nextInt(50));
+            organizationCacheService.save(new Employee(id, "John", "Doe", 1000 + random.nextDouble() * 200_000, managerId));
+        }
+        OrganizationUnitIndex index = organizationCacheService.getOrganizationUnitIndex();
+
+        //the payroll before a unit is far larger than the unit itself, so its low digits must not cancel out
+        int checked = 0;
+        for (int position = index.size() / 2; position < index.size(); position++) {
+            int end = index.getSubtreeEnd(position);
+            if (end - position > 20) {
+                continue;
+            }
+            double expected = 0;
+            for (int member = position; member < end; member++) {
+                expected += index.getSalary(member);
+            }
+            Assertions.assertEquals(expected, organizationUnitService.getTotalSalary(index, index.getId(position)),
+                    32 * Math.ulp(expected));
+            checked++;
+        }
+        Assertions.assertTrue(checked > 1000);
+    }
+
+    private static void collectNodes(EmployeeStructureNode ceo, Map<Long, EmployeeStructureNode> nodesById) {
+        Deque<EmployeeStructureNode> stack = new ArrayDeque<>();
+        stack.push(ceo);
+        while (!stack.isEmpty()) {
+            EmployeeStructureNode node = stack.pop();
+            nodesById.put(node.getEmployee().getId(), node);
+            node.getSubordinates().forEach(stack::push);
+        }
+    }
+
+    private static boolean isManagedBy(EmployeeStructureNode employee, EmployeeStructureNode manager) {
+        for (EmployeeStructureNode node = employee; node != null; node = node.getManager()) {
+            if (node == manager) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
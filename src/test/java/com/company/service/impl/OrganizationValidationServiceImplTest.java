@@ -0,0 +1,106 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.dto.OrganizationDiagnostics;
+import com.company.service.OrganizationValidationService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class OrganizationValidationServiceImplTest {
+
+    private static final OrganizationValidationService validationService = new OrganizationValidationServiceImpl();
+
+    @Test
+    public void testValidOrganization() {
+        OrganizationDiagnostics diagnostics = validationService.validate(
+                new FileDataReadServiceImpl().readData(OrganizationCacheServiceImplTest.EMPLOYEES_CSV_PATH));
+
+        Assertions.assertTrue(diagnostics.isValid());
+        Assertions.assertEquals(1, diagnostics.getRoots().size());
+        Assertions.assertEquals(0, diagnostics.getUnreachableCount());
+    }
+
+    @Test
+    public void testDuplicateIds() {
+        Employee ceo = new Employee(1L, "John", "Doe", 1000.0);
+        Employee first = new Employee(2L, "John", "Doe", 500.0, 1L);
+        Employee second = new Employee(2L, "Jane", "Doe", 600.0, 1L);
+
+        OrganizationDiagnostics diagnostics = validationService.validate(Arrays.asList(ceo, first, second, second));
+
+        Assertions.assertFalse(diagnostics.isValid());
+        Assertions.assertEquals(Collections.singletonList(2L), diagnostics.getDuplicateIds());
+        Assertions.assertEquals(2, diagnostics.getEmployeesCount());
+    }
+
+    @Test
+    public void testMultipleRootsAndNoRoot() {
+        Employee firstCeo = new Employee(1L, "John", "Doe", 1000.0);
+        Employee secondCeo = new Employee(2L, "Jane", "Doe", 1000.0);
+
+        OrganizationDiagnostics diagnostics = validationService.validate(Arrays.asList(firstCeo, secondCeo));
+        Assertions.assertFalse(diagnostics.isValid());
+        Assertions.assertEquals(Arrays.asList(firstCeo, secondCeo), diagnostics.getRoots());
+        Assertions.assertEquals(0, diagnostics.getUnreachableCount());
+
+        diagnostics = validationService.validate(Collections.emptyList());
+        Assertions.assertFalse(diagnostics.isValid());
+        Assertions.assertTrue(diagnostics.getRoots().isEmpty());
+    }
+
+    @Test
+    public void testOrphansAndTheirSubordinates() {
+        Employee ceo = new Employee(1L, "John", "Doe", 1000.0);
+        Employee orphan = new Employee(2L, "John", "Doe", 500.0, 99L);
+        Employee subordinate = new Employee(3L, "Jane", "Doe", 400.0, 2L);
+
+        OrganizationDiagnostics diagnostics = validationService.validate(Arrays.asList(subordinate, ceo, orphan));
+
+        Assertions.assertFalse(diagnostics.isValid());
+        Assertions.assertEquals(Collections.singletonList(orphan), diagnostics.getOrphans());
+        Assertions.assertEquals(2, diagnostics.getUnreachableCount());
+        Assertions.assertTrue(diagnostics.toString().contains("2 -> 99"));
+    }
+
+    @Test
+    public void testCycles() {
+        Employee ceo = new Employee(1L, "John", "Doe", 1000.0);
+        Employee selfManaged = new Employee(2L, "John", "Doe", 500.0, 2L);
+        Employee first = new Employee(3L, "Jane", "Doe", 500.0, 4L);
+        Employee second = new Employee(4L, "Jane", "Doe", 500.0, 5L);
+        Employee third = new Employee(5L, "Jane", "Doe", 500.0, 3L);
+        Employee subordinate = new Employee(6L, "Jane", "Doe", 500.0, 4L);
+
+        OrganizationDiagnostics diagnostics = validationService.validate(
+                Arrays.asList(subordinate, ceo, selfManaged, first, second, third));
+
+        Assertions.assertFalse(diagnostics.isValid());
+        Assertions.assertEquals(2, diagnostics.getCycles().size());
+        Assertions.assertEquals(Arrays.asList(second, third, first), diagnostics.getCycles().get(0));
+        Assertions.assertEquals(Collections.singletonList(selfManaged), diagnostics.getCycles().get(1));
+        Assertions.assertEquals(5, diagnostics.getUnreachableCount());
+        Assertions.assertTrue(diagnostics.getOrphans().isEmpty());
+    }
+
+    @Test
+    public void testDeepHierarchyShouldNotOverflowStack() {
+        int depth = 200_000;
+        List<Employee> employees = new ArrayList<>(depth);
+        //subordinates first, so every report line is followed to the end in one walk
+        for (long id = depth; id > 1; id--) {
+            employees.add(new Employee(id, "John", "Doe", 1000.0, id - 1));
+        }
+        employees.add(new Employee(1L, "John", "Doe", 1000.0, (long) depth));
+
+        OrganizationDiagnostics diagnostics = validationService.validate(employees);
+
+        Assertions.assertEquals(1, diagnostics.getCycles().size());
+        Assertions.assertEquals(depth, diagnostics.getCycles().get(0).size());
+        Assertions.assertEquals(depth, diagnostics.getUnreachableCount());
+    }
+}
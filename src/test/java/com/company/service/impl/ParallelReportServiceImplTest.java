@@ -0,0 +1,113 @@
+package com.company.service.impl;
+
+import static com.company.service.impl.ReportServiceImplTest.randomOrganization;
+
+import com.company.dto.Employee;
+import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationReport;
+import com.company.service.ReportService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class ParallelReportServiceImplTest {
+
+    private static ForkJoinPool pool;
+    private static ReportService parallelReportService;
+    private static final ReportService reportService = new ReportServiceImpl();
+
+    @BeforeAll
+    static void setUp() {
+        pool = new ForkJoinPool(4);
+        //a small threshold forces many splits even on small organizations
+        parallelReportService = new ParallelReportServiceImpl(pool, 16);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testReportsMatchSequentialReports() {
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            EmployeeStructureNode ceo = randomOrganization(random, 1 + random.nextInt(20_000));
+
+            Assertions.assertEquals(reportService.getSalaryDiscrepancies(ceo, 0.5, false),
+                    parallelReportService.getSalaryDiscrepancies(ceo, 0.5, false));
+            Assertions.assertEquals(reportService.getSalaryDiscrepancies(ceo, 0.2, true),
+                    parallelReportService.getSalaryDiscrepancies(ceo, 0.2, true));
+            Assertions.assertEquals(reportService.getEmployeesReportLineLength(ceo, 3),
+                    parallelReportService.getEmployeesReportLineLength(ceo, 3));
+
+            OrganizationReport expected = reportService.getOrganizationReport(ceo, 0.5, 0.2, 3);
+            OrganizationReport actual = parallelReportService.getOrganizationReport(ceo, 0.5, 0.2, 3);
+            Assertions.assertEquals(expected.getOverpaidManagers(), actual.getOverpaidManagers());
+            Assertions.assertEquals(expected.getUnderpaidManagers(), actual.getUnderpaidManagers());
+            Assertions.assertEquals(expected.getLongReportLines(), actual.getLongReportLines());
+        }
+    }
+
+    @Test
+    public void testStreamingReportsRunInCallingThread() {
+        EmployeeStructureNode ceo = randomOrganization(new Random(31), 20_000);
+        Thread caller = Thread.currentThread();
+        Map<Employee, Double> streamed = new HashMap<>();
+        parallelReportService.findSalaryDiscrepancies(ceo, 0.2, true, (employee, discrepancy) -> {
+            Assertions.assertSame(caller, Thread.currentThread());
+            streamed.put(employee, discrepancy);
+        });
+
+        Assertions.assertEquals(reportService.getSalaryDiscrepancies(ceo, 0.2, true), streamed);
+    }
+
+    @Test
+    public void testReportsOnWideHierarchy() {
+        int size = 100_000;
+        EmployeeStructureNode ceo = new EmployeeStructureNode(new Employee(1L, "John", "Doe", 2000.0));
+        for (long id = 2; id <= size; id++) {
+            EmployeeStructureNode manager = new EmployeeStructureNode(new Employee(id, "John", "Doe", 500.0, 1L));
+            EmployeeStructureNode subordinate = new EmployeeStructureNode(new Employee(id + size, "Jane", "Doe", 1000.0, id));
+            subordinate.setManager(manager);
+            manager.addSubordinate(subordinate);
+            manager.setManager(ceo);
+            ceo.addSubordinate(manager);
+        }
+
+        Assertions.assertEquals(size - 1, parallelReportService.getSalaryDiscrepancies(ceo, 0.2, true).size());
+        Assertions.assertEquals(1, parallelReportService.getSalaryDiscrepancies(ceo, 0.5, false).size());
+        Assertions.assertEquals(size - 1, parallelReportService.getEmployeesReportLineLength(ceo, 2).size());
+    }
+
+    @Test
+    public void testReportsOnDeepHierarchyShouldNotOverflowStack() {
+        int depth = 200_000;
+        EmployeeStructureNode ceo = new EmployeeStructureNode(new Employee(1L, "John", "Doe", 1000.0));
+        EmployeeStructureNode manager = ceo;
+        for (long id = 2; id <= depth; id++) {
+            EmployeeStructureNode subordinate = new EmployeeStructureNode(new Employee(id, "John", "Doe", 1000.0, id - 1));
+            subordinate.setManager(manager);
+            manager.addSubordinate(subordinate);
+            manager = subordinate;
+        }
+
+        OrganizationReport report = parallelReportService.getOrganizationReport(ceo, 0.1, 0.1, 3);
+        Assertions.assertEquals(depth - 1, report.getUnderpaidManagers().size());
+        Assertions.assertEquals(depth - 3, report.getLongReportLines().size());
+    }
+
+    @Test
+    public void testReportsWhenHierarchyIsEmpty() {
+        Assertions.assertTrue(parallelReportService.getSalaryDiscrepancies((EmployeeStructureNode) null, 0.5, false).isEmpty());
+        Assertions.assertTrue(parallelReportService.getEmployeesReportLineLength((EmployeeStructureNode) null, 3).isEmpty());
+        Assertions.assertTrue(parallelReportService.getOrganizationReport((EmployeeStructureNode) null, 0.5, 0.2, 3)
+                .getLongReportLines().isEmpty());
+    }
+}
@@ -2,15 +2,29 @@ package com.company.service.impl;
 
 import static com.company.service.impl.OrganizationCacheServiceImplTest.EMPLOYEES_CSV_PATH;
 
+import com.company.dto.CompactOrganizationStructure;
 import com.company.dto.Employee;
 import com.company.dto.EmployeeStructureNode;
+import com.company.dto.OrganizationReport;
+import com.company.dto.ReportOrder;
 import com.company.service.DataReadService;
 import com.company.service.OrganizationCacheService;
+import com.company.service.ReportSink;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
 
 class ReportServiceImplTest {
 
@@ -79,4 +93,364 @@ class ReportServiceImplTest {
         Assertions.assertFalse(salaryDiscrepancies.isEmpty());
         Assertions.assertEquals(2, salaryDiscrepancies.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCompactStructureReportsMatchNodeReports() {
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+        CompactOrganizationStructure structure = organizationCacheService.getCompactStructure();
+
+        for (double threshold : new double[]{0.1, 0.2, 0.3, 0.4, 0.5}) {
+            Assertions.assertEquals(reportService.getSalaryDiscrepancies(ceo, threshold, false),
+                    reportService.getSalaryDiscrepancies(structure, threshold, false));
+            Assertions.assertEquals(reportService.getSalaryDiscrepancies(ceo, threshold, true),
+                    reportService.getSalaryDiscrepancies(structure, threshold, true));
+        }
+        for (int maxDepth = 0; maxDepth <= 5; maxDepth++) {
+            Assertions.assertEquals(reportService.getEmployeesReportLineLength(ceo, maxDepth),
+                    reportService.getEmployeesReportLineLength(structure, maxDepth));
+        }
+    }
+
+    @Test
+    public void testCompactReportLineLengthMatchesNodeReportOnRandomOrganizations() {
+        Random random = new Random(17);
+        for (int i = 0; i < 20; i++) {
+            EmployeeStructureNode ceo = randomOrganization(random, 1 + random.nextInt(5000));
+            OrganizationCacheService<Employee, Long> cache = new OrganizationCacheServiceImpl();
+            collectEmployees(ceo).forEach(cache::save);
+            CompactOrganizationStructure structure = cache.getCompactStructure();
+
+            for (int maxDepth = 0; maxDepth <= structure.getMaxDepth() + 1; maxDepth++) {
+                Assertions.assertEquals(reportService.getEmployeesReportLineLength(ceo, maxDepth),
+                        reportService.getEmployeesReportLineLength(structure, maxDepth));
+            }
+        }
+    }
+
+    @Test
+    public void testOrderedCompactReportLineLengthMatchesNodeReport() {
+        Random random = new Random(41);
+        for (int i = 0; i < 20; i++) {
+            EmployeeStructureNode ceo = randomOrganization(random, 1 + random.nextInt(5000));
+            OrganizationCacheService<Employee, Long> cache = new OrganizationCacheServiceImpl();
+            collectEmployees(ceo).forEach(cache::save);
+            CompactOrganizationStructure structure = cache.getCompactStructure();
+
+            for (int maxDepth = 0; maxDepth <= structure.getMaxDepth() + 1; maxDepth++) {
+                for (ReportOrder order : ReportOrder.values()) {
+                    Map<Employee, Integer> expected = reportService.getEmployeesReportLineLength(ceo, maxDepth, order);
+                    Map<Employee, Integer> actual = reportService.getEmployeesReportLineLength(structure, maxDepth, order);
+                    Assertions.assertEquals(expected, actual);
+                    Assertions.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGetOrganizationReportMatchesSeparateReports() {
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+        CompactOrganizationStructure structure = organizationCacheService.getCompactStructure();
+
+        for (int maxDepth = 0; maxDepth <= 4; maxDepth++) {
+            OrganizationReport report = reportService.getOrganizationReport(ceo, 0.4, 0.2, maxDepth);
+            OrganizationReport compactReport = reportService.getOrganizationReport(structure, 0.4, 0.2, maxDepth);
+            for (OrganizationReport actual : new OrganizationReport[]{report, compactReport}) {
+                Assertions.assertEquals(reportService.getSalaryDiscrepancies(ceo, 0.4, false), actual.getOverpaidManagers());
+                Assertions.assertEquals(reportService.getSalaryDiscrepancies(ceo, 0.2, true), actual.getUnderpaidManagers());
+                Assertions.assertEquals(reportService.getEmployeesReportLineLength(ceo, maxDepth), actual.getLongReportLines());
+            }
+        }
+    }
+
+    @Test
+    public void testGetOrganizationReportWhenHierarchyIsEmpty() {
+        OrganizationReport report = reportService.getOrganizationReport((EmployeeStructureNode) null, 0.5, 0.2, 3);
+        Assertions.assertTrue(report.getOverpaidManagers().isEmpty());
+        Assertions.assertTrue(report.getUnderpaidManagers().isEmpty());
+        Assertions.assertTrue(report.getLongReportLines().isEmpty());
+    }
+
+    @Test
+    public void testReportsOnDeepHierarchyShouldNotOverflowStack() {
+        int depth = 200_000;
+        EmployeeStructureNode ceo = new EmployeeStructureNode(new Employee(1L, "John", "Doe", 1000.0));
+        EmployeeStructureNode manager = ceo;
+        for (long id = 2; id <= depth; id++) {
+            EmployeeStructureNode subordinate = new EmployeeStructureNode(new Employee(id, "John", "Doe", 1000.0, id - 1));
+            subordinate.setManager(manager);
+            manager.addSubordinate(subordinate);
+            manager = subordinate;
+        }
+
+        Assertions.assertEquals(depth - 1, reportService.getSalaryDiscrepancies(ceo, 0.1, true).size());
+        Assertions.assertTrue(reportService.getSalaryDiscrepancies(ceo, 0.1, false).isEmpty());
+        Assertions.assertEquals(depth - 3, reportService.getEmployeesReportLineLength(ceo, 3).size());
+
+        OrganizationReport report = reportService.getOrganizationReport(ceo, 0.1, 0.1, 3);
+        Assertions.assertEquals(depth - 1, report.getUnderpaidManagers().size());
+        Assertions.assertEquals(depth - 3, report.getLongReportLines().size());
+    }
+
+    @Test
+    public void testGetSalaryDiscrepanciesAtExactThresholds() {
+        for (double managerSalary : new double[]{125, 150, 200, 120}) {
+            EmployeeStructureNode manager = new EmployeeStructureNode(new Employee(1L, "John", "Doe", managerSalary));
+            EmployeeStructureNode subordinate = new EmployeeStructureNode(new Employee(2L, "Jane", "Doe", 100, 1L));
+            manager.addSubordinate(subordinate);
+            double discrepancy = 1 - 100 / managerSalary;
+
+            for (double threshold : new double[]{0.2, 1.0 / 3, 0.5, 0.1666666667, 0.16666666666}) {
+                Map<Employee, Double> expectedMore = referenceSalaryDiscrepancies(manager, threshold, false);
+                Map<Employee, Double> expectedLess = referenceSalaryDiscrepancies(manager, threshold, true);
+                Assertions.assertEquals(expectedMore, reportService.getSalaryDiscrepancies(manager, threshold, false), "discrepancy " + discrepancy);
+                Assertions.assertEquals(expectedLess, reportService.getSalaryDiscrepancies(manager, threshold, true), "discrepancy " + discrepancy);
+            }
+        }
+    }
+
+    @Test
+    public void testSalaryDiscrepancyOfLargeRatioMatchesBigDecimal() {
+        double[][] salaries = {{123456789.123, 0.2}, {987654321.5, 1.17}, {-123456789.123, 0.2}, {1e9, 1.1}};
+        for (double[] salary : salaries) {
+            BigDecimal expected = BigDecimal.ONE.subtract(BigDecimal.valueOf(salary[0])
+                    .divide(BigDecimal.valueOf(salary[1]), 10, RoundingMode.HALF_UP));
+            long discrepancy = SalaryDiscrepancyCalculator.calculate(salary[0], salary[1]);
+            Assertions.assertEquals(expected.movePointRight(10).longValueExact(), discrepancy);
+            Assertions.assertEquals(expected.doubleValue(), SalaryDiscrepancyCalculator.toDouble(discrepancy));
+        }
+
+        //beyond the long range the discrepancy saturates, but is still less than any threshold in range
+        long saturated = SalaryDiscrepancyCalculator.calculate(5e9, 1);
+        Assertions.assertEquals(Long.MIN_VALUE, saturated);
+        Assertions.assertEquals(Long.MIN_VALUE, SalaryDiscrepancyCalculator.calculate(1e300, 1e-300));
+        Assertions.assertTrue(saturated < SalaryDiscrepancyCalculator.lowerBound(-1e8));
+    }
+
+    @Test
+    public void testSalaryDiscrepancyOfNonFiniteSalaryShouldFail() {
+        Assertions.assertThrows(ArithmeticException.class, () -> SalaryDiscrepancyCalculator.calculate(Double.NaN, 100));
+        Assertions.assertThrows(ArithmeticException.class, () -> SalaryDiscrepancyCalculator.calculate(100, Double.NaN));
+        Assertions.assertThrows(ArithmeticException.class,
+                () -> SalaryDiscrepancyCalculator.calculate(Double.POSITIVE_INFINITY, 100));
+        Assertions.assertThrows(ArithmeticException.class,
+                () -> SalaryDiscrepancyCalculator.calculate(100, Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void testGetSalaryDiscrepanciesMatchBigDecimalReferenceOnRandomOrganizations() {
+        Random random = new Random(42);
+        double[] thresholds = {0.1, 0.2, 0.25, 0.3, 0.4, 0.5, 1.0 / 3, 0.123456789012};
+        for (int run = 0; run < 50; run++) {
+            EmployeeStructureNode ceo = randomOrganization(random, 1 + random.nextInt(1000));
+            for (double threshold : thresholds) {
+                Assertions.assertEquals(referenceSalaryDiscrepancies(ceo, threshold, false), reportService.getSalaryDiscrepancies(ceo, threshold, false));
+                Assertions.assertEquals(referenceSalaryDiscrepancies(ceo, threshold, true), reportService.getSalaryDiscrepancies(ceo, threshold, true));
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingReportsMatchCollectedReports() {
+        Random random = new Random(29);
+        for (int i = 0; i < 20; i++) {
+            EmployeeStructureNode ceo = randomOrganization(random, 1 + random.nextInt(5000));
+            OrganizationCacheService<Employee, Long> cache = new OrganizationCacheServiceImpl();
+            collectEmployees(ceo).forEach(cache::save);
+            CompactOrganizationStructure structure = cache.getCompactStructure();
+
+            for (boolean checkLess : new boolean[]{false, true}) {
+                Map<Employee, Double> expected = reportService.getSalaryDiscrepancies(ceo, 0.3, checkLess);
+                Map<Employee, Double> streamed = new HashMap<>();
+                reportService.findSalaryDiscrepancies(ceo, 0.3, checkLess, (employee, discrepancy) ->
+                        Assertions.assertNull(streamed.put(employee, discrepancy)));
+                Assertions.assertEquals(expected, streamed);
+
+                Map<Employee, Double> streamedCompact = new HashMap<>();
+                reportService.findSalaryDiscrepancies(structure, 0.3, checkLess, streamedCompact::put);
+                Assertions.assertEquals(expected, streamedCompact);
+            }
+
+            Map<Employee, Integer> expectedLines = reportService.getEmployeesReportLineLength(ceo, 3);
+            Map<Employee, Integer> streamedLines = new HashMap<>();
+            reportService.findLongReportLines(ceo, 3, streamedLines::put);
+            Assertions.assertEquals(expectedLines, streamedLines);
+            Map<Employee, Integer> streamedCompactLines = new HashMap<>();
+            reportService.findLongReportLines(structure, 3, streamedCompactLines::put);
+            Assertions.assertEquals(expectedLines, streamedCompactLines);
+
+            OrganizationReport expectedReport = reportService.getOrganizationReport(ceo, 0.5, 0.2, 3);
+            for (OrganizationReport streamedReport : new OrganizationReport[]{
+                    collectReport(sink -> reportService.visitOrganizationReport(ceo, 0.5, 0.2, 3, sink)),
+                    collectReport(sink -> reportService.visitOrganizationReport(structure, 0.5, 0.2, 3, sink))}) {
+                Assertions.assertEquals(expectedReport.getOverpaidManagers(), streamedReport.getOverpaidManagers());
+                Assertions.assertEquals(expectedReport.getUnderpaidManagers(), streamedReport.getUnderpaidManagers());
+                Assertions.assertEquals(expectedReport.getLongReportLines(), streamedReport.getLongReportLines());
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingReportsVisitInPreOrder() {
+        EmployeeStructureNode ceo = organizationCacheService.getStructure();
+        List<Employee> preOrder = collectEmployees(ceo);
+        List<Employee> streamed = new ArrayList<>();
+        reportService.findLongReportLines(ceo, 1, (employee, length) -> streamed.add(employee));
+
+        preOrder.remove(0);
+        Assertions.assertEquals(preOrder, streamed);
+    }
+
+    @Test
+    public void testOrderedReports() {
+        Random random = new Random(37);
+        for (int i = 0; i < 20; i++) {
+            EmployeeStructureNode ceo = randomOrganization(random, 1 + random.nextInt(5000));
+            List<Employee> preOrder = collectEmployees(ceo);
+
+            for (boolean checkLess : new boolean[]{false, true}) {
+                double threshold = checkLess ? 0.2 : 0.5;
+                Map<Employee, Double> expected = reportService.getSalaryDiscrepancies(ceo, threshold, checkLess);
+
+                Map<Employee, Double> inPreOrder = reportService.getSalaryDiscrepancies(ceo, threshold, checkLess, ReportOrder.PRE_ORDER);
+                Assertions.assertEquals(expected, inPreOrder);
+                List<Employee> expectedPreOrder = new ArrayList<>(preOrder);
+                expectedPreOrder.retainAll(expected.keySet());
+                Assertions.assertEquals(expectedPreOrder, new ArrayList<>(inPreOrder.keySet()));
+
+                Map<Employee, Double> byId = reportService.getSalaryDiscrepancies(ceo, threshold, checkLess, ReportOrder.EMPLOYEE_ID);
+                Assertions.assertEquals(expected, byId);
+                List<Employee> expectedById = new ArrayList<>(expected.keySet());
+                expectedById.sort(Comparator.comparing(Employee::getId));
+                Assertions.assertEquals(expectedById, new ArrayList<>(byId.keySet()));
+
+                Map<Employee, Double> bySeverity = reportService.getSalaryDiscrepancies(ceo, threshold, checkLess, ReportOrder.SEVERITY);
+                Assertions.assertEquals(expected, bySeverity);
+                List<Employee> expectedBySeverity = new ArrayList<>(expected.keySet());
+                Comparator<Employee> severity = Comparator.comparing(expected::get);
+                expectedBySeverity.sort((checkLess ? severity : severity.reversed()).thenComparing(Employee::getId));
+                Assertions.assertEquals(expectedBySeverity, new ArrayList<>(bySeverity.keySet()));
+
+                for (int limit : new int[]{0, 1, 10, expected.size(), expected.size() + 5}) {
+                    Map<Employee, Double> top = reportService.getTopSalaryDiscrepancies(ceo, threshold, checkLess, limit);
+                    Assertions.assertEquals(expectedBySeverity.subList(0, Math.min(limit, expected.size())),
+                            new ArrayList<>(top.keySet()));
+                }
+            }
+
+            Map<Employee, Integer> expectedLines = reportService.getEmployeesReportLineLength(ceo, 3);
+            Map<Employee, Integer> linesBySeverity = reportService.getEmployeesReportLineLength(ceo, 3, ReportOrder.SEVERITY);
+            Assertions.assertEquals(expectedLines, linesBySeverity);
+            List<Employee> expectedLinesBySeverity = new ArrayList<>(expectedLines.keySet());
+            expectedLinesBySeverity.sort(Comparator.comparing((Employee employee) -> -expectedLines.get(employee))
+                    .thenComparing(Employee::getId));
+            Assertions.assertEquals(expectedLinesBySeverity, new ArrayList<>(linesBySeverity.keySet()));
+        }
+    }
+
+    static OrganizationReport collectReport(Consumer<ReportSink> report) {
+        OrganizationReport collected = new OrganizationReport(new HashMap<>(), new HashMap<>(), new HashMap<>());
+        report.accept(new ReportSink() {
+            @Override
+            public void overpaidManager(Employee employee, double discrepancy) {
+                collected.getOverpaidManagers().put(employee, discrepancy);
+            }
+
+            @Override
+            public void underpaidManager(Employee employee, double discrepancy) {
+                collected.getUnderpaidManagers().put(employee, discrepancy);
+            }
+
+            @Override
+            public void longReportLine(Employee employee, int length) {
+                collected.getLongReportLines().put(employee, length);
+            }
+        });
+        return collected;
+    }
+
+    static List<Employee> collectEmployees(EmployeeStructureNode ceo) {
+        List<Employee> employees = new ArrayList<>();
+        Deque<EmployeeStructureNode> stack = new ArrayDeque<>();
+        stack.push(ceo);
+        while (!stack.isEmpty()) {
+            EmployeeStructureNode node = stack.pop();
+            employees.add(node.getEmployee());
+            //pushed in reverse, so the employees are listed in pre-order
+            for (int i = node.getSubordinates().size() - 1; i >= 0; i--) {
+                stack.push(node.getSubordinates().get(i));
+            }
+        }
+        return employees;
+    }
+
+    /**
+     * Builds a random organization with integer salaries. Managers are often paid exactly 20%, 25%, 50% or 100% more
+     * than the average salary of their subordinates to exercise the threshold boundaries.
+     */
+    static EmployeeStructureNode randomOrganization(Random random, int size) {
+        int[] managers = new int[size];
+        List<List<Integer>> subordinates = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            managers[i] = i == 0 ? -1 : random.nextInt(Math.max(1, i / 2 + 1));
+            subordinates.add(new ArrayList<>());
+            if (i > 0) {
+                subordinates.get(managers[i]).add(i);
+            }
+        }
+
+        double[] factors = {1.2, 1.25, 1.5, 2.0};
+        double[] salaries = new double[size];
+        for (int i = size - 1; i >= 0; i--) {
+            salaries[i] = 1000 * (10 + random.nextInt(90));
+            if (!subordinates.get(i).isEmpty() && random.nextBoolean()) {
+                double subordinatesSalary = 0;
+                for (int subordinate : subordinates.get(i)) {
+                    subordinatesSalary += salaries[subordinate];
+                }
+                double salary = subordinatesSalary * factors[random.nextInt(factors.length)] / subordinates.get(i).size();
+                if (salary == Math.rint(salary)) {
+                    salaries[i] = salary;
+                }
+            }
+        }
+
+        EmployeeStructureNode[] nodes = new EmployeeStructureNode[size];
+        for (int i = 0; i < size; i++) {
+            Long managerId = i == 0 ? null : (long) managers[i];
+            nodes[i] = new EmployeeStructureNode(new Employee((long) i, "First" + i, "Last" + i, salaries[i], managerId));
+            if (i > 0) {
+                nodes[i].setManager(nodes[managers[i]]);
+                nodes[managers[i]].addSubordinate(nodes[i]);
+            }
+        }
+        return nodes[0];
+    }
+
+    /**
+     * The original BigDecimal-based implementation, used as a reference.
+     */
+    static Map<Employee, Double> referenceSalaryDiscrepancies(EmployeeStructureNode node, double threshold, boolean checkLess) {
+        Map<Employee, Double> salaryDiscrepancies = new HashMap<>();
+        List<EmployeeStructureNode> nodes = new ArrayList<>(List.of(node));
+        while (!nodes.isEmpty()) {
+            EmployeeStructureNode employeeStructureNode = nodes.remove(nodes.size() - 1);
+            List<EmployeeStructureNode> subordinates = employeeStructureNode.getSubordinates();
+            if (!subordinates.isEmpty()) {
+                double subordinatesAverageSalary = subordinates.stream()
+                        .mapToDouble(subordinate -> subordinate.getEmployee().getSalary())
+                        .average()
+                        .orElse(0.0);
+                double managerSalary = employeeStructureNode.getEmployee().getSalary();
+                BigDecimal discrepancy = BigDecimal.ONE.subtract(BigDecimal.valueOf(subordinatesAverageSalary).divide(BigDecimal.valueOf(managerSalary), 10, RoundingMode.HALF_UP));
+                if (checkLess && discrepancy.compareTo(BigDecimal.valueOf(threshold)) < 0) {
+                    salaryDiscrepancies.put(employeeStructureNode.getEmployee(), discrepancy.doubleValue());
+                } else if (!checkLess && discrepancy.compareTo(BigDecimal.valueOf(threshold)) > 0) {
+                    salaryDiscrepancies.put(employeeStructureNode.getEmployee(), discrepancy.doubleValue());
+                }
+            }
+            nodes.addAll(subordinates);
+        }
+        return salaryDiscrepancies;
+    }
+}
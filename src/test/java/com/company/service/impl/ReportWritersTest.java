@@ -0,0 +1,111 @@
+package com.company.service.impl;
+
+import com.company.dto.Employee;
+import com.company.dto.ReportFormat;
+import com.company.dto.ReportSection;
+import com.company.service.ReportWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+class ReportWritersTest {
+
+    private static final String EOL = System.lineSeparator();
+
+    @Test
+    public void testTextFormat() {
+        String report = write(ReportFormat.TEXT);
+
+        Assertions.assertEquals(ReportSection.OVERPAID_MANAGERS.getTitle() + EOL
+                + "John Doe 0.56" + EOL
+                + EOL + ReportSection.UNDERPAID_MANAGERS.getTitle() + EOL
+                + "Jane \"Smith\", Jr 0.13" + EOL
+                + EOL + ReportSection.LONG_REPORT_LINES.getTitle() + EOL
+                + "John Doe 5" + EOL, report);
+    }
+
+    @Test
+    public void testCsvFormat() {
+        String report = write(ReportFormat.CSV);
+
+        Assertions.assertEquals("section,id,firstName,lastName,value" + EOL
+                + "overpaid,1,John,Doe,0.555" + EOL
+                + "underpaid,2,Jane,\"\"\"Smith\"\", Jr\",0.125" + EOL
+                + "longReportLine,1,John,Doe,5" + EOL, report);
+    }
+
+    @Test
+    public void testJsonLinesFormat() {
+        String report = write(ReportFormat.JSONL);
+
+        Assertions.assertEquals("{\"section\":\"overpaid\",\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"discrepancy\":0.555}\n"
+                + "{\"section\":\"underpaid\",\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"\\\"Smith\\\", Jr\",\"discrepancy\":0.125}\n"
+                + "{\"section\":\"longReportLine\",\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"length\":5}\n", report);
+    }
+
+    @Test
+    public void testJsonLinesFormatWritesNonFiniteDiscrepancyAsNull() {
+        StringWriter out = new StringWriter();
+        try (ReportWriter reportWriter = ReportWriters.create(ReportFormat.JSONL, out)) {
+            reportWriter.beginSection(ReportSection.OVERPAID_MANAGERS);
+            reportWriter.writeSalaryDiscrepancy(new Employee(1L, "John", "Doe", 1000.0), Double.NaN);
+            reportWriter.writeSalaryDiscrepancy(new Employee(2L, "Jane", "Doe", 1000.0), Double.NEGATIVE_INFINITY);
+        }
+
+        Assertions.assertEquals("{\"section\":\"overpaid\",\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"discrepancy\":null}\n"
+                + "{\"section\":\"overpaid\",\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"discrepancy\":null}\n", out.toString());
+    }
+
+    @Test
+    public void testWriteToFile(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("report.csv");
+        Files.write(file, "previous content that is longer than the report".getBytes(StandardCharsets.UTF_8));
+
+        try (ReportWriter reportWriter = ReportWriters.toFile(ReportFormat.CSV, file)) {
+            reportWriter.beginSection(ReportSection.LONG_REPORT_LINES);
+            for (long id = 0; id < 100_000; id++) {
+                reportWriter.writeReportLineLength(new Employee(id, "John", "Doe", 1000.0), 4);
+            }
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Assertions.assertEquals(100_001, lines.size());
+        Assertions.assertEquals("longReportLine,99999,John,Doe,4", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    public void testDiscrepancyIsFormattedLikeFormatter() {
+        Random random = new Random(23);
+        List<Double> values = Arrays.asList(0.0, -0.0, 0.005, 0.015, 0.125, 0.285, -0.004, -0.005, 1.0, 12.345);
+        for (double value : values) {
+            Assertions.assertEquals(String.format(Locale.ROOT, "%.2f", value), TextReportWriter.formatDiscrepancy(value));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            double value = Math.round((random.nextDouble() * 4 - 2) * 1e10) / 1e10;
+            Assertions.assertEquals(String.format(Locale.ROOT, "%.2f", value), TextReportWriter.formatDiscrepancy(value));
+        }
+    }
+
+    private static String write(ReportFormat format) {
+        StringWriter out = new StringWriter();
+        try (ReportWriter reportWriter = ReportWriters.create(format, out)) {
+            reportWriter.beginSection(ReportSection.OVERPAID_MANAGERS);
+            reportWriter.writeSalaryDiscrepancy(new Employee(1L, "John", "Doe", 1000.0), 0.555);
+            reportWriter.beginSection(ReportSection.UNDERPAID_MANAGERS);
+            reportWriter.writeSalaryDiscrepancy(new Employee(2L, "Jane", "\"Smith\", Jr", 1000.0), 0.125);
+            reportWriter.beginSection(ReportSection.LONG_REPORT_LINES);
+            reportWriter.writeReportLineLength(new Employee(1L, "John", "Doe", 1000.0), 5);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.company.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class ConcurrentLongObjectHashMapTest {
+
+    @Test
+    public void testBasicOperations() {
+        ConcurrentLongObjectHashMap<String> map = new ConcurrentLongObjectHashMap<>(10);
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertNull(map.put(1L, "one"));
+        Assertions.assertEquals("one", map.put(1L, "uno"));
+        Assertions.assertNull(map.put(-2L, "minus two"));
+
+        Assertions.assertEquals("uno", map.get(1L));
+        Assertions.assertTrue(map.containsKey(-2L));
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertEquals(2, map.values().size());
+        Assertions.assertEquals("minus two", map.remove(-2L));
+        Assertions.assertNull(map.remove(-2L));
+
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertTrue(map.values().isEmpty());
+    }
+
+    @Test
+    public void testValuesByKey() {
+        //a dense range, a sparse range and a range too wide to pack the indices below the keys
+        long[][] keySets = {
+                {5, 3, 4, 1, 2, 7},
+                {1_000_000, 10, 50_000, -20, 64, 128},
+                {Long.MAX_VALUE, 0, Long.MIN_VALUE, 42, -1, 1L << 40}
+        };
+        for (long[] keys : keySets) {
+            ConcurrentLongObjectHashMap<Long> map = new ConcurrentLongObjectHashMap<>();
+            for (long key : keys) {
+                map.put(key, key);
+            }
+            List<Long> expected = new ArrayList<>();
+            for (long key : keys) {
+                expected.add(key);
+            }
+            expected.sort(null);
+            Assertions.assertEquals(expected, map.valuesByKey());
+        }
+    }
+
+    @Test
+    public void testReadersNeverMissStableKeysWhileWritersUpdate() throws Exception {
+        ConcurrentLongObjectHashMap<Long> map = new ConcurrentLongObjectHashMap<>();
+        int stableKeys = 10_000;
+        for (long key = 0; key < stableKeys; key++) {
+            map.put(key, key);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                long offset = stableKeys + writer * 1_000_000L;
+                //every writer grows and shrinks its own key range, so the stripes resize and shift entries
+                writers.add(executor.submit(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        for (long key = offset; key < offset + 20_000; key++) {
+                            map.put(key, key);
+                        }
+                        for (long key = offset; key < offset + 20_000; key++) {
+                            Assertions.assertEquals(key, map.remove(key));
+                        }
+                    }
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 2; reader++) {
+                readers.add(executor.submit(() -> {
+                    do {
+                        for (long key = 0; key < stableKeys; key++) {
+                            Assertions.assertEquals(key, map.get(key));
+                        }
+                    } while (writing.get());
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdown();
+        }
+        Assertions.assertEquals(stableKeys, map.size());
+    }
+}
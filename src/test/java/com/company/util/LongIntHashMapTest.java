@@ -0,0 +1,63 @@
+package com.company.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+class LongIntHashMapTest {
+
+    @Test
+    public void testMatchesHashMap() {
+        Random random = new Random(21);
+        LongIntHashMap map = new LongIntHashMap(0, -1);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextLong() % 50_000;
+            if (random.nextBoolean()) {
+                Assertions.assertEquals(expected.getOrDefault(key, -1), map.put(key, i));
+                expected.put(key, i);
+            } else {
+                Assertions.assertEquals(expected.getOrDefault(key, -1), map.putIfAbsent(key, i));
+                expected.putIfAbsent(key, i);
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), map.size());
+        for (long key = -50_000; key < 50_000; key++) {
+            Assertions.assertEquals(expected.getOrDefault(key, -1), map.get(key));
+            Assertions.assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+
+    @Test
+    public void testDenseAndPatternedKeys() {
+        //dense keys stay in key order, multiples of a power of two collide until the table is rehashed
+        for (long stride : new long[]{1, 1 << 10, 1L << 32}) {
+            LongIntHashMap map = new LongIntHashMap(0, -1);
+            for (int i = 0; i < 100_000; i++) {
+                Assertions.assertEquals(-1, map.put((i + 1) * stride, i));
+            }
+            Assertions.assertEquals(100_000, map.size());
+            for (int i = 0; i < 100_000; i++) {
+                Assertions.assertEquals(i, map.get((i + 1) * stride));
+                Assertions.assertFalse(map.containsKey(-(i + 1) * stride));
+            }
+        }
+    }
+
+    @Test
+    public void testZeroKey() {
+        LongIntHashMap map = new LongIntHashMap(4, Integer.MIN_VALUE);
+        Assertions.assertFalse(map.containsKey(0L));
+        Assertions.assertEquals(Integer.MIN_VALUE, map.get(0L));
+
+        Assertions.assertEquals(Integer.MIN_VALUE, map.putIfAbsent(0L, 7));
+        Assertions.assertEquals(7, map.putIfAbsent(0L, 8));
+        Assertions.assertEquals(7, map.put(0L, 9));
+        Assertions.assertEquals(9, map.get(0L));
+        Assertions.assertEquals(1, map.size());
+    }
+}
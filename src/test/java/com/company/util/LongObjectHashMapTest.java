@@ -0,0 +1,76 @@
+package com.company.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class LongObjectHashMapTest {
+
+    @Test
+    public void testMatchesHashMapUnderRandomUpdates() {
+        Random random = new Random(21);
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            //a small key range forces collisions, removals in the middle of clusters and repeated growth
+            long key = random.nextInt(20_000) - 10_000L;
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = String.valueOf(i);
+                Assertions.assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), map.size());
+        for (long key = -10_000; key < 10_000; key++) {
+            Assertions.assertEquals(expected.get(key), map.get(key));
+            Assertions.assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        List<String> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        Assertions.assertEquals(expected.size(), values.size());
+        Assertions.assertTrue(values.containsAll(expected.values()));
+    }
+
+    @Test
+    public void testPatternedKeys() {
+        //multiples of a power of two collide until the table is rehashed, removals must find the moved entries
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        for (long i = 1; i <= 50_000; i++) {
+            map.put(i << 16, i);
+        }
+        for (long i = 1; i <= 50_000; i += 2) {
+            Assertions.assertEquals(i, map.remove(i << 16));
+        }
+        Assertions.assertEquals(25_000, map.size());
+        for (long i = 1; i <= 50_000; i++) {
+            Assertions.assertEquals(i % 2 == 0 ? Long.valueOf(i) : null, map.get(i << 16));
+        }
+    }
+
+    @Test
+    public void testExtremeKeysAndClear() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(2);
+        map.put(0L, "zero");
+        map.put(Long.MIN_VALUE, "min");
+        map.put(Long.MAX_VALUE, "max");
+
+        Assertions.assertEquals("zero", map.get(0L));
+        Assertions.assertEquals("min", map.get(Long.MIN_VALUE));
+        Assertions.assertEquals("max", map.get(Long.MAX_VALUE));
+        Assertions.assertEquals("one", map.computeIfAbsent(1L, key -> "one"));
+        Assertions.assertEquals("one", map.computeIfAbsent(1L, key -> "other"));
+        Assertions.assertEquals(4, map.size());
+
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertNull(map.get(0L));
+        Assertions.assertThrows(NullPointerException.class, () -> map.put(1L, null));
+    }
+}
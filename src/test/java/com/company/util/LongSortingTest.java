@@ -0,0 +1,68 @@
+package com.company.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+class LongSortingTest {
+
+    @Test
+    public void testEmptyAndSingleKey() {
+        Assertions.assertArrayEquals(new int[0], LongSorting.sortedIndices(new long[0]));
+        Assertions.assertArrayEquals(new int[]{0}, LongSorting.sortedIndices(new long[]{Long.MIN_VALUE}));
+        Assertions.assertArrayEquals(new int[]{0}, LongSorting.sortedIndices(new long[]{Long.MAX_VALUE}));
+    }
+
+    @Test
+    public void testDenseRangeBoundary() {
+        //four keys are placed directly up to a key range of seven, a range of eight is packed
+        assertSorted(new long[]{107, 100, 103, 101});
+        assertSorted(new long[]{108, 100, 103, 101});
+        assertSorted(new long[]{-3, -10, -4, -7});
+    }
+
+    @Test
+    public void testPackedRangeBoundary() {
+        //four keys need two index bits, so key ranges below 2^61 are packed and 2^61 is searched
+        long packedLimit = 1L << 61;
+        assertSorted(new long[]{packedLimit - 1, 0, 5, 1_000_000});
+        assertSorted(new long[]{packedLimit, 0, 5, 1_000_000});
+        assertSorted(new long[]{Long.MIN_VALUE + packedLimit - 1, Long.MIN_VALUE, Long.MIN_VALUE + 2, -1});
+    }
+
+    @Test
+    public void testOverflowingKeyRange() {
+        //the range of these keys does not fit in a long
+        assertSorted(new long[]{Long.MAX_VALUE, Long.MIN_VALUE, 0, -1, 1});
+        assertSorted(new long[]{Long.MAX_VALUE, -1, Long.MAX_VALUE - 1});
+        assertSorted(new long[]{Long.MIN_VALUE, 1, Long.MIN_VALUE + 1});
+    }
+
+    @Test
+    public void testRandomKeysOfEveryStrategy() {
+        Random random = new Random(29);
+        for (int run = 0; run < 20; run++) {
+            int size = 1 + random.nextInt(1000);
+            //dense, packed and searched key ranges
+            assertSorted(random.longs(-size, size).distinct().limit(size).toArray());
+            assertSorted(random.longs(0, 1L << 40).distinct().limit(size).toArray());
+            assertSorted(random.longs(Long.MIN_VALUE, Long.MAX_VALUE).distinct().limit(size).toArray());
+        }
+    }
+
+    private static void assertSorted(long[] keys) {
+        long[] original = keys.clone();
+        int[] indices = LongSorting.sortedIndices(keys);
+        Assertions.assertArrayEquals(original, keys);
+
+        long[] expected = keys.clone();
+        Arrays.sort(expected);
+        long[] actual = new long[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            actual[i] = keys[indices[i]];
+        }
+        Assertions.assertArrayEquals(expected, actual);
+    }
+}